@@ -0,0 +1,93 @@
+package com.mercadolibre.bootcamp.projeto_integrador.benchmark;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.service.BatchService;
+import com.mercadolibre.bootcamp.projeto_integrador.util.BatchGenerator;
+import org.modelmapper.Converter;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o map de BatchRequestDto para Batch de uma ordem de entrada inteira: o map campo a campo de
+ * BatchService.mapDtoToBatch contra o map anterior, com um ModelMapper novo por lote.
+ * Para rodar: mvn -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchMapperBenchmark {
+    private static final int PRODUCT_COUNT = 50;
+
+    @Param("10000")
+    private int rows;
+
+    private List<BatchRequestDto> batchesDto;
+    private Map<Long, Product> products;
+    private InboundOrder order;
+
+    @Setup
+    public void setup() {
+        products = new HashMap<>();
+        for (long productId = 1; productId <= PRODUCT_COUNT; productId++) {
+            Product product = new Product();
+            product.setProductId(productId);
+            products.put(productId, product);
+        }
+        batchesDto = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            BatchRequestDto dto = BatchGenerator.newBatchRequestDTO();
+            dto.setProductId(1 + i % PRODUCT_COUNT);
+            dto.setInitialQuantity(1 + i % 100);
+            batchesDto.add(dto);
+        }
+        order = new InboundOrder();
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole blackhole) {
+        for (BatchRequestDto dto : batchesDto) {
+            blackhole.consume(BatchService.mapDtoToBatch(dto, order, products));
+        }
+    }
+
+    @Benchmark
+    public void modelMapperPerRow(Blackhole blackhole) {
+        for (BatchRequestDto dto : batchesDto) {
+            blackhole.consume(mapWithModelMapper(dto));
+        }
+    }
+
+    private Batch mapWithModelMapper(BatchRequestDto dto) {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.typeMap(BatchRequestDto.class, Batch.class).addMappings(mapper -> {
+            Converter<Long, Product> converter = context -> products.get(context.getSource());
+            mapper.using(converter).map(BatchRequestDto::getProductId, Batch::setProduct);
+        });
+        Batch batch = modelMapper.map(dto, Batch.class);
+        batch.setInboundOrder(order);
+        return batch;
+    }
+}
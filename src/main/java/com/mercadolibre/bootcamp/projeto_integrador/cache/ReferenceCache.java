@@ -0,0 +1,195 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.CacheStatsDto;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache LRU limitado por tamanho e por tempo de vida, para dados de referência que quase nunca mudam. Apenas valores
+ * encontrados são guardados; a busca no banco acontece fora do lock, e um valor carregado durante uma invalidação
+ * é descartado em vez de guardado.
+ *
+ * @param <K> tipo da chave.
+ * @param <V> tipo do valor.
+ */
+public class ReferenceCache<K, V> {
+    private final String name;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, CachedValue<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param name        nome exibido nas métricas.
+     * @param maximumSize quantidade máxima de valores; o menos usado recentemente é removido ao exceder.
+     * @param timeToLive  tempo máximo desde a carga do valor.
+     * @param ticker      relógio em nanossegundos.
+     * @param copier      cópia entregue a cada leitura, para valores que podem ser alterados por quem os recebe.
+     */
+    public ReferenceCache(String name, int maximumSize, Duration timeToLive, LongSupplier ticker,
+                          UnaryOperator<V> copier) {
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.ticker = ticker;
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() <= ReferenceCache.this.maximumSize) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public ReferenceCache(String name, int maximumSize, Duration timeToLive) {
+        this(name, maximumSize, timeToLive, System::nanoTime, UnaryOperator.identity());
+    }
+
+    /**
+     * Método que retorna o valor da chave, carregando-o caso não esteja no cache ou tenha expirado. Exceções do
+     * carregamento são propagadas e nada é guardado.
+     *
+     * @param key    chave buscada.
+     * @param loader busca do valor no banco de dados.
+     * @return valor encontrado.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long generation;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits++;
+                return copier.apply(cached);
+            }
+            misses++;
+            generation = invalidations;
+        }
+        V loaded = loader.apply(key);
+        store(key, loaded, generation);
+        return loaded;
+    }
+
+    /**
+     * Método que retorna os valores das chaves informadas, carregando de uma só vez as que não estão no cache. Chaves
+     * sem valor ficam fora do mapa retornado.
+     *
+     * @param keys   chaves buscadas.
+     * @param loader busca em lote dos valores no banco de dados.
+     * @return Mapa de chave para valor.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> found = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long generation;
+        synchronized (this) {
+            for (K key : keys) {
+                V cached = lookup(key);
+                if (cached != null) {
+                    hits++;
+                    found.put(key, copier.apply(cached));
+                } else if (!missing.contains(key)) {
+                    misses++;
+                    missing.add(key);
+                }
+            }
+            generation = invalidations;
+        }
+        if (missing.isEmpty())
+            return found;
+
+        Map<K, V> loaded = loader.apply(missing);
+        loaded.forEach((key, value) -> store(key, value, generation));
+        found.putAll(loaded);
+        return found;
+    }
+
+    /**
+     * Método que guarda um valor já conhecido, sem passar pelo carregamento.
+     *
+     * @param key   chave do valor.
+     * @param value valor guardado.
+     */
+    public synchronized void put(K key, V value) {
+        store(key, value, invalidations);
+    }
+
+    /**
+     * Método que remove a chave do cache. Dentro de uma transação, a chave é removida de novo ao final dela, para
+     * descartar o valor antigo que outra requisição tenha carregado antes do commit.
+     *
+     * @param key chave alterada.
+     */
+    public void evict(K key) {
+        invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Método que remove todos os valores do cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        invalidations++;
+    }
+
+    public synchronized CacheStatsDto getStats() {
+        return new CacheStatsDto(name, entries.size(), maximumSize, hits, misses, evictions, invalidations);
+    }
+
+    private synchronized void invalidate(K key) {
+        entries.remove(key);
+        invalidations++;
+    }
+
+    private synchronized void store(K key, V value, long generation) {
+        if (value == null || generation != invalidations) return;
+        entries.put(key, new CachedValue<>(copier.apply(value), ticker.getAsLong() + timeToLiveNanos));
+    }
+
+    private V lookup(K key) {
+        CachedValue<V> cached = entries.get(key);
+        if (cached == null) return null;
+        if (ticker.getAsLong() - cached.expiresAt >= 0) {
+            entries.remove(key);
+            evictions++;
+            return null;
+        }
+        return cached.value;
+    }
+
+    private static class CachedValue<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private CachedValue(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.CacheStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caches das entidades consultadas a cada requisição para autorização e validação. Os valores guardados estão
+ * desanexados do EntityManager; a seção, que é alterada a cada ordem de entrada, é entregue como cópia.
+ */
+@Component
+@Getter
+public class ReferenceDataCache implements Reloadable {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private final ReferenceCache<Long, Manager> managers = new ReferenceCache<>("managers", MAXIMUM_SIZE, TIME_TO_LIVE);
+    private final ReferenceCache<Long, Section> sections = new ReferenceCache<>("sections", MAXIMUM_SIZE, TIME_TO_LIVE,
+            System::nanoTime, ReferenceDataCache::copySection);
+    private final ReferenceCache<Long, Product> products = new ReferenceCache<>("products", MAXIMUM_SIZE, TIME_TO_LIVE);
+    private final ReferenceCache<Long, Buyer> buyers = new ReferenceCache<>("buyers", MAXIMUM_SIZE, TIME_TO_LIVE);
+
+    public List<CacheStatsDto> getStats() {
+        return List.of(managers.getStats(), sections.getStats(), products.getStats(), buyers.getStats());
+    }
+
+    @Override
+    public void reload() {
+        managers.clear();
+        sections.clear();
+        products.clear();
+        buyers.clear();
+    }
+
+    private static Section copySection(Section section) {
+        return Section.builder()
+                .sectionCode(section.getSectionCode())
+                .warehouse(section.getWarehouse())
+                .category(section.getCategory())
+                .maxBatches(section.getMaxBatches())
+                .currentBatches(section.getCurrentBatches())
+                .manager(section.getManager())
+                .version(section.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+/**
+ * Estrutura mantida em memória a partir do banco de dados, que pode ser descartada e recarregada a qualquer momento.
+ */
+public interface Reloadable {
+    /**
+     * Descarta o estado atual e o reconstrói a partir do banco de dados.
+     */
+    void reload();
+}
@@ -0,0 +1,106 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite superior dos slots livres de cada seção, usado para recusar ordens de entrada em seções cheias sem consultar
+ * o banco. Os slots livres de uma seção só diminuem (nenhum fluxo libera slots), então qualquer leitura já confirmada
+ * do banco continua valendo como limite: uma ordem que não cabe no limite não cabe na seção. A reserva em si é sempre
+ * feita no banco (ISectionRepository.reserveSlots); o limite só evita a ida ao banco quando a resposta já é conhecida.
+ * Cada limite expira após section-slots.hint-ttl-seconds, para que um aumento de maxBatches feito direto no banco passe
+ * a valer.
+ */
+@Component
+public class SectionSlotHints implements Reloadable {
+    private final Map<Long, Hint> hints = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    /**
+     * @param ttlSeconds tempo de validade de cada limite.
+     */
+    @Autowired
+    public SectionSlotHints(@Value("${section-slots.hint-ttl-seconds:60}") long ttlSeconds) {
+        this(ttlSeconds, System::nanoTime);
+    }
+
+    SectionSlotHints(long ttlSeconds, LongSupplier ticker) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.ticker = ticker;
+    }
+
+    /**
+     * @param sectionCode código da seção.
+     * @param batchCount  quantidade de lotes da ordem.
+     * @return false caso já se saiba que a seção não tem slots para os lotes; true caso contrário.
+     */
+    public boolean mayFit(long sectionCode, int batchCount) {
+        Hint hint = hints.get(sectionCode);
+        return hint == null || isExpired(hint) || batchCount <= hint.freeSlots;
+    }
+
+    /**
+     * Método que registra os slots livres de uma seção lidos do banco, mantendo o menor limite conhecido.
+     *
+     * @param sectionCode código da seção.
+     * @param freeSlots   slots livres lidos de um valor já confirmado no banco.
+     */
+    public void observe(long sectionCode, int freeSlots) {
+        long now = ticker.getAsLong();
+        hints.merge(sectionCode, new Hint(freeSlots, now), (current, observed) ->
+                isExpired(current) || observed.freeSlots < current.freeSlots ? observed : current);
+    }
+
+    /**
+     * Método que desconta do limite os slots reservados. Dentro de uma transação, o desconto só é feito após o commit;
+     * em caso de rollback o limite não é alterado.
+     *
+     * @param sectionCode código da seção.
+     * @param batchCount  quantidade de slots reservados.
+     */
+    public void reserved(long sectionCode, int batchCount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            decrement(sectionCode, batchCount);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                decrement(sectionCode, batchCount);
+            }
+        });
+    }
+
+    @Override
+    public void reload() {
+        hints.clear();
+    }
+
+    private void decrement(long sectionCode, int batchCount) {
+        hints.computeIfPresent(sectionCode, (code, hint) ->
+                new Hint(Math.max(hint.freeSlots - batchCount, 0), hint.observedAt));
+    }
+
+    private boolean isExpired(Hint hint) {
+        return ticker.getAsLong() - hint.observedAt > ttlNanos;
+    }
+
+    private static class Hint {
+        private final int freeSlots;
+        private final long observedAt;
+
+        private Hint(int freeSlots, long observedAt) {
+            this.freeSlots = freeSlots;
+            this.observedAt = observedAt;
+        }
+    }
+}
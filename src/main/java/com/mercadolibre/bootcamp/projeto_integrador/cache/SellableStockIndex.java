@@ -0,0 +1,280 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchCursor;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice em memória dos lotes à venda: estoque positivo e validade posterior a MINIMUM_EXPIRATION_DAYS dias, ordenados
+ * por (dueDate, batchNumber) e particionados por categoria e por produto. A partição por produto serve à alocação
+ * FEFO (first-expire-first-out): o primeiro lote de cada produto é o que vence antes.
+ * Os lotes também ficam agrupados por dia de validade; quando o dia muda, os grupos que cruzaram a data mínima saem do
+ * índice de uma vez, sem percorrer os demais lotes.
+ * As leituras não usam lock; as escritas são serializadas e só acontecem após o commit da transação que alterou o lote.
+ * Como os commits de transações diferentes podem chegar ao índice fora de ordem, cada lote guarda a última versão
+ * aplicada (Batch.version), inclusive depois de sair do índice, e fotografias que não são mais novas são descartadas.
+ * Cada escrita incrementa a StockVersion das categorias afetadas, depois de aplicada ao índice.
+ */
+@Component
+public class SellableStockIndex implements Reloadable {
+    public static final int MINIMUM_EXPIRATION_DAYS = 20;
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private IBatchRepository batchRepository;
+    @Autowired
+    private StockVersion stockVersion;
+    @Autowired
+    private Clock clock;
+
+    private final NavigableSet<StockEntry> all = new ConcurrentSkipListSet<>(StockEntry.BY_DUE_DATE);
+    private final Map<Section.Category, NavigableSet<StockEntry>> byCategory = new EnumMap<>(Section.Category.class);
+    private final Map<Long, NavigableSet<StockEntry>> byProduct = new ConcurrentHashMap<>();
+    private final Map<Long, StockEntry> byBatchNumber = new ConcurrentHashMap<>();
+    private final NavigableMap<LocalDate, Set<Long>> byDueDate = new ConcurrentSkipListMap<>();
+    private final Map<Long, Long> appliedVersions = new ConcurrentHashMap<>();
+    private volatile LocalDate minimumExpirationDate = LocalDate.MIN;
+    private volatile boolean ready;
+
+    public SellableStockIndex() {
+        for (Section.Category category : Section.Category.values()) {
+            byCategory.put(category, new ConcurrentSkipListSet<>(StockEntry.BY_DUE_DATE));
+        }
+    }
+
+    /**
+     * @return true após a carga inicial do índice.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return data mínima de validade dos lotes no índice; apenas lotes com dueDate posterior estão à venda.
+     */
+    public LocalDate getMinimumExpirationDate() {
+        expireIfDayChanged();
+        return minimumExpirationDate;
+    }
+
+    /**
+     * Método que carrega o índice com os lotes em estoque e com validade posterior à data mínima de venda.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public synchronized void reload() {
+        ready = false;
+        clear();
+        minimumExpirationDate = currentMinimumExpirationDate();
+
+        BatchCursor position = BatchCursor.first(minimumExpirationDate);
+        List<StockEntry> entries;
+        do {
+            entries = batchRepository.findStockEntryPage(0, minimumExpirationDate, position.getDueDate(),
+                    position.getBatchNumber(), PageRequest.of(0, LOAD_PAGE_SIZE));
+            entries.forEach(entry -> {
+                appliedVersions.put(entry.getBatchNumber(), entry.getVersion());
+                put(entry);
+            });
+            if (!entries.isEmpty()) {
+                StockEntry last = entries.get(entries.size() - 1);
+                position = new BatchCursor(last.getDueDate(), last.getBatchNumber());
+            }
+        } while (entries.size() == LOAD_PAGE_SIZE);
+
+        ready = true;
+    }
+
+    /**
+     * Método que remove do índice os lotes cuja validade deixou de ser posterior à data mínima de venda. Roda à
+     * meia-noite; as leituras também aplicam a expiração caso o dia tenha mudado antes da execução agendada.
+     */
+    @Scheduled(cron = "${stock.expiry.cron:0 0 0 * * *}")
+    public void expire() {
+        advanceTo(currentMinimumExpirationDate());
+    }
+
+    /**
+     * Método que busca os lotes à venda após o cursor informado. Como o índice só contém lotes com validade posterior
+     * à data mínima, não há filtro por data.
+     *
+     * @param category categoria dos produtos, ou null para todas.
+     * @param position último lote da página anterior.
+     * @param limit    quantidade máxima de lotes.
+     * @return Lista de StockEntry em ordem de validade.
+     */
+    public List<StockEntry> findPage(Section.Category category, BatchCursor position, int limit) {
+        expireIfDayChanged();
+
+        NavigableSet<StockEntry> entries = category == null ? all : byCategory.get(category);
+        List<StockEntry> page = new ArrayList<>(limit);
+        for (StockEntry entry : entries.tailSet(StockEntry.probe(position.getDueDate(), position.getBatchNumber()), false)) {
+            if (page.size() == limit) break;
+            page.add(entry);
+        }
+        return page;
+    }
+
+    /**
+     * Método que busca um lote à venda no índice.
+     *
+     * @param batchNumber número do lote.
+     * @return StockEntry do lote, ou vazio caso ele esteja sem estoque ou com validade inferior à data mínima.
+     */
+    public Optional<StockEntry> find(long batchNumber) {
+        expireIfDayChanged();
+        return Optional.ofNullable(byBatchNumber.get(batchNumber));
+    }
+
+    /**
+     * Método que busca os lotes à venda de um produto, do que vence primeiro ao que vence por último, até somar a
+     * quantidade pedida. Apenas lotes com validade posterior à data mínima informada são considerados.
+     *
+     * @param productId             identificador do produto.
+     * @param quantity              quantidade pedida.
+     * @param minimumExpirationDate data mínima de validade; deve ser igual ou posterior à data mínima do índice.
+     * @return Lista de StockEntry em ordem de validade; a soma das quantidades pode ser menor que a pedida.
+     */
+    public List<StockEntry> findFirstExpiring(long productId, int quantity, LocalDate minimumExpirationDate) {
+        expireIfDayChanged();
+
+        NavigableSet<StockEntry> entries = byProduct.get(productId);
+        List<StockEntry> found = new ArrayList<>();
+        if (entries == null) return found;
+        int remaining = quantity;
+        for (StockEntry entry : entries.tailSet(StockEntry.probe(minimumExpirationDate, Long.MAX_VALUE), false)) {
+            if (remaining <= 0) break;
+            found.add(entry);
+            remaining -= entry.getQuantity();
+        }
+        return found;
+    }
+
+    /**
+     * Método que atualiza o índice com o estado dos lotes informados. Dentro de uma transação, a atualização só é
+     * aplicada após o commit; em caso de rollback o índice não é alterado. Lotes com versão igual ou anterior à última
+     * aplicada são ignorados, por isso a versão informada precisa ser a gravada no banco.
+     *
+     * @param batches lotes criados ou alterados.
+     */
+    public void refresh(Collection<Batch> batches) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(batches);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(batches);
+            }
+        });
+    }
+
+    private synchronized void apply(Collection<Batch> batches) {
+        Set<Section.Category> changedCategories = EnumSet.noneOf(Section.Category.class);
+        for (Batch batch : batches) {
+            Long appliedVersion = appliedVersions.get(batch.getBatchNumber());
+            if (appliedVersion != null && batch.getVersion() <= appliedVersion) continue;
+            appliedVersions.put(batch.getBatchNumber(), batch.getVersion());
+
+            StockEntry previous = remove(batch.getBatchNumber());
+            if (previous != null && previous.getCategory() != null)
+                changedCategories.add(previous.getCategory());
+            if (batch.getProduct().getCategory() != null)
+                changedCategories.add(batch.getProduct().getCategory());
+            if (batch.getCurrentQuantity() > 0)
+                put(new StockEntry(batch));
+        }
+        stockVersion.bump(changedCategories);
+    }
+
+    private void expireIfDayChanged() {
+        if (currentMinimumExpirationDate().isAfter(minimumExpirationDate))
+            expire();
+    }
+
+    private synchronized void advanceTo(LocalDate newMinimumExpirationDate) {
+        if (!newMinimumExpirationDate.isAfter(minimumExpirationDate)) return;
+
+        Set<Section.Category> changedCategories = EnumSet.noneOf(Section.Category.class);
+        Map.Entry<LocalDate, Set<Long>> bucket;
+        while ((bucket = byDueDate.firstEntry()) != null && !bucket.getKey().isAfter(newMinimumExpirationDate)) {
+            for (Long batchNumber : new ArrayList<>(bucket.getValue())) {
+                StockEntry previous = remove(batchNumber);
+                if (previous != null && previous.getCategory() != null)
+                    changedCategories.add(previous.getCategory());
+            }
+            byDueDate.remove(bucket.getKey());
+        }
+        minimumExpirationDate = newMinimumExpirationDate;
+        if (!changedCategories.isEmpty())
+            stockVersion.bump(changedCategories);
+    }
+
+    private LocalDate currentMinimumExpirationDate() {
+        return LocalDate.now(clock).plusDays(MINIMUM_EXPIRATION_DAYS);
+    }
+
+    private void put(StockEntry entry) {
+        if (!entry.getDueDate().isAfter(minimumExpirationDate)) return;
+        byDueDate.computeIfAbsent(entry.getDueDate(), dueDate -> ConcurrentHashMap.newKeySet())
+                .add(entry.getBatchNumber());
+        byBatchNumber.put(entry.getBatchNumber(), entry);
+        byProduct.computeIfAbsent(entry.getProductId(), productId -> new ConcurrentSkipListSet<>(StockEntry.BY_DUE_DATE))
+                .add(entry);
+        all.add(entry);
+        if (entry.getCategory() != null)
+            byCategory.get(entry.getCategory()).add(entry);
+    }
+
+    private StockEntry remove(long batchNumber) {
+        StockEntry previous = byBatchNumber.remove(batchNumber);
+        if (previous == null) return null;
+        all.remove(previous);
+        byProduct.computeIfPresent(previous.getProductId(), (productId, entries) -> {
+            entries.remove(previous);
+            return entries.isEmpty() ? null : entries;
+        });
+        byDueDate.computeIfPresent(previous.getDueDate(), (dueDate, batchNumbers) -> {
+            batchNumbers.remove(batchNumber);
+            return batchNumbers.isEmpty() ? null : batchNumbers;
+        });
+        if (previous.getCategory() != null)
+            byCategory.get(previous.getCategory()).remove(previous);
+        return previous;
+    }
+
+    private void clear() {
+        appliedVersions.clear();
+        byBatchNumber.clear();
+        byProduct.clear();
+        byDueDate.clear();
+        all.clear();
+        byCategory.values().forEach(NavigableSet::clear);
+    }
+}
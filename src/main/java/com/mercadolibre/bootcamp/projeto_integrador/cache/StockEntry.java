@@ -0,0 +1,79 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Fotografia imutável de um lote à venda, mantida pelo SellableStockIndex.
+ */
+@Getter
+@AllArgsConstructor
+public class StockEntry {
+    public static final Comparator<StockEntry> BY_DUE_DATE = Comparator
+            .comparing(StockEntry::getDueDate)
+            .thenComparingLong(StockEntry::getBatchNumber);
+    private static final int PRICE_SCALE = 2;
+
+    private final long batchNumber;
+    private final long productId;
+    private final String productName;
+    private final String brand;
+    private final Section.Category category;
+    private final int quantity;
+    private final LocalDate dueDate;
+    private final BigDecimal productPrice;
+    /**
+     * Versão do lote (Batch.version) da fotografia; o índice descarta fotografias mais antigas que a que já tem.
+     */
+    private final long version;
+
+    public StockEntry(Batch batch) {
+        this(batch.getBatchNumber(),
+                batch.getProduct().getProductId(),
+                batch.getProduct().getProductName(),
+                batch.getProduct().getBrand(),
+                batch.getProduct().getCategory(),
+                batch.getCurrentQuantity(),
+                batch.getDueDate(),
+                toColumnScale(batch.getProductPrice()),
+                batch.getVersion());
+    }
+
+    /**
+     * Ajusta o preço para a escala da coluna, para que o lote recém-salvo seja devolvido igual ao lido do banco.
+     */
+    private static BigDecimal toColumnScale(BigDecimal price) {
+        return price == null ? null : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Monta uma entrada usada apenas como limite de busca no índice.
+     *
+     * @param dueDate     data de validade.
+     * @param batchNumber número do lote.
+     * @return StockEntry sem dados de produto.
+     */
+    static StockEntry probe(LocalDate dueDate, long batchNumber) {
+        return new StockEntry(batchNumber, 0, null, null, null, 0, dueDate, null, 0);
+    }
+
+    public BatchBuyerResponseDto toBuyerDto() {
+        BatchBuyerResponseDto dto = new BatchBuyerResponseDto();
+        dto.setBatchNumber(batchNumber);
+        dto.setProductName(productName);
+        dto.setBrand(brand);
+        dto.setCategory(category);
+        dto.setQuantity(quantity);
+        dto.setDueDate(dueDate);
+        dto.setProductPrice(productPrice);
+        return dto;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão do estoque à venda, global e por categoria, incrementada a cada alteração de lotes já confirmada no banco.
+ * Usada para montar o ETag das listagens sem consultar os lotes.
+ */
+@Component
+public class StockVersion implements Reloadable {
+    private final AtomicLong global = new AtomicLong();
+    private final Map<Section.Category, AtomicLong> byCategory = new EnumMap<>(Section.Category.class);
+    private volatile long epoch = System.currentTimeMillis();
+
+    public StockVersion() {
+        for (Section.Category category : Section.Category.values()) {
+            byCategory.put(category, new AtomicLong());
+        }
+    }
+
+    /**
+     * Método que retorna a versão atual do estoque. O valor inclui a categoria, para que versões de listagens
+     * diferentes nunca coincidam, e o instante da última carga, para que uma versão anterior a um reinício da aplicação
+     * nunca seja reconhecida.
+     *
+     * @param category categoria dos produtos, ou null para todas.
+     * @return String com a versão.
+     */
+    public String current(Section.Category category) {
+        long version = category == null ? global.get() : byCategory.get(category).get();
+        String scope = category == null ? "all" : category.name();
+        return scope + "." + Long.toString(epoch, Character.MAX_RADIX) + "." + version;
+    }
+
+    /**
+     * Método que incrementa a versão global e a das categorias informadas.
+     *
+     * @param categories categorias dos lotes alterados.
+     */
+    public void bump(Collection<Section.Category> categories) {
+        categories.forEach(category -> byCategory.get(category).incrementAndGet());
+        global.incrementAndGet();
+    }
+
+    /**
+     * Método que invalida todas as versões já entregues, após o estoque ser recarregado do banco.
+     */
+    @Override
+    public void reload() {
+        epoch = Math.max(System.currentTimeMillis(), epoch + 1);
+    }
+}
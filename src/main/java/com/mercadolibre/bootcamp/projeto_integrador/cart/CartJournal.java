@@ -0,0 +1,142 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diário em disco local das inclusões pendentes do modo write-behind, uma linha de texto por inclusão, acrescentada ao
+ * final do arquivo. Uma linha incompleta (sem '\n' no final), gravada no momento de uma queda, é ignorada na leitura e
+ * removida por dropIncompleteLine, para que a próxima inclusão não seja acrescentada à mesma linha.
+ * Não é thread-safe: quem usa o diário serializa as chamadas.
+ */
+class CartJournal {
+    private static final String SEPARATOR = ";";
+
+    private final Path path;
+    private final boolean forceToDisk;
+    private FileChannel channel;
+
+    /**
+     * @param path        arquivo do diário.
+     * @param forceToDisk se true, cada gravação só termina depois de chegar ao disco (fsync).
+     */
+    CartJournal(Path path, boolean forceToDisk) {
+        this.path = path;
+        this.forceToDisk = forceToDisk;
+    }
+
+    /**
+     * @return inclusões gravadas no diário, na ordem em que foram acrescentadas.
+     */
+    List<PendingCartLine> read() {
+        List<PendingCartLine> lines = new ArrayList<>();
+        if (!Files.exists(path)) return lines;
+        try {
+            byte[] content = Files.readAllBytes(path);
+            String text = new String(content, 0, completeLength(content), StandardCharsets.UTF_8);
+            for (String lineText : text.split("\n")) {
+                PendingCartLine line = parse(lineText);
+                if (line != null) lines.add(line);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return lines;
+    }
+
+    /**
+     * Remove do final do diário a linha incompleta deixada por uma queda durante append, se houver.
+     */
+    void dropIncompleteLine() {
+        if (!Files.exists(path)) return;
+        try {
+            byte[] content = Files.readAllBytes(path);
+            int length = completeLength(content);
+            if (length == content.length) return;
+            FileChannel output = open();
+            output.truncate(length);
+            if (forceToDisk) output.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Acrescenta as inclusões ao final do diário.
+     */
+    void append(List<PendingCartLine> lines) {
+        StringBuilder text = new StringBuilder();
+        lines.forEach(line -> text.append(format(line)).append('\n'));
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            FileChannel output = open();
+            while (buffer.hasRemaining()) output.write(buffer);
+            if (forceToDisk) output.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Esvazia o diário, quando todas as inclusões já estão gravadas no banco.
+     */
+    void truncate() {
+        if (channel == null && !Files.exists(path)) return;
+        try {
+            FileChannel output = open();
+            output.truncate(0);
+            if (forceToDisk) output.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * @return tamanho do conteúdo até o último '\n', inclusive.
+     */
+    private static int completeLength(byte[] content) {
+        int length = content.length;
+        while (length > 0 && content[length - 1] != '\n') length--;
+        return length;
+    }
+
+    private static String format(PendingCartLine line) {
+        return String.join(SEPARATOR,
+                String.valueOf(line.getSequence()),
+                String.valueOf(line.getBuyerId()),
+                String.valueOf(line.getPurchaseId()),
+                String.valueOf(line.getBatchNumber()),
+                String.valueOf(line.getQuantity()),
+                line.getUnitPrice().toPlainString(),
+                line.getReservedUntil().toString());
+    }
+
+    private static PendingCartLine parse(String text) {
+        String[] fields = text.split(SEPARATOR);
+        if (fields.length != 7) return null;
+        try {
+            return new PendingCartLine(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    Long.parseLong(fields[3]), Integer.parseInt(fields[4]), new BigDecimal(fields[5]),
+                    LocalDateTime.parse(fields[6]));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
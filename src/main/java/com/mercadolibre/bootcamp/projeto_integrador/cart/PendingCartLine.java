@@ -0,0 +1,23 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Inclusão de item em um carrinho em aberto cujo estoque já foi descontado no banco, mas que ainda não foi gravada na
+ * tabela de itens. A sequência ordena as inclusões no diário e no ponto de controle.
+ */
+@Getter
+@AllArgsConstructor
+public class PendingCartLine {
+    private final long sequence;
+    private final long buyerId;
+    private final long purchaseId;
+    private final long batchNumber;
+    private final int quantity;
+    private final BigDecimal unitPrice;
+    private final LocalDateTime reservedUntil;
+}
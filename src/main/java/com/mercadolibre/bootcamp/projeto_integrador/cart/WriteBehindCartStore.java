@@ -0,0 +1,230 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cart;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.Reloadable;
+import com.mercadolibre.bootcamp.projeto_integrador.concurrency.ConflictRetry;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.PurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.WriteBehindCheckpoint;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IWriteBehindCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Modo write-behind dos carrinhos em aberto (cart.write-behind.enabled). O desconto do estoque continua sendo feito no
+ * banco, na transação da compra; só a gravação dos itens e do total do carrinho é adiada: as inclusões ficam em
+ * memória, por comprador, e são gravadas em lote por flush, chamado periodicamente e antes de qualquer leitura ou
+ * alteração que dependa dos itens gravados (fechamento, remoção de item e consulta do carrinho).
+ * Cada inclusão é acrescentada a um diário em disco local após o commit do estoque. O flush grava, na mesma transação
+ * dos itens, a maior sequência incluída (WriteBehindCheckpoint); ao subir, as inclusões do diário após essa sequência
+ * voltam para a memória e são gravadas no flush seguinte, sem duplicar as que já estavam no banco. O diário e a
+ * sequência são de cada instância, então o ponto de controle é gravado por instância (cart.write-behind.instance-id),
+ * que deve ser única entre as instâncias e a mesma entre reinícios com o mesmo diário.
+ * Uma queda entre o commit do estoque e a gravação no diário perde a inclusão com o estoque descontado, o que é
+ * preferível a refazer uma inclusão cujo estoque não foi descontado.
+ */
+@Component
+public class WriteBehindCartStore implements Reloadable {
+    @Autowired
+    private IWriteBehindCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ConflictRetry conflictRetry;
+
+    private final boolean enabled;
+    private final String checkpointId;
+    private final CartJournal journal;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<Long, List<PendingCartLine>> pending = new LinkedHashMap<>();
+    private List<PendingCartLine> inFlight = List.of();
+    private long sequence;
+
+    /**
+     * @param enabled     se true, as inclusões nos carrinhos em aberto passam por este store.
+     * @param journalPath arquivo do diário de inclusões.
+     * @param forceToDisk se true, cada inclusão só termina depois de o diário chegar ao disco (fsync).
+     * @param instanceId  identificador desta instância, que separa o seu ponto de controle do das demais.
+     */
+    public WriteBehindCartStore(@Value("${cart.write-behind.enabled:false}") boolean enabled,
+                                @Value("${cart.write-behind.journal-path:cart-journal.log}") String journalPath,
+                                @Value("${cart.write-behind.journal-fsync:true}") boolean forceToDisk,
+                                @Value("${cart.write-behind.instance-id:${HOSTNAME:local}}") String instanceId) {
+        this.enabled = enabled;
+        this.checkpointId = WriteBehindCheckpoint.cartJournal(instanceId);
+        this.journal = new CartJournal(Paths.get(journalPath), forceToDisk);
+    }
+
+    /**
+     * @return true se as inclusões nos carrinhos em aberto devem passar por este store.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Método que registra a inclusão de itens no carrinho. Dentro de uma transação, os itens só entram na memória e no
+     * diário após o commit; em caso de rollback nada é registrado.
+     *
+     * @param purchase      carrinho em aberto.
+     * @param batches       batches comprados, com o preço atual.
+     * @param quantities    quantidade por número do batch.
+     * @param reservedUntil prazo da reserva dos itens.
+     * @return valor total em carrinho, somando o valor gravado e as inclusões pendentes.
+     */
+    public BigDecimal add(PurchaseOrder purchase, List<Batch> batches, Map<Long, Integer> quantities,
+                          LocalDateTime reservedUntil) {
+        long buyerId = purchase.getBuyer().getBuyerId();
+        List<PendingCartLine> lines = batches.stream()
+                .map(batch -> new PendingCartLine(0, buyerId, purchase.getPurchaseId(), batch.getBatchNumber(),
+                        quantities.get(batch.getBatchNumber()), batch.getProductPrice(), reservedUntil))
+                .collect(Collectors.toList());
+        BigDecimal totalPrice = purchase.getTotalPrice().add(pendingAmount(buyerId)).add(amount(lines.stream()));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(lines);
+            return totalPrice;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(lines);
+            }
+        });
+        return totalPrice;
+    }
+
+    /**
+     * Método que grava as inclusões pendentes de todos os carrinhos em uma única transação, junto com o ponto de
+     * controle. Um flush por vez: quem chama espera o flush em andamento terminar, então, ao retornar, tudo o que
+     * estava pendente na chamada já está no banco. Como a espera não tem limite, não deve ser chamado por quem já usa
+     * uma conexão do pool.
+     * Se a gravação falhar, as inclusões voltam para a memória e a exceção é repassada.
+     *
+     * @param writer grava as inclusões no banco, dentro da transação aberta pelo store.
+     * @return quantidade de inclusões gravadas.
+     */
+    public int flush(Consumer<List<PendingCartLine>> writer) {
+        synchronized (this) {
+            if (pending.isEmpty() && inFlight.isEmpty()) return 0;
+        }
+        flushLock.lock();
+        try {
+            List<PendingCartLine> lines;
+            long lastSequence;
+            synchronized (this) {
+                if (pending.isEmpty()) return 0;
+                lines = pending.values().stream()
+                        .flatMap(List::stream)
+                        .sorted(Comparator.comparingLong(PendingCartLine::getSequence))
+                        .collect(Collectors.toList());
+                pending.clear();
+                inFlight = lines;
+                lastSequence = sequence;
+            }
+            try {
+                conflictRetry.run("purchase-order.flush-carts", () -> {
+                    writer.accept(lines);
+                    checkpointRepository.save(new WriteBehindCheckpoint(checkpointId, lastSequence));
+                });
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    requeue(lines);
+                    inFlight = List.of();
+                }
+                throw ex;
+            }
+            synchronized (this) {
+                inFlight = List.of();
+                if (pending.isEmpty()) journal.truncate();
+            }
+            return lines.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return quantidade de inclusões ainda não gravadas no banco.
+     */
+    public synchronized int size() {
+        return pending.values().stream().mapToInt(List::size).sum() + inFlight.size();
+    }
+
+    /**
+     * Método que descarta as inclusões em memória e as reconstrói a partir do diário, mantendo só as que têm sequência
+     * maior que a do ponto de controle desta instância gravado no banco. Uma linha incompleta no final do diário é
+     * removida antes, para que a próxima inclusão comece em uma linha nova.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void reload() {
+        flushLock.lock();
+        try {
+            long checkpoint = checkpointRepository.findById(checkpointId)
+                    .or(() -> checkpointRepository.findById(WriteBehindCheckpoint.CART_JOURNAL))
+                    .map(WriteBehindCheckpoint::getLastSequence)
+                    .orElse(0L);
+            journal.dropIncompleteLine();
+            List<PendingCartLine> lines = journal.read();
+            synchronized (this) {
+                pending.clear();
+                inFlight = List.of();
+                sequence = checkpoint;
+                for (PendingCartLine line : lines) {
+                    sequence = Math.max(sequence, line.getSequence());
+                    if (line.getSequence() > checkpoint) addPending(line);
+                }
+                if (pending.isEmpty()) journal.truncate();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private synchronized BigDecimal pendingAmount(long buyerId) {
+        Stream<PendingCartLine> inFlightLines = inFlight.stream().filter(line -> line.getBuyerId() == buyerId);
+        return amount(Stream.concat(pending.getOrDefault(buyerId, List.of()).stream(), inFlightLines));
+    }
+
+    private synchronized void append(List<PendingCartLine> lines) {
+        List<PendingCartLine> sequenced = lines.stream()
+                .map(line -> new PendingCartLine(++sequence, line.getBuyerId(), line.getPurchaseId(),
+                        line.getBatchNumber(), line.getQuantity(), line.getUnitPrice(), line.getReservedUntil()))
+                .collect(Collectors.toList());
+        sequenced.forEach(this::addPending);
+        journal.append(sequenced);
+    }
+
+    private void requeue(List<PendingCartLine> lines) {
+        List<PendingCartLine> newer = pending.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        pending.clear();
+        lines.forEach(this::addPending);
+        newer.forEach(this::addPending);
+    }
+
+    private void addPending(PendingCartLine line) {
+        pending.computeIfAbsent(line.getBuyerId(), buyerId -> new ArrayList<>()).add(line);
+    }
+
+    private static BigDecimal amount(Stream<PendingCartLine> lines) {
+        return lines.map(line -> line.getUnitPrice().multiply(new BigDecimal(line.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
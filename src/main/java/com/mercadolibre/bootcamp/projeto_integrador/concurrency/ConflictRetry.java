@@ -0,0 +1,113 @@
+package com.mercadolibre.bootcamp.projeto_integrador.concurrency;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.RetryStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Executa uma operação em uma transação própria e a repete quando a gravação falha por conflito de versão (@Version)
+ * com outra transação. A espera entre as tentativas dobra a cada conflito, com uma variação aleatória para que as
+ * transações concorrentes não colidam de novo ao mesmo tempo. Ao esgotar as tentativas, lança
+ * ConcurrentUpdateException.
+ * Se já houver uma transação ativa, a operação roda nela uma única vez, já que só quem controla o commit pode repetir.
+ */
+@Component
+public class ConflictRetry {
+    @Value("${conflict-retry.max-attempts:4}")
+    private int maxAttempts;
+    @Value("${conflict-retry.initial-backoff-ms:10}")
+    private long initialBackoffMillis;
+    @Value("${conflict-retry.max-backoff-ms:200}")
+    private long maxBackoffMillis;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, Counters> counters = new ConcurrentSkipListMap<>();
+
+    /**
+     * Método que executa a operação, repetindo-a em caso de conflito de versão.
+     *
+     * @param operation nome da operação, usado nas métricas.
+     * @param action    operação; é executada novamente a cada tentativa, então não deve guardar estado entre elas.
+     * @return resultado da operação.
+     * @throws ConcurrentUpdateException caso todas as tentativas terminem em conflito.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return action.get();
+
+        Counters stats = counters.computeIfAbsent(operation, name -> new Counters());
+        stats.executions.increment();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException ex) {
+                stats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.increment();
+                    throw new ConcurrentUpdateException(operation);
+                }
+                stats.retries.increment();
+                backOff(operation, attempt);
+            }
+        }
+    }
+
+    /**
+     * Mesmo que execute, para operações sem retorno.
+     */
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return Lista de RetryStatsDto, uma por operação, em ordem de nome.
+     */
+    public List<RetryStatsDto> getStats() {
+        return counters.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private void backOff(String operation, int attempt) {
+        long delay = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long jitteredDelay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        try {
+            Thread.sleep(jitteredDelay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException(operation);
+        }
+    }
+
+    private static class Counters {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+
+        private RetryStatsDto toDto(String operation) {
+            return new RetryStatsDto(operation, executions.sum(), conflicts.sum(), retries.sum(), exhausted.sum());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.mercadolibre.bootcamp.projeto_integrador.concurrency;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.LockStripeStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Tabela de locks em memória indexada pelo número do lote (batchNumber).
+ * Operações sobre o mesmo lote são serializadas aqui, antes de disputar a linha no banco; lotes em listras diferentes
+ * seguem em paralelo.
+ * A quantidade de listras é uma potência de dois, por padrão proporcional ao número de processadores, com folga para
+ * que lotes diferentes raramente caiam na mesma listra.
+ * O lock vale apenas para esta JVM: a verificação de estoque no banco continua sendo a garantia entre instâncias.
+ */
+@Component
+public class StripedLocks {
+    private static final int STRIPES_PER_PROCESSOR = 4;
+    private final Stripe[] stripes;
+    private final long timeoutNanos;
+
+    /**
+     * @param stripeCount   quantidade de listras; 0 usa STRIPES_PER_PROCESSOR listras por processador.
+     * @param timeoutMillis espera máxima pelo lock.
+     */
+    public StripedLocks(@Value("${batch-locks.stripes:0}") int stripeCount,
+                        @Value("${batch-locks.timeout-ms:5000}") long timeoutMillis) {
+        int requested = stripeCount > 0
+                ? stripeCount
+                : Runtime.getRuntime().availableProcessors() * STRIPES_PER_PROCESSOR;
+        int size = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Método que executa a operação segurando o lock da listra da chave.
+     *
+     * @param operation nome da operação, usado na mensagem de erro.
+     * @param key       chave do recurso, como o número do lote.
+     * @param action    operação.
+     * @return resultado da operação.
+     * @throws ConcurrentUpdateException caso o lock não seja obtido dentro do tempo máximo.
+     */
+    public <T> T withLock(String operation, long key, Supplier<T> action) {
+        Stripe stripe = stripes[indexOf(key)];
+        stripe.acquire(operation, timeoutNanos);
+        try {
+            return action.get();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Mesmo que withLock, para operações sem retorno.
+     */
+    public void runWithLock(String operation, long key, Runnable action) {
+        withLock(operation, key, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Método que executa a operação segurando os locks das listras de todas as chaves. As listras são obtidas uma
+     * única vez cada, em ordem crescente de índice, para que duas operações com chaves em comum nunca esperem uma
+     * pela outra em ordem inversa.
+     *
+     * @param operation nome da operação, usado na mensagem de erro.
+     * @param keys      chaves dos recursos, como os números dos lotes.
+     * @param action    operação.
+     * @return resultado da operação.
+     * @throws ConcurrentUpdateException caso algum lock não seja obtido dentro do tempo máximo.
+     */
+    public <T> T withLocks(String operation, Collection<Long> keys, Supplier<T> action) {
+        int[] indexes = keys.stream()
+                .mapToInt(this::indexOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].acquire(operation, timeoutNanos);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return Lista de LockStripeStatsDto, uma por listra.
+     */
+    public List<LockStripeStatsDto> getStats() {
+        List<LockStripeStatsDto> stats = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            stats.add(stripes[i].toDto(i));
+        }
+        return stats;
+    }
+
+    int indexOf(long key) {
+        int hash = Long.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        private void acquire(String operation, long timeoutNanos) {
+            if (lock.tryLock()) {
+                acquisitions.increment();
+                return;
+            }
+            contended.increment();
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                waitNanos.add(System.nanoTime() - start);
+            }
+            if (!acquired) {
+                timeouts.increment();
+                throw new ConcurrentUpdateException(operation);
+            }
+            acquisitions.increment();
+        }
+
+        private LockStripeStatsDto toDto(int index) {
+            return new LockStripeStatsDto(index, acquisitions.sum(), contended.sum(), timeouts.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos.sum()), lock.getQueueLength());
+        }
+    }
+}
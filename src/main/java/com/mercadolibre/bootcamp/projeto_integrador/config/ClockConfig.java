@@ -0,0 +1,21 @@
+package com.mercadolibre.bootcamp.projeto_integrador.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+/**
+ * Relógio usado para calcular as datas de validade e de pedidos. Os testes podem substituí-lo por um relógio fixo.
+ * Também habilita as tarefas agendadas, como a expiração diária dos lotes à venda.
+ */
+@Configuration
+@EnableScheduling
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -1,13 +1,18 @@
 package com.mercadolibre.bootcamp.projeto_integrador.controller;
 
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+import com.mercadolibre.bootcamp.projeto_integrador.export.StreamingExport;
 import com.mercadolibre.bootcamp.projeto_integrador.service.IBatchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -31,4 +36,31 @@ public class BatchController {
                                                                              @RequestHeader("Manager-Id") long managerId) {
         return ResponseEntity.ok(batchService.findBatchByCategoryAndDueDate(category, numberOfDays, orderDir, managerId));
     }
+
+    @GetMapping(value = "/fresh-products/due-date/export", params = {"sectionCode", "numberOfDays"})
+    public ResponseEntity<StreamingResponseBody> exportBatchBySection(long sectionCode,
+                                                                      int numberOfDays,
+                                                                      @RequestParam(defaultValue = "ndjson") String format,
+                                                                      @RequestHeader("Manager-Id") long managerId) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return streamingResponse(exportFormat,
+                batchService.exportBatchBySection(sectionCode, numberOfDays, managerId, exportFormat));
+    }
+
+    @GetMapping(value = "/fresh-products/due-date/export", params = {"category", "numberOfDays", "orderDir"})
+    public ResponseEntity<StreamingResponseBody> exportBatchByCategory(String category,
+                                                                       int numberOfDays,
+                                                                       String orderDir,
+                                                                       @RequestParam(defaultValue = "ndjson") String format,
+                                                                       @RequestHeader("Manager-Id") long managerId) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return streamingResponse(exportFormat,
+                batchService.exportBatchByCategoryAndDueDate(category, numberOfDays, orderDir, managerId, exportFormat));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamingResponse(ExportFormat format, StreamingExport export) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(export::writeTo);
+    }
 }
@@ -0,0 +1,29 @@
+package com.mercadolibre.bootcamp.projeto_integrador.controller;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceDataCache;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.CacheStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IIdempotencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/internal")
+public class CacheController {
+    @Autowired
+    private ReferenceDataCache referenceData;
+    @Autowired
+    private IIdempotencyService idempotencyService;
+
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        List<CacheStatsDto> stats = new ArrayList<>(referenceData.getStats());
+        stats.add(idempotencyService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
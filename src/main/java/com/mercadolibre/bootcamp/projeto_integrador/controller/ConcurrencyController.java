@@ -0,0 +1,33 @@
+package com.mercadolibre.bootcamp.projeto_integrador.controller;
+
+import com.mercadolibre.bootcamp.projeto_integrador.concurrency.ConflictRetry;
+import com.mercadolibre.bootcamp.projeto_integrador.concurrency.StripedLocks;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.LockStripeStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.RetryStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/internal")
+public class ConcurrencyController {
+    @Autowired
+    private ConflictRetry conflictRetry;
+
+    @Autowired
+    private StripedLocks batchLocks;
+
+    @GetMapping("/retries")
+    public ResponseEntity<List<RetryStatsDto>> getRetryStats() {
+        return ResponseEntity.ok(conflictRetry.getStats());
+    }
+
+    @GetMapping("/locks")
+    public ResponseEntity<List<LockStripeStatsDto>> getLockStats() {
+        return ResponseEntity.ok(batchLocks.getStats());
+    }
+}
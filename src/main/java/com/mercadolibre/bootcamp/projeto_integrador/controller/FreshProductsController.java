@@ -1,13 +1,19 @@
 package com.mercadolibre.bootcamp.projeto_integrador.controller;
 
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerPageDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+import com.mercadolibre.bootcamp.projeto_integrador.export.StreamingExport;
 import com.mercadolibre.bootcamp.projeto_integrador.service.IBatchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,9 +24,30 @@ public class FreshProductsController {
     IBatchService batchService;
 
     @GetMapping
-    public ResponseEntity<List<BatchBuyerResponseDto>> findBatches(@RequestParam(required = false) String category) {
-        return category != null
-                ? ResponseEntity.ok(batchService.findBatchByCategory(category))
-                : ResponseEntity.ok(batchService.findAll());
+    public ResponseEntity<List<BatchBuyerResponseDto>> findBatches(@RequestParam(required = false) String category,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "50") int size,
+                                                                   WebRequest request) {
+        if (request.checkNotModified(batchService.getListingVersion(category)))
+            return null;
+
+        BatchBuyerPageDto page = category != null
+                ? batchService.findBatchByCategory(category, cursor, size)
+                : batchService.findAll(cursor, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null)
+            response.header("Next-Cursor", page.getNextCursor());
+        return response.body(page.getBatches());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBatches(@RequestParam(required = false) String category,
+                                                               @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingExport export = batchService.exportBatches(category, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(export::writeTo);
     }
 }
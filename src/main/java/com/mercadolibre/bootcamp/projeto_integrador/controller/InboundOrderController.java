@@ -1,14 +1,24 @@
 package com.mercadolibre.bootcamp.projeto_integrador.controller;
 
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundIngestionResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderJobDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IIdempotencyService;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
 import com.mercadolibre.bootcamp.projeto_integrador.service.IInboundOrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -17,10 +27,44 @@ public class InboundOrderController {
     @Autowired
     private IInboundOrderService service;
 
+    @Autowired
+    private IIdempotencyService idempotencyService;
+
     @PostMapping("/fresh-products/inboundorder")
     public ResponseEntity<InboundOrderResponseDto> createInboundOrder(@RequestBody @Valid InboundOrderRequestDto inboundOrder,
-                                                                      @RequestHeader("Manager-Id") long managerId) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.create(inboundOrder, managerId));
+                                                                      @RequestHeader("Manager-Id") long managerId,
+                                                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(idempotencyService.execute("inbound-order.create", managerId,
+                idempotencyKey, inboundOrder, InboundOrderResponseDto.class, () -> service.create(inboundOrder, managerId)));
+    }
+
+    @PostMapping("/fresh-products/inboundorder/async")
+    public ResponseEntity<InboundOrderJobDto> enqueueInboundOrder(@RequestBody @Valid InboundOrderRequestDto inboundOrder,
+                                                                  @RequestHeader("Manager-Id") long managerId,
+                                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        InboundOrderJobDto job = idempotencyService.execute("inbound-order.enqueue", managerId, idempotencyKey,
+                inboundOrder, InboundOrderJobDto.class, () -> service.enqueue(inboundOrder, managerId));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/fresh-products/inboundorder/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/fresh-products/inboundorder/jobs/{jobId}")
+    public ResponseEntity<InboundOrderJobDto> getInboundOrderJob(@PathVariable String jobId,
+                                                                 @RequestHeader("Manager-Id") long managerId) {
+        return ResponseEntity.ok(service.getJob(jobId, managerId));
+    }
+
+    @PostMapping(value = "/fresh-products/inboundorder/stream", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<InboundIngestionResponseDto> ingestInboundOrder(@RequestParam long sectionCode,
+                                                                          @RequestHeader("Manager-Id") long managerId,
+                                                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                          @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                                          HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(contentEncoding)) body = new GZIPInputStream(body);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(service.ingest(sectionCode, body, ExportFormat.ofContentType(contentType), managerId));
     }
 
     @PutMapping("/fresh-products/inboundorder")
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1")
 public class ProductController {
@@ -20,6 +22,12 @@ public class ProductController {
         return ResponseEntity.ok(service.getWarehouses(productId, managerId));
     }
 
+    @GetMapping(value = "/fresh-products/warehouse", params = "productIds")
+    public ResponseEntity<List<ProductResponseDto>> getWarehouses(@RequestParam List<Long> productIds,
+                                                                  @RequestHeader("Manager-Id") long managerId) {
+        return ResponseEntity.ok(service.getWarehouses(productIds, managerId));
+    }
+
     @GetMapping("/fresh-products/list")
     public ResponseEntity<ProductDetailsResponseDto> getProductDetails(@RequestParam long productId,
                                                                        @RequestParam(required = false) String orderBy,
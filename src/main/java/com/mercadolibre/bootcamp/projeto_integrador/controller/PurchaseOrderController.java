@@ -2,8 +2,13 @@ package com.mercadolibre.bootcamp.projeto_integrador.controller;
 
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BulkPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderReconciliationDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IIdempotencyService;
 import com.mercadolibre.bootcamp.projeto_integrador.service.PurchaseOrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -22,10 +27,27 @@ public class PurchaseOrderController {
     @Autowired
     private PurchaseOrderService service;
 
+    @Autowired
+    private IIdempotencyService idempotencyService;
+
     @PostMapping("/fresh-products/orders")
     public ResponseEntity<PurchaseOrderResponseDto> createPurchaseOrder(@RequestHeader("Buyer-Id") long buyerId,
+                                                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                                         @RequestBody @Valid PurchaseOrderRequestDto purchaseOrder) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.create(purchaseOrder, buyerId));
+        return ResponseEntity.status(HttpStatus.CREATED).body(idempotencyService.execute("purchase-order.create", buyerId,
+                idempotencyKey, purchaseOrder, PurchaseOrderResponseDto.class, () -> service.create(purchaseOrder, buyerId)));
+    }
+
+    @PostMapping("/fresh-products/orders/bulk")
+    public ResponseEntity<PurchaseOrderResponseDto> createBulkPurchaseOrder(@RequestHeader("Buyer-Id") long buyerId,
+                                                                            @RequestBody @Valid BulkPurchaseOrderRequestDto purchaseOrder) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.createAll(purchaseOrder, buyerId));
+    }
+
+    @PostMapping("/fresh-products/orders/by-product")
+    public ResponseEntity<ProductPurchaseOrderResponseDto> createPurchaseOrderByProduct(@RequestHeader("Buyer-Id") long buyerId,
+                                                                                        @RequestBody @Valid ProductPurchaseOrderRequestDto purchaseOrder) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.createByProduct(purchaseOrder, buyerId));
     }
 
     @PutMapping("/fresh-products/orders")
@@ -47,4 +69,9 @@ public class PurchaseOrderController {
                                                                                 @RequestParam long purchaseOrderId) {
         return ResponseEntity.ok(service.getBatches(buyerId, purchaseOrderId));
     }
+
+    @PostMapping("/internal/purchase-orders/reconcile")
+    public ResponseEntity<List<PurchaseOrderReconciliationDto>> reconcilePurchaseOrderTotals() {
+        return ResponseEntity.ok(service.reconcileTotals());
+    }
 }
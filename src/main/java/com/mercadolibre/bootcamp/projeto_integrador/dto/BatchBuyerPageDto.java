@@ -0,0 +1,15 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBuyerPageDto {
+    private List<BatchBuyerResponseDto> batches;
+    private String nextCursor;
+}
@@ -1,8 +1,10 @@
 package com.mercadolibre.bootcamp.projeto_integrador.dto;
 
+import com.mercadolibre.bootcamp.projeto_integrador.model.ArchivedPurchaseOrderLine;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
 import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,6 +15,7 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @NoArgsConstructor
+@AllArgsConstructor
 public class BatchBuyerResponseDto {
     private long batchNumber;
     private String productName;
@@ -41,4 +44,14 @@ public class BatchBuyerResponseDto {
         this.dueDate = batchPurchaseOrder.getBatch().getDueDate();
         this.productPrice = batchPurchaseOrder.getUnitPrice();
     }
+
+    public BatchBuyerResponseDto(ArchivedPurchaseOrderLine archivedLine) {
+        this.batchNumber = archivedLine.getBatchNumber();
+        this.productName = archivedLine.getProductName();
+        this.brand = archivedLine.getBrand();
+        this.category = archivedLine.getCategory();
+        this.quantity = archivedLine.getQuantity();
+        this.dueDate = archivedLine.getDueDate();
+        this.productPrice = archivedLine.getUnitPrice();
+    }
 }
@@ -0,0 +1,69 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição da paginação por keyset da listagem de lotes, ordenada por (dueDate, batchNumber).
+ */
+@Getter
+@AllArgsConstructor
+public class BatchCursor {
+    private static final String SEPARATOR = ":";
+
+    private LocalDate dueDate;
+    private long batchNumber;
+
+    /**
+     * Cursor inicial: começa logo após a data mínima de validade, ou seja, devolve apenas lotes com dueDate posterior.
+     *
+     * @param minimumExpirationDate data mínima de validade para venda.
+     * @return BatchCursor posicionado no início da listagem.
+     */
+    public static BatchCursor first(LocalDate minimumExpirationDate) {
+        return new BatchCursor(minimumExpirationDate, Long.MAX_VALUE);
+    }
+
+    /**
+     * Monta o cursor que aponta para o lote informado.
+     *
+     * @param batch último lote devolvido na página.
+     * @return BatchCursor.
+     */
+    public static BatchCursor of(BatchBuyerResponseDto batch) {
+        return new BatchCursor(batch.getDueDate(), batch.getBatchNumber());
+    }
+
+    /**
+     * Converte o token recebido na requisição em um cursor.
+     *
+     * @param token token opaco devolvido no header Next-Cursor.
+     * @return BatchCursor.
+     * @throws BadRequestException caso o token seja inválido.
+     */
+    public static BatchCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != 2)
+                throw new BadRequestException("Invalid cursor");
+            return new BatchCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * @return token opaco que representa o cursor.
+     */
+    public String encode() {
+        String raw = dueDate + SEPARATOR + batchNumber;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,6 @@
 package com.mercadolibre.bootcamp.projeto_integrador.dto;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
@@ -12,6 +13,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BatchPurchaseOrderRequestDto {
+    /**
+     * Quantidade máxima de cada item: mesmo com MAX_BATCHES itens repetidos do mesmo batch, a soma cabe em um int.
+     */
+    public static final int MAX_QUANTITY = Integer.MAX_VALUE / BulkPurchaseOrderRequestDto.MAX_BATCHES;
 
     @NotNull(message = "O id do batch não pode estar vazio")
     @Positive(message = "O id do batch deve ser um número positivo")
@@ -19,5 +24,6 @@ public class BatchPurchaseOrderRequestDto {
 
     @NotNull(message = "A quantidade do produto deve ser informada")
     @Min(value = 0, message = "A quantidade do produto deve ser maior ou igual a 0")
+    @Max(value = MAX_QUANTITY, message = "A quantidade do produto deve ser menor ou igual a " + MAX_QUANTITY)
     private int quantity;
 }
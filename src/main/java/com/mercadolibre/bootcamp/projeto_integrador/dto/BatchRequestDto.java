@@ -17,6 +17,11 @@ public class BatchRequestDto {
 
     private long batchNumber;
 
+    /**
+     * Versão do lote lida pelo cliente (opcional). Se informada na atualização, precisa ser a versão atual do lote.
+     */
+    private Long version;
+
     @NotNull(message = "O Id do produto deve ser informado")
     @Positive(message = "O Id do produto deve ser um número positivo")
     private long productId;
@@ -20,4 +20,11 @@ public class BatchResponseDto {
         setDueDate(batch.getDueDate());
         setSection(new SectionResponseDto(batch.getInboundOrder().getSection()));
     }
+
+    public BatchResponseDto(long batchNumber, int currentQuantity, LocalDate dueDate, long sectionCode, long warehouseCode) {
+        setBatchNumber(batchNumber);
+        setCurrentQuantity(currentQuantity);
+        setDueDate(dueDate);
+        setSection(new SectionResponseDto(sectionCode, warehouseCode));
+    }
 }
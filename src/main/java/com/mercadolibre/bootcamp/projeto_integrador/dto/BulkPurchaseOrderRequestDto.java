@@ -0,0 +1,23 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkPurchaseOrderRequestDto {
+    public static final int MAX_BATCHES = 100;
+
+    @NotNull(message = "O status da compra não pode estar vazio")
+    @Pattern(regexp = "^(Closed|Opened)$", message = "Status só pode ser Opened ou Closed")
+    private String orderStatus;
+
+    @NotEmpty(message = "A lista de batches não pode estar vazia")
+    @Size(max = MAX_BATCHES, message = "A lista de batches pode ter no máximo " + MAX_BATCHES + " itens")
+    private List<@Valid @NotNull BatchPurchaseOrderRequestDto> batches;
+}
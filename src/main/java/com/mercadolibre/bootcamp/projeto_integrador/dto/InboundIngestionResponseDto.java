@@ -0,0 +1,16 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboundIngestionResponseDto {
+    private long orderNumber;
+    private long sectionCode;
+    private long rows;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,28 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboundOrderJobDto {
+    private String jobId;
+    private Status status;
+    private long sectionCode;
+    private int rows;
+    private Long orderNumber;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        QUEUED,
+        PROCESSING,
+        DONE,
+        FAILED
+    }
+}
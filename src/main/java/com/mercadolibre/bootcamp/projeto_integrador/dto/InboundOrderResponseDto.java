@@ -14,4 +14,13 @@ import java.util.List;
 public class InboundOrderResponseDto {
     @JsonIgnoreProperties("inboundOrder")
     private List<Batch> batchStock;
+
+    /**
+     * Quantidade de lotes gravados: inseridos ou com alguma coluna alterada. Na criação, todos os lotes.
+     */
+    private int changedBatches;
+
+    public InboundOrderResponseDto(List<Batch> batchStock) {
+        this(batchStock, batchStock.size());
+    }
 }
@@ -0,0 +1,19 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockStripeStatsDto {
+    private int stripe;
+    private long acquisitions;
+    private long contended;
+    private long timeouts;
+    private long waitMillis;
+    private int queueLength;
+}
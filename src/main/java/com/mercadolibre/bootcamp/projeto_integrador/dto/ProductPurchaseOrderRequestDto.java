@@ -0,0 +1,22 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import javax.validation.constraints.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPurchaseOrderRequestDto {
+    @NotNull(message = "O status da compra não pode estar vazio")
+    @Pattern(regexp = "^(Closed|Opened)$", message = "Status só pode ser Opened ou Closed")
+    private String orderStatus;
+
+    @Positive(message = "O id do produto deve ser um número positivo")
+    private long productId;
+
+    @Positive(message = "A quantidade do produto deve ser maior que 0")
+    private int quantity;
+}
@@ -0,0 +1,17 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPurchaseOrderResponseDto {
+    private long purchaseOrderId;
+    private BigDecimal totalPrice;
+    private List<BatchPurchaseOrderRequestDto> batches;
+}
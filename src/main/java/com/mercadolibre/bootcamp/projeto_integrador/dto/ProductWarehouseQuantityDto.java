@@ -0,0 +1,27 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductWarehouseQuantityDto {
+    private long productId;
+    private long warehouseCode;
+    private int totalQuantity;
+
+    /**
+     * Construtor usado pela consulta agregada, em que SUM retorna long.
+     */
+    public ProductWarehouseQuantityDto(long productId, long warehouseCode, long totalQuantity) {
+        this(productId, warehouseCode, Math.toIntExact(totalQuantity));
+    }
+
+    public WarehouseResponseDto toWarehouseResponseDto() {
+        return new WarehouseResponseDto(warehouseCode, totalQuantity);
+    }
+}
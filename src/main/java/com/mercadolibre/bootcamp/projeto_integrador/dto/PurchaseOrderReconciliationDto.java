@@ -0,0 +1,20 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderReconciliationDto {
+    private long purchaseId;
+    private BigDecimal storedTotalPrice;
+    private int storedLineCount;
+    private BigDecimal totalPrice;
+    private long lineCount;
+}
@@ -0,0 +1,18 @@
+package com.mercadolibre.bootcamp.projeto_integrador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryStatsDto {
+    private String operation;
+    private long executions;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+}
@@ -1,9 +1,11 @@
 package com.mercadolibre.bootcamp.projeto_integrador.dto;
 
 import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
+@AllArgsConstructor
 public class SectionResponseDto {
     private long sectionCode;
     private long warehouseCode;
@@ -10,4 +10,11 @@ import lombok.NoArgsConstructor;
 public class WarehouseResponseDto {
     private long warehouseCode;
     private int totalQuantity;
+
+    /**
+     * Construtor usado pela consulta agregada, em que SUM retorna long.
+     */
+    public WarehouseResponseDto(long warehouseCode, long totalQuantity) {
+        this(warehouseCode, Math.toIntExact(totalQuantity));
+    }
 }
@@ -0,0 +1,17 @@
+package com.mercadolibre.bootcamp.projeto_integrador.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+public class ConcurrentUpdateException extends CustomException {
+    /**
+     * Lança uma CustomException com HTTP Status 409.
+     * @throws CustomException
+     * @param operation operação que não conseguiu gravar por conflito com outras transações.
+     */
+    public ConcurrentUpdateException(String operation) {
+        super("Conflict", "The operation " + operation + " conflicted with concurrent updates, try again",
+                HttpStatus.CONFLICT, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.mercadolibre.bootcamp.projeto_integrador.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+public class IdempotencyKeyReusedException extends CustomException {
+    /**
+     * Lança uma CustomException com HTTP Status 422.
+     * @throws CustomException
+     * @param key Idempotency-Key já usada com outro corpo de requisição.
+     */
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency-Key", "The key " + key + " was already used with a different request body",
+                HttpStatus.UNPROCESSABLE_ENTITY, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.mercadolibre.bootcamp.projeto_integrador.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+public class IdempotentRequestInProgressException extends CustomException {
+    /**
+     * Lança uma CustomException com HTTP Status 409.
+     * @throws CustomException
+     * @param key Idempotency-Key de uma requisição que ainda está sendo executada.
+     */
+    public IdempotentRequestInProgressException(String key) {
+        super("Idempotency-Key", "A request with the key " + key + " is still in progress, try again",
+                HttpStatus.CONFLICT, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,16 @@
+package com.mercadolibre.bootcamp.projeto_integrador.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+public class InboundOrderQueueFullException extends CustomException {
+    /**
+     * Lança uma CustomException com HTTP Status 503.
+     * @throws CustomException
+     */
+    public InboundOrderQueueFullException() {
+        super("Service unavailable", "The inbound order queue is full, try again later",
+                HttpStatus.SERVICE_UNAVAILABLE, LocalDateTime.now());
+    }
+}
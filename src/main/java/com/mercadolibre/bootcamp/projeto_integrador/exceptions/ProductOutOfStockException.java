@@ -0,0 +1,17 @@
+package com.mercadolibre.bootcamp.projeto_integrador.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+public class ProductOutOfStockException extends CustomException {
+    /**
+     * Lança uma CustomException com HTTP Status 400.
+     * @param productId identificador do produto.
+     * @param quantity quantidade pedida.
+     */
+    public ProductOutOfStockException(long productId, int quantity) {
+        super("Product", "Product with id " + productId + " doesn't have " + quantity + " units in stock",
+                HttpStatus.BAD_REQUEST, LocalDateTime.now());
+    }
+}
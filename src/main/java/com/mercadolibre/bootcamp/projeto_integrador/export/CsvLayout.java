@@ -0,0 +1,19 @@
+package com.mercadolibre.bootcamp.projeto_integrador.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Colunas de um CSV: o cabeçalho e a função que extrai, na mesma ordem, os valores de cada linha.
+ *
+ * @param <T> tipo exportado em cada linha.
+ */
+@Getter
+@AllArgsConstructor
+public class CsvLayout<T> {
+    private final List<String> header;
+    private final Function<T, List<?>> values;
+}
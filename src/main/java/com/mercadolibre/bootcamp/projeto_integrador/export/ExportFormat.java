@@ -0,0 +1,48 @@
+package com.mercadolibre.bootcamp.projeto_integrador.export;
+
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos aceitos na exportação de listagens e na importação de lotes: um objeto JSON por linha ou CSV com cabeçalho.
+ * O CSV é gravado em UTF-8, declarado no Content-Type: sem o charset, o cliente o leria como ISO-8859-1.
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv;charset=UTF-8");
+
+    private final String contentType;
+
+    /**
+     * Método que retorna o formato de exportação dado o nome informado na requisição.
+     *
+     * @param format nome do formato, sem diferenciar maiúsculas e minúsculas.
+     * @return ExportFormat
+     */
+    public static ExportFormat of(String format) {
+        for (ExportFormat exportFormat : values()) {
+            if (exportFormat.name().equalsIgnoreCase(format))
+                return exportFormat;
+        }
+        throw new BadRequestException("The export format should be either NDJSON or CSV");
+    }
+
+    /**
+     * Método que retorna o formato dado o Content-Type da requisição, ignorando parâmetros como o charset.
+     *
+     * @param contentType valor do cabeçalho Content-Type.
+     * @return ExportFormat
+     */
+    public static ExportFormat ofContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        for (ExportFormat exportFormat : values()) {
+            if (MediaType.parseMediaType(exportFormat.contentType).equalsTypeAndSubtype(mediaType))
+                return exportFormat;
+        }
+        throw new BadRequestException("The content type should be either application/x-ndjson or text/csv");
+    }
+}
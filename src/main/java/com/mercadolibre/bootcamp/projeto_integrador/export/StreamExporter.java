@@ -0,0 +1,100 @@
+package com.mercadolibre.bootcamp.projeto_integrador.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Escreve o resultado de consultas em Stream diretamente na resposta, uma linha por vez, sem montar listas em
+ * memória.
+ */
+@Component
+public class StreamExporter {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Método que prepara a exportação de uma consulta. A consulta só é executada quando a exportação é escrita, dentro
+     * de uma transação somente leitura que mantém o cursor do banco aberto até a última linha.
+     *
+     * @param query  consulta que retorna as linhas a exportar.
+     * @param format formato de saída.
+     * @param layout colunas usadas quando o formato é CSV.
+     * @return StreamingExport
+     */
+    public <T> StreamingExport export(Supplier<Stream<T>> query, ExportFormat format, CsvLayout<T> layout) {
+        return out -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            try {
+                transaction.executeWithoutResult(status -> {
+                    try (Stream<T> rows = query.get()) {
+                        write(rows.iterator(), format, layout, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private <T> void write(Iterator<T> rows, ExportFormat format, CsvLayout<T> layout, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV)
+            writeCsvLine(writer, layout.getHeader());
+
+        while (rows.hasNext()) {
+            T row = rows.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, layout.getValues().apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        writer.write(values.stream()
+                .map(StreamExporter::toCsvValue)
+                .collect(Collectors.joining(",")));
+        writer.write('\n');
+    }
+
+    /**
+     * Método que formata um valor como campo CSV (RFC 4180), usando aspas apenas quando necessário.
+     *
+     * @param value
+     * @return String
+     */
+    static String toCsvValue(Object value) {
+        if (value == null)
+            return "";
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r"))
+            return '"' + text.replace("\"", "\"\"") + '"';
+        return text;
+    }
+}
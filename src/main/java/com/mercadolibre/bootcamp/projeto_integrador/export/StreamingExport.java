@@ -0,0 +1,12 @@
+package com.mercadolibre.bootcamp.projeto_integrador.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exportação já validada, que só consulta o banco de dados quando o corpo da resposta começa a ser escrito.
+ */
+@FunctionalInterface
+public interface StreamingExport {
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,111 @@
+package com.mercadolibre.bootcamp.projeto_integrador.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Leitura incremental de lotes enviados em NDJSON (um BatchRequestDto por linha) ou CSV (cabeçalho com os nomes dos
+ * campos de BatchRequestDto, com os mesmos formatos de data do JSON). Cada linha é convertida e validada assim que é
+ * lida, e os lotes são entregues em blocos: só um bloco fica em memória por vez.
+ */
+@Component
+public class BatchStreamReader {
+    private static final String CSV_SEPARATOR = ",";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+
+    /**
+     * Método que lê todos os lotes do corpo da requisição.
+     *
+     * @param input     corpo da requisição, já descompactado.
+     * @param format    formato das linhas.
+     * @param chunkSize quantidade de lotes por bloco.
+     * @param consumer  recebe cada bloco, na ordem do arquivo.
+     * @return quantidade de lotes lidos.
+     * @throws BadRequestException caso alguma linha não possa ser convertida ou não seja válida, indicando a linha.
+     */
+    public long read(InputStream input, ExportFormat format, int chunkSize, Consumer<List<BatchRequestDto>> consumer) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<BatchRequestDto> chunk = new ArrayList<>(chunkSize);
+        long rows = 0;
+        try {
+            String[] header = format == ExportFormat.CSV ? readCsvHeader(reader) : null;
+            long lineNumber = header == null ? 0 : 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                chunk.add(validate(parse(line, header, lineNumber), lineNumber));
+                rows++;
+                if (chunk.size() == chunkSize) {
+                    consumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) consumer.accept(chunk);
+        return rows;
+    }
+
+    private String[] readCsvHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) return new String[0];
+        String[] columns = header.split(CSV_SEPARATOR, -1);
+        for (int i = 0; i < columns.length; i++) columns[i] = columns[i].trim();
+        return columns;
+    }
+
+    private BatchRequestDto parse(String line, String[] header, long lineNumber) {
+        try {
+            if (header == null) return objectMapper.readValue(line, BatchRequestDto.class);
+
+            String[] values = line.split(CSV_SEPARATOR, -1);
+            if (values.length != header.length)
+                throw new BadRequestException("Line " + lineNumber + ": expected " + header.length + " columns");
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < header.length; i++) fields.put(header[i], values[i].trim());
+            return objectMapper.convertValue(fields, BatchRequestDto.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new BadRequestException("Line " + lineNumber + ": invalid batch");
+        }
+    }
+
+    private BatchRequestDto validate(BatchRequestDto batch, long lineNumber) {
+        Set<ConstraintViolation<BatchRequestDto>> violations = validator.validate(batch);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException("Line " + lineNumber + ": " + violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (batch.getBatchNumber() != 0L)
+            throw new BadRequestException("Line " + lineNumber + ": batchNumber is generated and must not be informed");
+        return batch;
+    }
+}
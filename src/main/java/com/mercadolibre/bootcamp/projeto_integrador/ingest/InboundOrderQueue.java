@@ -0,0 +1,184 @@
+package com.mercadolibre.bootcamp.projeto_integrador.ingest;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderJobDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.CustomException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.InboundOrderQueueFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Fila das ordens de entrada assíncronas. As ordens são executadas por um pool fixo de workers, que limita quantas
+ * conexões do banco ficam presas em ordens grandes; a fila tem capacidade fixa e, quando cheia, a ordem é recusada
+ * (InboundOrderQueueFullException) em vez de acumular em memória.
+ * A situação de cada ordem fica só em memória: as finalizadas são descartadas, das mais antigas para as mais novas,
+ * quando passam de inbound-async.retained-jobs, e as que ainda estavam na fila se perdem se a aplicação parar.
+ */
+@Component
+public class InboundOrderQueue {
+    private static final Logger log = LoggerFactory.getLogger(InboundOrderQueue.class);
+    private static final String INTERNAL_ERROR = "An internal server error has occurred.";
+
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final long shutdownSeconds;
+    private final int retainedJobs;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> finishedJobs = new ArrayDeque<>();
+
+    /**
+     * @param clock           relógio usado nos horários das ordens.
+     * @param workers         quantidade de ordens executadas ao mesmo tempo.
+     * @param capacity        quantidade de ordens que podem aguardar na fila.
+     * @param retainedJobs    quantidade de ordens finalizadas mantidas para consulta.
+     * @param shutdownSeconds tempo máximo de espera pelas ordens em andamento ao parar a aplicação.
+     */
+    public InboundOrderQueue(Clock clock,
+                             @Value("${inbound-async.workers:2}") int workers,
+                             @Value("${inbound-async.queue-capacity:100}") int capacity,
+                             @Value("${inbound-async.retained-jobs:1000}") int retainedJobs,
+                             @Value("${inbound-async.shutdown-seconds:30}") long shutdownSeconds) {
+        this.clock = clock;
+        this.retainedJobs = retainedJobs;
+        this.shutdownSeconds = shutdownSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "inbound-order-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Método que coloca uma ordem de entrada na fila.
+     *
+     * @param managerId   representante que enviou a ordem; só ele pode consultá-la.
+     * @param sectionCode seção da ordem.
+     * @param rows        quantidade de lotes da ordem.
+     * @param task        grava a ordem e retorna o número da ordem de entrada criada.
+     * @return situação da ordem, já na fila.
+     * @throws InboundOrderQueueFullException caso a fila esteja cheia.
+     */
+    public InboundOrderJobDto submit(long managerId, long sectionCode, int rows, LongSupplier task) {
+        Job job = new Job(UUID.randomUUID().toString(), managerId, sectionCode, rows, LocalDateTime.now(clock));
+        jobs.put(job.jobId, job);
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.jobId);
+            throw new InboundOrderQueueFullException();
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Método que busca a situação de uma ordem.
+     *
+     * @param jobId     identificador retornado por submit.
+     * @param managerId representante que consulta.
+     * @return situação da ordem, vazia se não existir, tiver sido descartada ou for de outro representante.
+     */
+    public Optional<InboundOrderJobDto> find(String jobId, long managerId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.managerId == managerId)
+                .map(Job::toDto);
+    }
+
+    /**
+     * @return quantidade de ordens aguardando na fila.
+     */
+    public int size() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownSeconds, TimeUnit.SECONDS))
+            executor.shutdownNow();
+    }
+
+    private void run(Job job, LongSupplier task) {
+        job.start();
+        try {
+            job.finish(task.getAsLong(), null, LocalDateTime.now(clock));
+        } catch (CustomException ex) {
+            job.finish(null, ex.getMessage(), LocalDateTime.now(clock));
+        } catch (RuntimeException ex) {
+            log.error("Inbound order job {} failed", job.jobId, ex);
+            job.finish(null, INTERNAL_ERROR, LocalDateTime.now(clock));
+        } catch (Error ex) {
+            log.error("Inbound order job {} failed", job.jobId, ex);
+            throw ex;
+        } finally {
+            // Um Error sobe para o worker, mas a ordem ainda é encerrada como FAILED, para que não fique em PROCESSING
+            // para sempre nem escape do limite de ordens mantidas.
+            job.failIfUnfinished(INTERNAL_ERROR, LocalDateTime.now(clock));
+            retain(job.jobId);
+        }
+    }
+
+    private synchronized void retain(String jobId) {
+        finishedJobs.addLast(jobId);
+        while (finishedJobs.size() > retainedJobs) jobs.remove(finishedJobs.removeFirst());
+    }
+
+    private static class Job {
+        private final String jobId;
+        private final long managerId;
+        private final long sectionCode;
+        private final int rows;
+        private final LocalDateTime submittedAt;
+        private InboundOrderJobDto.Status status = InboundOrderJobDto.Status.QUEUED;
+        private Long orderNumber;
+        private String error;
+        private LocalDateTime finishedAt;
+
+        private Job(String jobId, long managerId, long sectionCode, int rows, LocalDateTime submittedAt) {
+            this.jobId = jobId;
+            this.managerId = managerId;
+            this.sectionCode = sectionCode;
+            this.rows = rows;
+            this.submittedAt = submittedAt;
+        }
+
+        private synchronized void start() {
+            status = InboundOrderJobDto.Status.PROCESSING;
+        }
+
+        private synchronized void finish(Long orderNumber, String error, LocalDateTime finishedAt) {
+            this.status = error == null ? InboundOrderJobDto.Status.DONE : InboundOrderJobDto.Status.FAILED;
+            this.orderNumber = orderNumber;
+            this.error = error;
+            this.finishedAt = finishedAt;
+        }
+
+        private synchronized void failIfUnfinished(String error, LocalDateTime finishedAt) {
+            if (this.finishedAt == null) finish(null, error, finishedAt);
+        }
+
+        private synchronized InboundOrderJobDto toDto() {
+            return new InboundOrderJobDto(jobId, status, sectionCode, rows, orderNumber, error, submittedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mercadolibre.bootcamp.projeto_integrador.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Item de um carrinho fechado, arquivado com os dados do carrinho, do lote e do produto no momento do fechamento.
+ * A tabela só recebe inserções: as linhas são gravadas por PurchaseOrderJdbcRepository.archive e nunca alteradas.
+ */
+@Entity
+@Immutable
+@Table(name = "purchase_order_archive_line",
+        indexes = @Index(name = "idx_purchase_order_archive_line_purchase", columnList = "purchaseId"))
+@Getter
+@NoArgsConstructor
+public class ArchivedPurchaseOrderLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long archiveLineId;
+
+    private long purchaseId;
+    private long buyerId;
+    private LocalDate orderDate;
+    // Nulo para os carrinhos fechados antes da criação do arquivo.
+    private LocalDateTime closedAt;
+
+    private long batchNumber;
+    private LocalDate dueDate;
+    private long productId;
+
+    @Column(length = 45)
+    private String productName;
+
+    @Column(length = 45)
+    private String brand;
+
+    @Column(columnDefinition = Section.Category.mysqlDefinition)
+    @Enumerated(EnumType.STRING)
+    private Section.Category category;
+
+    @Column(precision = 9, scale = 2)
+    private BigDecimal unitPrice;
+
+    private int quantity;
+}
@@ -11,9 +11,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_batch_due_date", columnList = "dueDate, batchNumber, currentQuantity"),
+        @Index(name = "idx_batch_product_due_date", columnList = "product_id, dueDate, currentQuantity"),
+        @Index(name = "idx_batch_order_due_date", columnList = "order_number, dueDate, currentQuantity")
+})
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Batch {
@@ -50,4 +55,7 @@ public class Batch {
     @OneToMany(mappedBy = "batch")
     @JsonIgnore
     private List<BatchPurchaseOrder> batchPurchaseOrders;
+
+    @Version
+    private long version;
 }
@@ -7,6 +7,7 @@ import lombok.Setter;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
@@ -30,4 +31,7 @@ public class BatchPurchaseOrder {
     private BigDecimal unitPrice;
 
     private int quantity;
+
+    // Prazo da reserva de estoque enquanto o carrinho está aberto.
+    private LocalDateTime reservedUntil;
 }
@@ -0,0 +1,72 @@
+package com.mercadolibre.bootcamp.projeto_integrador.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+    public enum Status { PENDING, DONE }
+
+    // Operação, dono da requisição e Idempotency-Key, no formato operacao:dono:chave.
+    @Id
+    @Column(length = 191)
+    private String idempotencyKey;
+
+    // SHA-256 do corpo da primeira requisição, em hexadecimal.
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    // PENDING enquanto a primeira requisição executa; DONE com a resposta gravada.
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+
+    // Resposta serializada em JSON; vazia enquanto PENDING.
+    @Column(columnDefinition = "LONGTEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // O id é atribuído pela aplicação: sem esta marca, save() faria um merge e sobrescreveria o registro de outra
+    // instância em vez de falhar com a chave duplicada.
+    @Transient
+    private boolean newRecord;
+
+    /**
+     * Metodo que cria a reserva de uma chave, a ser inserida antes de executar a operação.
+     * @param idempotencyKey chave composta por operação, dono e Idempotency-Key.
+     * @param requestHash SHA-256 do corpo da requisição.
+     * @param createdAt instante da reserva.
+     * @return IdempotencyRecord com status PENDING, marcado como novo.
+     */
+    public static IdempotencyRecord pending(String idempotencyKey, String requestHash, LocalDateTime createdAt) {
+        return new IdempotencyRecord(idempotencyKey, requestHash, Status.PENDING, null, createdAt, true);
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newRecord = false;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.*;
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_product_category", columnList = "category"))
 @Getter
 @Setter
 @Builder
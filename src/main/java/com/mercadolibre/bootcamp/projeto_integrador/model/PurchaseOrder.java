@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import javax.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -23,5 +24,14 @@ public class PurchaseOrder {
 
     @OneToMany(mappedBy = "purchaseOrder")
     private List<BatchPurchaseOrder> batchPurchaseOrders;
+
+    // Valor total e quantidade de itens do carrinho, mantidos a cada inclusão ou remoção de item.
+    @Column(precision = 13, scale = 2, nullable = false)
+    private BigDecimal totalPrice = BigDecimal.ZERO;
+
+    private int lineCount;
+
+    @Version
+    private long version;
     
 }
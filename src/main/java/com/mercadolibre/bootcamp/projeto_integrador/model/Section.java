@@ -33,6 +33,9 @@ public class Section {
     @JoinColumn(name = "manager_id")
     private Manager manager;
 
+    @Version
+    private long version;
+
     public int getAvailableSlots() {
         return maxBatches - currentBatches;
     }
@@ -0,0 +1,37 @@
+package com.mercadolibre.bootcamp.projeto_integrador.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindCheckpoint {
+    // Ponto de controle gravado antes de o diário ser separado por instância; lido só quando a instância ainda não tem
+    // o seu.
+    public static final String CART_JOURNAL = "CART_JOURNAL";
+
+    // Diário a que o ponto de controle se refere, no formato CART_JOURNAL:instancia: cada instância tem o seu diário
+    // local, com a sua própria sequência.
+    @Id
+    @Column(length = 191)
+    private String journalId;
+
+    // Maior sequência do diário de carrinhos já gravada no banco: na recuperação, só as entradas seguintes são refeitas.
+    @Column(nullable = false)
+    private long lastSequence;
+
+    /**
+     * @param instanceId identificador da instância dona do diário.
+     * @return identificador do ponto de controle do diário de carrinhos da instância.
+     */
+    public static String cartJournal(String instanceId) {
+        return CART_JOURNAL + ":" + instanceId;
+    }
+}
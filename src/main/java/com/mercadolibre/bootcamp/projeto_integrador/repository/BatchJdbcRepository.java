@@ -0,0 +1,120 @@
+package com.mercadolibre.bootcamp.projeto_integrador.repository;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Inserção de lotes em lote (JDBC batch) para a importação de ordens de entrada grandes. Com o id gerado pelo banco
+ * (IDENTITY), o Hibernate envia um INSERT por entidade; aqui os lotes vão em uma única ida ao banco por bloco, sem
+ * passar pelo contexto de persistência. No MySQL, rewriteBatchedStatements=true na URL junta o bloco em um único
+ * INSERT com várias linhas. Roda na transação aberta pelo JpaTransactionManager, na mesma conexão usada pelo Hibernate.
+ * A atualização de uma ordem de entrada também passa por aqui: sem @DynamicUpdate, o Hibernate grava todas as colunas
+ * de cada lote alterado, e só as colunas que mudaram são enviadas.
+ */
+@Repository
+public class BatchJdbcRepository {
+    private static final String INSERT_BATCH = "INSERT INTO batch " +
+            "(current_quantity, current_temperature, due_date, initial_quantity, manufacturing_date, " +
+            "manufacturing_time, minimum_temperature, product_price, order_number, product_id, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insere os lotes de uma ordem de entrada, com a quantidade atual igual à inicial.
+     *
+     * @param batches     lotes já validados, com produtos existentes.
+     * @param orderNumber número da ordem de entrada.
+     */
+    public void insertAll(List<BatchRequestDto> batches, long orderNumber) {
+        List<Object[]> params = batches.stream()
+                .map(batch -> new Object[]{batch.getInitialQuantity(), batch.getCurrentTemperature(),
+                        Date.valueOf(batch.getDueDate()), batch.getInitialQuantity(),
+                        Date.valueOf(batch.getManufacturingDate()), Timestamp.valueOf(batch.getManufacturingTime()),
+                        batch.getMinimumTemperature(), batch.getProductPrice(), orderNumber, batch.getProductId()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_BATCH, params);
+    }
+
+    /**
+     * Grava as alterações dos lotes de uma ordem de entrada, enviando só as colunas que mudaram; lotes sem alteração
+     * não são gravados. Os UPDATEs com as mesmas colunas vão em um único JDBC batch e conferem a versão do lote, como o
+     * Hibernate faria: se algum lote foi alterado depois de lido, é lançada ObjectOptimisticLockingFailureException.
+     *
+     * @param storedBatches  lotes como foram lidos do banco.
+     * @param updatedBatches cópias dos lotes com os valores novos, na mesma ordem; a versão das gravadas é incrementada.
+     * @return lotes gravados.
+     */
+    public List<Batch> updateChanged(List<Batch> storedBatches, List<Batch> updatedBatches) {
+        Map<List<String>, List<Batch>> batchesByColumns = new LinkedHashMap<>();
+        Map<List<String>, List<Object[]>> paramsByColumns = new LinkedHashMap<>();
+        for (int i = 0; i < storedBatches.size(); i++) {
+            Batch updated = updatedBatches.get(i);
+            Map<String, Object> columns = changedColumns(storedBatches.get(i), updated);
+            if (columns.isEmpty()) continue;
+
+            List<String> names = new ArrayList<>(columns.keySet());
+            List<Object> params = new ArrayList<>(columns.values());
+            params.add(updated.getBatchNumber());
+            params.add(updated.getVersion());
+            batchesByColumns.computeIfAbsent(names, key -> new ArrayList<>()).add(updated);
+            paramsByColumns.computeIfAbsent(names, key -> new ArrayList<>()).add(params.toArray());
+        }
+
+        List<Batch> written = new ArrayList<>();
+        batchesByColumns.forEach((names, batches) -> {
+            String sql = names.stream().map(name -> name + " = ?").collect(Collectors.joining(", ",
+                    "UPDATE batch SET ", ", version = version + 1 WHERE batch_number = ? AND version = ?"));
+            int[] counts = jdbcTemplate.batchUpdate(sql, paramsByColumns.get(names));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0)
+                    throw new ObjectOptimisticLockingFailureException(Batch.class, batches.get(i).getBatchNumber());
+            }
+            batches.forEach(batch -> batch.setVersion(batch.getVersion() + 1));
+            written.addAll(batches);
+        });
+        return written;
+    }
+
+    private static Map<String, Object> changedColumns(Batch stored, Batch updated) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (!Objects.equals(productIdOf(stored), productIdOf(updated)))
+            columns.put("product_id", productIdOf(updated));
+        if (Float.compare(stored.getCurrentTemperature(), updated.getCurrentTemperature()) != 0)
+            columns.put("current_temperature", updated.getCurrentTemperature());
+        if (Float.compare(stored.getMinimumTemperature(), updated.getMinimumTemperature()) != 0)
+            columns.put("minimum_temperature", updated.getMinimumTemperature());
+        if (stored.getInitialQuantity() != updated.getInitialQuantity())
+            columns.put("initial_quantity", updated.getInitialQuantity());
+        if (stored.getCurrentQuantity() != updated.getCurrentQuantity())
+            columns.put("current_quantity", updated.getCurrentQuantity());
+        if (!Objects.equals(stored.getManufacturingDate(), updated.getManufacturingDate()))
+            columns.put("manufacturing_date", Date.valueOf(updated.getManufacturingDate()));
+        if (!Objects.equals(stored.getManufacturingTime(), updated.getManufacturingTime()))
+            columns.put("manufacturing_time", Timestamp.valueOf(updated.getManufacturingTime()));
+        if (!Objects.equals(stored.getDueDate(), updated.getDueDate()))
+            columns.put("due_date", Date.valueOf(updated.getDueDate()));
+        // compareTo, e não equals: 7.9 e 7.90 são o mesmo preço.
+        if (stored.getProductPrice() == null || stored.getProductPrice().compareTo(updated.getProductPrice()) != 0)
+            columns.put("product_price", updated.getProductPrice());
+        return columns;
+    }
+
+    private static Long productIdOf(Batch batch) {
+        return batch.getProduct() == null ? null : batch.getProduct().getProductId();
+    }
+}
@@ -4,11 +4,47 @@ import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
 import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 import com.mercadolibre.bootcamp.projeto_integrador.model.PurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.reservation.Reservation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface IBatchPurchaseOrderRepository extends JpaRepository<BatchPurchaseOrder, Long> {
     Optional<BatchPurchaseOrder> findOneByPurchaseOrderAndBatch(PurchaseOrder purchaseOrder, Batch batch);
+
+    /**
+     * Soma no banco o valor total do carrinho (preço unitário * quantidade de cada item).
+     */
+    @Query("SELECT COALESCE(SUM(bpo.unitPrice * bpo.quantity), 0) FROM BatchPurchaseOrder bpo " +
+            "WHERE bpo.purchaseOrder = :purchaseOrder")
+    BigDecimal sumTotalPrice(@Param("purchaseOrder") PurchaseOrder purchaseOrder);
+
+    long countByPurchaseOrder(PurchaseOrder purchaseOrder);
+
+    /**
+     * Busca os prazos das reservas dos itens de carrinhos em aberto.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.reservation.Reservation(" +
+            "bpo.batchPurchaseId, bpo.reservedUntil) " +
+            "FROM BatchPurchaseOrder bpo " +
+            "WHERE bpo.reservedUntil IS NOT NULL AND bpo.purchaseOrder.orderStatus = 'Opened'")
+    List<Reservation> findOpenReservations();
+
+    /**
+     * Busca, entre os itens informados, os de carrinhos em aberto com a reserva vencida, já com carrinho, lote e
+     * produto, em uma única consulta.
+     */
+    @Query("SELECT bpo FROM BatchPurchaseOrder bpo JOIN FETCH bpo.purchaseOrder po " +
+            "JOIN FETCH bpo.batch b JOIN FETCH b.product " +
+            "WHERE bpo.batchPurchaseId IN :batchPurchaseIds AND bpo.reservedUntil <= :now " +
+            "AND po.orderStatus = 'Opened' " +
+            "ORDER BY b.batchNumber")
+    List<BatchPurchaseOrder> findExpiredReservations(@Param("batchPurchaseIds") Collection<Long> batchPurchaseIds,
+                                                     @Param("now") LocalDateTime now);
 }
@@ -1,30 +1,278 @@
 package com.mercadolibre.bootcamp.projeto_integrador.repository;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.StockEntry;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductWarehouseQuantityDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.WarehouseResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
-import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface IBatchRepository extends JpaRepository<Batch, Long> {
-    List<Batch> findAllByProduct(Product product);
-    List<Batch> findByCurrentQuantityGreaterThanAndDueDateAfter(int minimumQuantity, LocalDate minimumExpirationDate);
-    List<Batch> findByCurrentQuantityGreaterThanAndDueDateAfterAndProduct_CategoryIs(
-            int minimumQuantity, LocalDate minimumExpirationDate, Section.Category category);
+    /**
+     * Busca a próxima página de lotes à venda a partir do cursor (lastDueDate, lastBatchNumber), sem offset.
+     * O tamanho da página é definido pelo Pageable. Seleciona apenas as colunas do DTO, sem carregar entidades.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto(" +
+            "b.batchNumber, p.productName, p.brand, p.category, b.currentQuantity, b.dueDate, b.productPrice) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.currentQuantity > :minimumQuantity AND b.dueDate > :minimumExpirationDate " +
+            "AND (b.dueDate > :lastDueDate OR (b.dueDate = :lastDueDate AND b.batchNumber > :lastBatchNumber)) " +
+            "ORDER BY b.dueDate, b.batchNumber")
+    List<BatchBuyerResponseDto> findSellablePage(@Param("minimumQuantity") int minimumQuantity,
+                                 @Param("minimumExpirationDate") LocalDate minimumExpirationDate,
+                                 @Param("lastDueDate") LocalDate lastDueDate,
+                                 @Param("lastBatchNumber") long lastBatchNumber,
+                                 Pageable pageable);
+
+    /**
+     * Mesmo que findSellablePage, filtrado pela categoria do produto.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto(" +
+            "b.batchNumber, p.productName, p.brand, p.category, b.currentQuantity, b.dueDate, b.productPrice) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.currentQuantity > :minimumQuantity AND b.dueDate > :minimumExpirationDate " +
+            "AND p.category = :category " +
+            "AND (b.dueDate > :lastDueDate OR (b.dueDate = :lastDueDate AND b.batchNumber > :lastBatchNumber)) " +
+            "ORDER BY b.dueDate, b.batchNumber")
+    List<BatchBuyerResponseDto> findSellablePageByCategory(@Param("minimumQuantity") int minimumQuantity,
+                                           @Param("minimumExpirationDate") LocalDate minimumExpirationDate,
+                                           @Param("category") Section.Category category,
+                                           @Param("lastDueDate") LocalDate lastDueDate,
+                                           @Param("lastBatchNumber") long lastBatchNumber,
+                                           Pageable pageable);
+
+    /**
+     * Mesmo que findSellablePage, montando as entradas do índice de estoque em memória.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.cache.StockEntry(" +
+            "b.batchNumber, p.productId, p.productName, p.brand, p.category, b.currentQuantity, b.dueDate, b.productPrice, " +
+            "b.version) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.currentQuantity > :minimumQuantity AND b.dueDate > :minimumExpirationDate " +
+            "AND (b.dueDate > :lastDueDate OR (b.dueDate = :lastDueDate AND b.batchNumber > :lastBatchNumber)) " +
+            "ORDER BY b.dueDate, b.batchNumber")
+    List<StockEntry> findStockEntryPage(@Param("minimumQuantity") int minimumQuantity,
+                                        @Param("minimumExpirationDate") LocalDate minimumExpirationDate,
+                                        @Param("lastDueDate") LocalDate lastDueDate,
+                                        @Param("lastBatchNumber") long lastBatchNumber,
+                                        Pageable pageable);
+
+    /**
+     * Mesmo que findStockEntryPage, com os lotes à venda de um produto, do que vence primeiro ao que vence por último.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.cache.StockEntry(" +
+            "b.batchNumber, p.productId, p.productName, p.brand, p.category, b.currentQuantity, b.dueDate, b.productPrice, " +
+            "b.version) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE p.productId = :productId AND b.currentQuantity > 0 AND b.dueDate > :minimumExpirationDate " +
+            "ORDER BY b.dueDate, b.batchNumber")
+    List<StockEntry> findSellableByProduct(@Param("productId") long productId,
+                                           @Param("minimumExpirationDate") LocalDate minimumExpirationDate);
+
+    /**
+     * Busca os lotes em estoque de uma seção com validade entre as datas informadas, ordenados pela validade.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto(" +
+            "b.batchNumber, p.productId, p.productName, p.category, b.dueDate, b.currentQuantity) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.inboundOrder.section = :section AND b.currentQuantity > 0 " +
+            "AND b.dueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.dueDate")
+    List<BatchDueDateResponseDto> findInStockBySectionAndDueDateBetween(@Param("section") Section section,
+                                                                        @Param("startDate") LocalDate startDate,
+                                                                        @Param("endDate") LocalDate endDate);
+
+    /**
+     * Busca os lotes em estoque de uma categoria com validade entre as datas informadas, apenas das seções do
+     * representante, em ordem crescente de validade.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto(" +
+            "b.batchNumber, p.productId, p.productName, p.category, b.dueDate, b.currentQuantity) " +
+            "FROM Batch b JOIN b.product p JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE p.category = :category AND s.manager.managerId = :managerId AND b.currentQuantity > 0 " +
+            "AND b.dueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.dueDate ASC")
+    List<BatchDueDateResponseDto> findInStockByCategoryAndManagerOrderByDueDateAsc(
+            @Param("category") Section.Category category,
+            @Param("managerId") long managerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Mesmo que findInStockByCategoryAndManagerOrderByDueDateAsc, em ordem decrescente de validade.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto(" +
+            "b.batchNumber, p.productId, p.productName, p.category, b.dueDate, b.currentQuantity) " +
+            "FROM Batch b JOIN b.product p JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE p.category = :category AND s.manager.managerId = :managerId AND b.currentQuantity > 0 " +
+            "AND b.dueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.dueDate DESC")
+    List<BatchDueDateResponseDto> findInStockByCategoryAndManagerOrderByDueDateDesc(
+            @Param("category") Section.Category category,
+            @Param("managerId") long managerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Percorre todos os lotes à venda, na mesma ordem de findSellablePage, lendo do banco em blocos do tamanho do
+     * fetch size. Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto(" +
+            "b.batchNumber, p.productName, p.brand, p.category, b.currentQuantity, b.dueDate, b.productPrice) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.currentQuantity > :minimumQuantity AND b.dueDate > :minimumExpirationDate " +
+            "ORDER BY b.dueDate, b.batchNumber")
+    Stream<BatchBuyerResponseDto> streamSellable(@Param("minimumQuantity") int minimumQuantity,
+                                                 @Param("minimumExpirationDate") LocalDate minimumExpirationDate);
+
+    /**
+     * Mesmo que streamSellable, filtrado pela categoria do produto.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto(" +
+            "b.batchNumber, p.productName, p.brand, p.category, b.currentQuantity, b.dueDate, b.productPrice) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.currentQuantity > :minimumQuantity AND b.dueDate > :minimumExpirationDate " +
+            "AND p.category = :category " +
+            "ORDER BY b.dueDate, b.batchNumber")
+    Stream<BatchBuyerResponseDto> streamSellableByCategory(@Param("minimumQuantity") int minimumQuantity,
+                                                           @Param("minimumExpirationDate") LocalDate minimumExpirationDate,
+                                                           @Param("category") Section.Category category);
+
+    /**
+     * Mesmo que findInStockBySectionAndDueDateBetween, lido em blocos do tamanho do fetch size.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto(" +
+            "b.batchNumber, p.productId, p.productName, p.category, b.dueDate, b.currentQuantity) " +
+            "FROM Batch b JOIN b.product p " +
+            "WHERE b.inboundOrder.section = :section AND b.currentQuantity > 0 " +
+            "AND b.dueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.dueDate")
+    Stream<BatchDueDateResponseDto> streamInStockBySectionAndDueDateBetween(@Param("section") Section section,
+                                                                            @Param("startDate") LocalDate startDate,
+                                                                            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Mesmo que findInStockByCategoryAndManagerOrderByDueDateAsc, lido em blocos do tamanho do fetch size.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto(" +
+            "b.batchNumber, p.productId, p.productName, p.category, b.dueDate, b.currentQuantity) " +
+            "FROM Batch b JOIN b.product p JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE p.category = :category AND s.manager.managerId = :managerId AND b.currentQuantity > 0 " +
+            "AND b.dueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.dueDate ASC")
+    Stream<BatchDueDateResponseDto> streamInStockByCategoryAndManagerOrderByDueDateAsc(
+            @Param("category") Section.Category category,
+            @Param("managerId") long managerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Mesmo que findInStockByCategoryAndManagerOrderByDueDateDesc, lido em blocos do tamanho do fetch size.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto(" +
+            "b.batchNumber, p.productId, p.productName, p.category, b.dueDate, b.currentQuantity) " +
+            "FROM Batch b JOIN b.product p JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE p.category = :category AND s.manager.managerId = :managerId AND b.currentQuantity > 0 " +
+            "AND b.dueDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.dueDate DESC")
+    Stream<BatchDueDateResponseDto> streamInStockByCategoryAndManagerOrderByDueDateDesc(
+            @Param("category") Section.Category category,
+            @Param("managerId") long managerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Busca os lotes de um produto armazenados nas seções do representante.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.BatchResponseDto(" +
+            "b.batchNumber, b.currentQuantity, b.dueDate, s.sectionCode, s.warehouse.warehouseCode) " +
+            "FROM Batch b JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE b.product.productId = :productId AND s.manager.managerId = :managerId " +
+            "ORDER BY b.batchNumber")
+    List<BatchResponseDto> findByProductAndManager(@Param("productId") long productId,
+                                                   @Param("managerId") long managerId);
+
+    /**
+     * Soma a quantidade atual dos lotes de um produto por armazém, em ordem de código do armazém.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.WarehouseResponseDto(" +
+            "s.warehouse.warehouseCode, SUM(b.currentQuantity)) " +
+            "FROM Batch b JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE b.product.productId = :productId " +
+            "GROUP BY s.warehouse.warehouseCode " +
+            "ORDER BY s.warehouse.warehouseCode")
+    List<WarehouseResponseDto> sumQuantityByWarehouse(@Param("productId") long productId);
+
+    /**
+     * Mesmo que sumQuantityByWarehouse, para vários produtos, em ordem de produto e código do armazém.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.ProductWarehouseQuantityDto(" +
+            "b.product.productId, s.warehouse.warehouseCode, SUM(b.currentQuantity)) " +
+            "FROM Batch b JOIN b.inboundOrder o JOIN o.section s " +
+            "WHERE b.product.productId IN :productIds " +
+            "GROUP BY b.product.productId, s.warehouse.warehouseCode " +
+            "ORDER BY b.product.productId, s.warehouse.warehouseCode")
+    List<ProductWarehouseQuantityDto> sumQuantityByProductAndWarehouse(@Param("productIds") Collection<Long> productIds);
 
-    List<Batch> findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(
-            Section section, LocalDate startDate, LocalDate endDate);
+    /**
+     * Busca vários lotes, já com o produto e o vendedor, em uma única consulta.
+     */
+    @Query("SELECT b FROM Batch b JOIN FETCH b.product p LEFT JOIN FETCH p.seller WHERE b.batchNumber IN :batchNumbers ORDER BY b.batchNumber")
+    List<Batch> findAllWithProductByBatchNumberIn(@Param("batchNumbers") Collection<Long> batchNumbers);
 
-    List<Batch> findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(
-            Section.Category category, LocalDate startDate, LocalDate endDate);
+    /**
+     * Busca os lotes de uma ordem de entrada, já com o produto e o vendedor, em uma única consulta.
+     */
+    @Query("SELECT b FROM Batch b JOIN FETCH b.product p LEFT JOIN FETCH p.seller WHERE b.inboundOrder = :order ORDER BY b.batchNumber")
+    List<Batch> findAllWithProductByInboundOrder(@Param("order") InboundOrder order);
 
-    List<Batch> findByProduct_CategoryAndDueDateBetweenOrderByDueDateDesc(
-            Section.Category category, LocalDate startDate, LocalDate endDate);
+    /**
+     * Desconta a quantidade do estoque do lote em uma única instrução, apenas se houver estoque suficiente e a validade
+     * for posterior à data mínima. A verificação e a escrita são atômicas no banco, então compras concorrentes não
+     * vendem além do estoque. A versão do lote é incrementada, para que quem o leu antes detecte o conflito.
+     *
+     * @return quantidade de linhas alteradas: 1 caso o estoque tenha sido descontado, 0 caso contrário.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Batch b SET b.currentQuantity = b.currentQuantity - :quantity, b.version = b.version + 1 " +
+            "WHERE b.batchNumber = :batchNumber AND b.currentQuantity >= :quantity " +
+            "AND b.dueDate > :minimumExpirationDate")
+    int decrementStock(@Param("batchNumber") long batchNumber,
+                       @Param("quantity") int quantity,
+                       @Param("minimumExpirationDate") LocalDate minimumExpirationDate);
 
-    Optional<Batch> findOneByBatchNumberAndCurrentQuantityGreaterThanEqualAndDueDateAfterOrderByDueDate(long batchNumber, int minimumQuantity, LocalDate minimumExpirationDate);
+    /**
+     * Devolve a quantidade ao estoque do lote em uma única instrução, sem ler o valor atual.
+     *
+     * @return quantidade de linhas alteradas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Batch b SET b.currentQuantity = b.currentQuantity + :quantity, b.version = b.version + 1 " +
+            "WHERE b.batchNumber = :batchNumber")
+    int incrementStock(@Param("batchNumber") long batchNumber, @Param("quantity") int quantity);
 }
@@ -0,0 +1,48 @@
+package com.mercadolibre.bootcamp.projeto_integrador.repository;
+
+import com.mercadolibre.bootcamp.projeto_integrador.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IIdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * Remove, em uma única instrução, as respostas gravadas antes do instante informado.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir WHERE ir.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
+    /**
+     * Grava a resposta de uma chave reservada, apenas se a reserva ainda for PENDING.
+     *
+     * @return quantidade de linhas alteradas: 1 caso a resposta tenha sido gravada, 0 caso contrário.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord ir SET ir.status = :done, ir.responseBody = :responseBody " +
+            "WHERE ir.idempotencyKey = :idempotencyKey AND ir.status = :pending")
+    int complete(@Param("idempotencyKey") String idempotencyKey,
+                 @Param("responseBody") String responseBody,
+                 @Param("pending") IdempotencyRecord.Status pending,
+                 @Param("done") IdempotencyRecord.Status done);
+
+    /**
+     * Remove a linha da chave apenas se ela ainda tiver o status e o instante de criação informados, para não remover
+     * uma reserva ou resposta gravada depois por outra requisição.
+     *
+     * @return quantidade de linhas removidas.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir WHERE ir.idempotencyKey = :idempotencyKey " +
+            "AND ir.status = :status AND ir.createdAt = :createdAt")
+    int deleteRecord(@Param("idempotencyKey") String idempotencyKey,
+                     @Param("status") IdempotencyRecord.Status status,
+                     @Param("createdAt") LocalDateTime createdAt);
+}
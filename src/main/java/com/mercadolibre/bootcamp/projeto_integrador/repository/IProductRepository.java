@@ -4,7 +4,9 @@ import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface IProductRepository extends JpaRepository<Product, Long> {
-
+    long countByProductIdIn(Collection<Long> productIds);
 }
@@ -0,0 +1,13 @@
+package com.mercadolibre.bootcamp.projeto_integrador.repository;
+
+import com.mercadolibre.bootcamp.projeto_integrador.model.ArchivedPurchaseOrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IPurchaseOrderArchiveRepository extends JpaRepository<ArchivedPurchaseOrderLine, Long> {
+    List<ArchivedPurchaseOrderLine> findByPurchaseIdOrderByArchiveLineId(long purchaseId);
+
+    Optional<ArchivedPurchaseOrderLine> findFirstByPurchaseId(long purchaseId);
+}
@@ -1,10 +1,26 @@
 package com.mercadolibre.bootcamp.projeto_integrador.repository;
 
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderReconciliationDto;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
 import com.mercadolibre.bootcamp.projeto_integrador.model.PurchaseOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface IPurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
     PurchaseOrder findOnePurchaseOrderByBuyerAndOrderStatusIsLike(Buyer buyer, String orderStatus);
     PurchaseOrder findOneByPurchaseIdAndBuyer(long orderId, Buyer buyer);
+
+    /**
+     * Busca os carrinhos cujo valor total ou quantidade de itens gravados divergem da soma dos itens, em uma única
+     * consulta agregada.
+     */
+    @Query("SELECT new com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderReconciliationDto(" +
+            "po.purchaseId, po.totalPrice, po.lineCount, COALESCE(SUM(bpo.unitPrice * bpo.quantity), 0), COUNT(bpo)) " +
+            "FROM PurchaseOrder po LEFT JOIN po.batchPurchaseOrders bpo " +
+            "GROUP BY po.purchaseId, po.totalPrice, po.lineCount " +
+            "HAVING po.totalPrice <> COALESCE(SUM(bpo.unitPrice * bpo.quantity), 0) OR po.lineCount <> COUNT(bpo) " +
+            "ORDER BY po.purchaseId")
+    List<PurchaseOrderReconciliationDto> findMismatchedTotals();
 }
@@ -2,9 +2,31 @@ package com.mercadolibre.bootcamp.projeto_integrador.repository;
 
 import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface ISectionRepository extends JpaRepository<Section, Long> {
 
+    /**
+     * Reserva slots da seção em uma única instrução, apenas se couberem em maxBatches. A verificação e a escrita são
+     * atômicas no banco, então ordens de entrada concorrentes não ocupam mais slots do que a seção tem. A versão da
+     * seção é incrementada, para que quem a leu antes detecte o conflito.
+     *
+     * @return quantidade de linhas alteradas: 1 caso os slots tenham sido reservados, 0 caso contrário.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Section s SET s.currentBatches = s.currentBatches + :batchCount, s.version = s.version + 1 " +
+            "WHERE s.sectionCode = :sectionCode AND s.currentBatches + :batchCount <= s.maxBatches")
+    int reserveSlots(@Param("sectionCode") long sectionCode, @Param("batchCount") int batchCount);
+
+    /**
+     * Busca a quantidade de slots livres da seção, direto no banco.
+     */
+    @Query("SELECT s.maxBatches - s.currentBatches FROM Section s WHERE s.sectionCode = :sectionCode")
+    Optional<Integer> findAvailableSlots(@Param("sectionCode") long sectionCode);
 }
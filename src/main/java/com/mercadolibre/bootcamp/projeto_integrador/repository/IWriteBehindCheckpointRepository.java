@@ -0,0 +1,7 @@
+package com.mercadolibre.bootcamp.projeto_integrador.repository;
+
+import com.mercadolibre.bootcamp.projeto_integrador.model.WriteBehindCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IWriteBehindCheckpointRepository extends JpaRepository<WriteBehindCheckpoint, String> {
+}
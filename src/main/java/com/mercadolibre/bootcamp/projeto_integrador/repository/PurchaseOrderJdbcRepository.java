@@ -0,0 +1,143 @@
+package com.mercadolibre.bootcamp.projeto_integrador.repository;
+
+import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * Escritas do carrinho com vários itens, enviadas ao banco em lote (JDBC batch): uma ida ao banco para todos os
+ * lotes, em vez de uma instrução por item. Roda na transação aberta pelo JpaTransactionManager, na mesma conexão
+ * usada pelo Hibernate.
+ * As instruções não passam pelo contexto de persistência: entidades já carregadas não enxergam essas alterações.
+ */
+@Repository
+public class PurchaseOrderJdbcRepository {
+    private static final String DECREMENT_STOCK = "UPDATE batch SET current_quantity = current_quantity - ?, " +
+            "version = version + 1 " +
+            "WHERE batch_number = ? AND current_quantity >= ? AND due_date > ?";
+    private static final String FIND_LINES = "SELECT batch_number_batch_number, batch_purchase_id, unit_price, quantity " +
+            "FROM batch_purchase_order " +
+            "WHERE purchase_id_purchase_id = :purchaseId AND batch_number_batch_number IN (:batchNumbers)";
+    private static final String INSERT_LINE = "INSERT INTO batch_purchase_order " +
+            "(quantity, unit_price, batch_number_batch_number, purchase_id_purchase_id, reserved_until) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String ADD_LINE_QUANTITY = "UPDATE batch_purchase_order SET quantity = quantity + ?, " +
+            "reserved_until = ? " +
+            "WHERE batch_purchase_id = ?";
+    private static final String ARCHIVE_LINES = "INSERT INTO purchase_order_archive_line " +
+            "(purchase_id, buyer_id, order_date, closed_at, batch_number, due_date, " +
+            "product_id, product_name, brand, category, unit_price, quantity) " +
+            "SELECT po.purchase_id, po.buyer_id, po.date, ?, b.batch_number, b.due_date, " +
+            "p.product_id, p.product_name, p.brand, p.category, bpo.unit_price, bpo.quantity " +
+            "FROM batch_purchase_order bpo " +
+            "JOIN purchase_order po ON po.purchase_id = bpo.purchase_id_purchase_id " +
+            "JOIN batch b ON b.batch_number = bpo.batch_number_batch_number " +
+            "JOIN product p ON p.product_id = b.product_id " +
+            "WHERE bpo.purchase_id_purchase_id = ? " +
+            "ORDER BY bpo.batch_purchase_id";
+    private static final String DELETE_LINES = "DELETE FROM batch_purchase_order WHERE purchase_id_purchase_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Desconta as quantidades do estoque de vários lotes, com a mesma condição de IBatchRepository.decrementStock.
+     * As instruções seguem a ordem crescente do número do lote, então as linhas são travadas sempre na mesma ordem e
+     * duas compras com lotes em comum não entram em deadlock.
+     *
+     * @param quantities quantidade a descontar por número do lote, em ordem crescente.
+     * @param minimumExpirationDate data mínima de validade para compra.
+     * @return quantidade de linhas alteradas por lote, na ordem de quantities: 0 quando o lote não pôde atender.
+     */
+    public int[] decrementStock(SortedMap<Long, Integer> quantities, LocalDate minimumExpirationDate) {
+        Date dueDate = Date.valueOf(minimumExpirationDate);
+        List<Object[]> params = quantities.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue(), dueDate})
+                .collect(Collectors.toList());
+        return jdbcTemplate.batchUpdate(DECREMENT_STOCK, params);
+    }
+
+    /**
+     * Busca em uma única consulta os itens que o carrinho já tem para os lotes informados. Os itens retornados não são
+     * entidades gerenciadas: trazem apenas identificador, preço unitário e quantidade.
+     *
+     * @param purchaseId identificador do carrinho.
+     * @param batchNumbers números dos lotes.
+     * @return item do carrinho por número do lote.
+     */
+    public Map<Long, BatchPurchaseOrder> findLines(long purchaseId, Collection<Long> batchNumbers) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("purchaseId", purchaseId)
+                .addValue("batchNumbers", batchNumbers);
+        Map<Long, BatchPurchaseOrder> lines = new HashMap<>();
+        namedParameterJdbcTemplate.query(FIND_LINES, params, rs -> {
+            BatchPurchaseOrder line = new BatchPurchaseOrder();
+            line.setBatchPurchaseId(rs.getLong(2));
+            line.setUnitPrice(rs.getBigDecimal(3));
+            line.setQuantity(rs.getInt(4));
+            lines.put(rs.getLong(1), line);
+        });
+        return lines;
+    }
+
+    /**
+     * Insere os novos itens do carrinho em lote.
+     *
+     * @param purchaseId identificador do carrinho.
+     * @param lines itens com lote, preço unitário, quantidade e prazo da reserva preenchidos.
+     */
+    public void insertLines(long purchaseId, List<BatchPurchaseOrder> lines) {
+        if (lines.isEmpty()) return;
+        List<Object[]> params = lines.stream()
+                .map(line -> new Object[]{line.getQuantity(), line.getUnitPrice(),
+                        line.getBatch().getBatchNumber(), purchaseId, Timestamp.valueOf(line.getReservedUntil())})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_LINE, params);
+    }
+
+    /**
+     * Soma as quantidades aos itens que já estavam no carrinho, em lote, renovando as reservas.
+     *
+     * @param quantities quantidade a somar por identificador do item (batchPurchaseId).
+     * @param reservedUntil novo prazo da reserva dos itens.
+     */
+    public void addLineQuantities(Map<Long, Integer> quantities, LocalDateTime reservedUntil) {
+        if (quantities.isEmpty()) return;
+        Timestamp deadline = Timestamp.valueOf(reservedUntil);
+        List<Object[]> params = quantities.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), deadline, entry.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(ADD_LINE_QUANTITY, params);
+    }
+
+    /**
+     * Copia os itens do carrinho para o arquivo de carrinhos fechados e os remove da tabela de itens, com uma
+     * instrução para cada etapa, sem carregar os itens na aplicação.
+     *
+     * @param purchaseId identificador do carrinho.
+     * @param closedAt instante do fechamento.
+     * @return quantidade de itens arquivados.
+     */
+    public int archiveLines(long purchaseId, LocalDateTime closedAt) {
+        int archived = jdbcTemplate.update(ARCHIVE_LINES, Timestamp.valueOf(closedAt), purchaseId);
+        jdbcTemplate.update(DELETE_LINES, purchaseId);
+        return archived;
+    }
+}
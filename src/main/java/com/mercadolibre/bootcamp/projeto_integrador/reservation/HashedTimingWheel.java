@@ -0,0 +1,112 @@
+package com.mercadolibre.bootcamp.projeto_integrador.reservation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Roda de tempo com hash (hashed timing wheel): os prazos são distribuídos em slots de tickMillis milissegundos, em
+ * um vetor circular cujo tamanho é potência de dois. Agendar é O(1); cada tick percorre apenas o slot atual, e prazos
+ * além de uma volta completa ficam no slot com a quantidade de voltas restantes.
+ * Os prazos são arredondados para o tick seguinte: um item nunca vence antes do seu prazo, e pode vencer até um tick
+ * depois dele.
+ * Não é thread-safe por si só; o ReservationWheel serializa o acesso.
+ *
+ * @param <T> tipo do item agendado.
+ */
+class HashedTimingWheel<T> {
+    private final long tickMillis;
+    private final List<Timeout<T>>[] slots;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis duração de um tick.
+     * @param slotCount  quantidade de slots, arredondada para a potência de dois seguinte.
+     * @param nowMillis  instante inicial da roda.
+     */
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        int length = slotCount <= 1 ? 1 : Integer.highestOneBit(slotCount - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.slots = new List[length];
+        for (int i = 0; i < length; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.mask = length - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Método que agenda o item para o prazo informado. Prazos já vencidos saem no próximo avanço da roda.
+     *
+     * @param item           item agendado.
+     * @param deadlineMillis prazo, em milissegundos desde a época.
+     */
+    void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        long ticks = deadlineTick - currentTick;
+        slots[(int) (deadlineTick & mask)].add(new Timeout<>(item, (ticks - 1) / slots.length));
+        size++;
+    }
+
+    /**
+     * Método que avança a roda até o instante informado, tick a tick, retirando os itens vencidos.
+     *
+     * @param nowMillis instante atual.
+     * @return itens cujo prazo venceu, na ordem em que venceram.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            Iterator<Timeout<T>> timeouts = slots[(int) (currentTick & mask)].iterator();
+            while (timeouts.hasNext()) {
+                Timeout<T> timeout = timeouts.next();
+                if (timeout.remainingRounds == 0) {
+                    expired.add(timeout.item);
+                    timeouts.remove();
+                    size--;
+                } else {
+                    timeout.remainingRounds--;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return quantidade de itens agendados.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Método que descarta todos os itens e reposiciona a roda no instante informado.
+     */
+    void clear(long nowMillis) {
+        for (List<Timeout<T>> slot : slots) {
+            slot.clear();
+        }
+        currentTick = nowMillis / tickMillis;
+        size = 0;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static class Timeout<T> {
+        private final T item;
+        private long remainingRounds;
+
+        private Timeout(T item, long remainingRounds) {
+            this.item = item;
+            this.remainingRounds = remainingRounds;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.mercadolibre.bootcamp.projeto_integrador.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reserva de estoque de um item de carrinho (BatchPurchaseOrder) em aberto, válida até reservedUntil.
+ */
+@Getter
+@AllArgsConstructor
+public class Reservation {
+    private final long batchPurchaseId;
+    private final LocalDateTime reservedUntil;
+}
@@ -0,0 +1,109 @@
+package com.mercadolibre.bootcamp.projeto_integrador.reservation;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.Reloadable;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchPurchaseOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Prazos das reservas de estoque dos carrinhos em aberto, mantidos em uma roda de tempo (HashedTimingWheel).
+ * A roda só indica quais itens podem ter vencido: quem libera a reserva confere o prazo gravado no banco, já que o item
+ * pode ter sido renovado, removido ou arquivado depois de agendado. Um item renovado ganha uma nova entrada na roda, e
+ * a antiga é descartada quando vencer.
+ */
+@Component
+public class ReservationWheel implements Reloadable {
+    @Autowired
+    private IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final HashedTimingWheel<Long> wheel;
+
+    /**
+     * @param clock      relógio usado nos prazos e no avanço da roda.
+     * @param ttlMinutes duração da reserva de um item de carrinho.
+     * @param tickMillis precisão da roda: uma reserva vence em até um tick após o prazo.
+     * @param slotCount  quantidade de slots da roda.
+     */
+    public ReservationWheel(Clock clock,
+                            @Value("${reservations.ttl-minutes:30}") long ttlMinutes,
+                            @Value("${reservations.tick-ms:1000}") long tickMillis,
+                            @Value("${reservations.wheel-slots:512}") int slotCount) {
+        this.clock = clock;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.wheel = new HashedTimingWheel<>(tickMillis, slotCount, clock.millis());
+    }
+
+    /**
+     * @return prazo de uma reserva feita agora.
+     */
+    public LocalDateTime newDeadline() {
+        return LocalDateTime.now(clock).plus(ttl);
+    }
+
+    /**
+     * Método que recarrega a roda com as reservas em aberto gravadas no banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public synchronized void reload() {
+        wheel.clear(clock.millis());
+        batchPurchaseOrderRepository.findOpenReservations().forEach(this::add);
+    }
+
+    /**
+     * Método que agenda as reservas. Dentro de uma transação, elas só entram na roda após o commit; em caso de
+     * rollback a roda não é alterada.
+     *
+     * @param reservations reservas criadas ou renovadas.
+     */
+    public void schedule(Collection<Reservation> reservations) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addAll(reservations);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addAll(reservations);
+            }
+        });
+    }
+
+    /**
+     * Método que avança a roda até o instante atual.
+     *
+     * @return identificadores dos itens de carrinho (batchPurchaseId) cujas reservas podem ter vencido.
+     */
+    public synchronized List<Long> advance() {
+        return wheel.advance(clock.millis());
+    }
+
+    /**
+     * @return quantidade de reservas na roda, incluindo entradas de reservas já renovadas.
+     */
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    private synchronized void addAll(Collection<Reservation> reservations) {
+        reservations.forEach(this::add);
+    }
+
+    private void add(Reservation reservation) {
+        long deadline = reservation.getReservedUntil().atZone(clock.getZone()).toInstant().toEpochMilli();
+        wheel.schedule(reservation.getBatchPurchaseId(), deadline);
+    }
+}
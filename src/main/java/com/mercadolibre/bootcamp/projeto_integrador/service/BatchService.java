@@ -1,18 +1,31 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.StockEntry;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.StockVersion;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerPageDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchCursor;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.*;
+import com.mercadolibre.bootcamp.projeto_integrador.export.CsvLayout;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+import com.mercadolibre.bootcamp.projeto_integrador.export.StreamExporter;
+import com.mercadolibre.bootcamp.projeto_integrador.export.StreamingExport;
 import com.mercadolibre.bootcamp.projeto_integrador.model.*;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.BatchJdbcRepository;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchRepository;
 import org.apache.commons.lang3.StringUtils;
-import org.modelmapper.Converter;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -21,18 +34,39 @@ import java.util.stream.Stream;
 
 @Service
 public class BatchService implements IBatchService {
-    private final int minimumExpirationDays = 20;
+    private final int minimumExpirationDays = SellableStockIndex.MINIMUM_EXPIRATION_DAYS;
+    private final int maximumPageSize = 100;
+    private static final CsvLayout<BatchBuyerResponseDto> BUYER_CSV = new CsvLayout<>(
+            List.of("batchNumber", "productName", "brand", "category", "quantity", "dueDate", "productPrice"),
+            dto -> Arrays.asList(dto.getBatchNumber(), dto.getProductName(), dto.getBrand(), dto.getCategory(),
+                    dto.getQuantity(), dto.getDueDate(), dto.getProductPrice()));
+    private static final CsvLayout<BatchDueDateResponseDto> DUE_DATE_CSV = new CsvLayout<>(
+            List.of("batchNumber", "productId", "productName", "productCategory", "dueDate", "currentQuantity"),
+            dto -> Arrays.asList(dto.getBatchNumber(), dto.getProductId(), dto.getProductName(),
+                    dto.getProductCategory(), dto.getDueDate(), dto.getCurrentQuantity()));
     @Autowired
     private IBatchRepository batchRepository;
     @Autowired
+    private BatchJdbcRepository batchJdbcRepository;
+    @Autowired
     private IManagerService managerService;
     @Autowired
     private ISectionService sectionService;
     @Autowired
     private IProductService productService;
+    @Autowired
+    private SellableStockIndex stockIndex;
+    @Autowired
+    private StockVersion stockVersion;
+    @Autowired
+    private StreamExporter exporter;
+    @Autowired
+    private Clock clock;
 
     /**
      * Metodo que faz o map do DTO de Batch para um objeto Batch e já lhe atribui um produto (que deve existir).
+     * O map é feito campo a campo, sem reflexão, pois é chamado uma vez por lote em cada ordem de entrada; a
+     * quantidade atual fica a cargo de quem chama.
      *
      * @param dto      objeto BatchRequestDto que é recebido na requisição.
      * @param order    ordem de entrada
@@ -40,27 +74,72 @@ public class BatchService implements IBatchService {
      * @return Objeto Batch montado com um produto atribuido.
      */
     public static Batch mapDtoToBatch(BatchRequestDto dto, InboundOrder order, Map<Long, Product> products) {
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper.typeMap(BatchRequestDto.class, Batch.class).addMappings(mapper -> {
-            Converter<Long, Product> converter = context -> products.get(context.getSource());
-            mapper.using(converter).map(BatchRequestDto::getProductId, Batch::setProduct);
-        });
-        Batch batch = modelMapper.map(dto, Batch.class);
-        if (batch.getProduct() == null)
+        Product product = products.get(dto.getProductId());
+        if (product == null)
             throw new NotFoundException("Product");
-        batch.setInboundOrder(order);
-        return batch;
+        return Batch.builder()
+                .batchNumber(dto.getBatchNumber())
+                .product(product)
+                .currentTemperature(dto.getCurrentTemperature())
+                .minimumTemperature(dto.getMinimumTemperature())
+                .initialQuantity(dto.getInitialQuantity())
+                .manufacturingDate(dto.getManufacturingDate())
+                .manufacturingTime(dto.getManufacturingTime())
+                .dueDate(dto.getDueDate())
+                .productPrice(dto.getProductPrice())
+                .inboundOrder(order)
+                .build();
     }
 
     @Override
     public List<Batch> createAll(List<BatchRequestDto> batchesDto, InboundOrder order) {
         Map<Long, Product> products = productService.getProductMap(batchesDto);
-        List<Batch> batches = buildBatchesForCreate(batchesDto, order, products);
-        return batchRepository.saveAll(batches);
+        List<Batch> batches = batchRepository.saveAll(buildBatchesForCreate(batchesDto, order, products));
+        stockIndex.refresh(batches);
+        return batches;
+    }
+
+    /**
+     * Método que insere um bloco de lotes da importação em lote (JDBC batch), sem carregar entidades. O índice de
+     * estoque não é atualizado aqui: ao final da importação, chame refreshStock.
+     *
+     * @param batchesDto lotes validados.
+     * @param order      ordem de entrada, já gravada.
+     * @param products   produtos dos lotes, por id.
+     */
+    @Override
+    public void insertAll(List<BatchRequestDto> batchesDto, InboundOrder order, Map<Long, Product> products) {
+        batchesDto.forEach(dto -> {
+            if (!products.containsKey(dto.getProductId())) throw new NotFoundException("Product");
+        });
+        batchJdbcRepository.insertAll(batchesDto, order.getOrderNumber());
+    }
+
+    /**
+     * Método que atualiza o índice de estoque com os lotes da ordem de entrada, após o commit.
+     *
+     * @param order ordem de entrada.
+     */
+    @Override
+    public void refreshStock(InboundOrder order) {
+        stockIndex.refresh(batchRepository.findAllWithProductByInboundOrder(order));
     }
 
+    /**
+     * Método que atualiza os lotes de uma ordem de entrada e insere os novos (batchNumber igual a 0). Os lotes
+     * existentes são comparados com o que está no banco: os que não mudaram não são gravados, e os demais recebem um
+     * UPDATE só com as colunas alteradas (BatchJdbcRepository.updateChanged). As alterações são feitas em cópias, e os
+     * lotes lidos ficam intactos no contexto de persistência, para que o Hibernate não grave o lote inteiro no flush.
+     * A versão conferida no UPDATE é a enviada pelo cliente, quando informada; sem ela, é a lida nesta transação, e só
+     * são detectadas as alterações feitas entre a leitura e a gravação.
+     *
+     * @param order      ordem de entrada.
+     * @param batchesDto lotes enviados na requisição.
+     * @return InboundOrderResponseDto com todos os lotes enviados e a quantidade de lotes gravados.
+     * @throws ConcurrentUpdateException caso a versão enviada de algum lote não seja a atual.
+     */
     @Override
-    public List<Batch> updateAll(InboundOrder order, List<BatchRequestDto> batchesDto) {
+    public InboundOrderResponseDto updateAll(InboundOrder order, List<BatchRequestDto> batchesDto) {
         Map<Long, Product> products = productService.getProductMap(batchesDto);
         List<Long> batchNumbersToUpdate = batchesDto.stream()
                 .map(BatchRequestDto::getBatchNumber)
@@ -80,19 +159,42 @@ public class BatchService implements IBatchService {
                 .filter(dto -> dto.getBatchNumber() > 0L)
                 .collect(Collectors.toMap(BatchRequestDto::getBatchNumber, dto -> dto));
 
-        Stream<Batch> updatedBatches = batchesToUpdate.stream()
-                .map(batch -> updateBatchFromDto(batch, batchesDtoMap.get(batch.getBatchNumber()), products));
+        boolean isAllInExpectedVersion = batchesToUpdate.stream()
+                .allMatch(batch -> {
+                    Long expectedVersion = batchesDtoMap.get(batch.getBatchNumber()).getVersion();
+                    return expectedVersion == null || expectedVersion == batch.getVersion();
+                });
+
+        if (!isAllInExpectedVersion)
+            throw new ConcurrentUpdateException("batch.update");
+
+        List<Batch> updatedBatches = batchesToUpdate.stream()
+                .map(batch -> updateBatchFromDto(batch.toBuilder().build(),
+                        batchesDtoMap.get(batch.getBatchNumber()), products))
+                .collect(Collectors.toList());
 
-        Stream<Batch> batchesToInsert = batchesDto.stream()
+        List<Batch> batchesToInsert = batchesDto.stream()
                 .filter(dto -> dto.getBatchNumber() == 0L)
                 .map(dto -> mapDtoToBatch(dto, order, products))
-                .peek(batch -> batch.setCurrentQuantity(batch.getInitialQuantity()));
+                .peek(batch -> batch.setCurrentQuantity(batch.getInitialQuantity()))
+                .collect(Collectors.toList());
 
-        List<Batch> batchesToSave = Stream.concat(updatedBatches, batchesToInsert).collect(Collectors.toList());
+        List<Batch> changedBatches = new ArrayList<>(
+                batchJdbcRepository.updateChanged(batchesToUpdate, updatedBatches));
+        List<Batch> insertedBatches = batchRepository.saveAll(batchesToInsert);
+        changedBatches.addAll(insertedBatches);
+        stockIndex.refresh(changedBatches);
 
-        return batchRepository.saveAll(batchesToSave);
+        List<Batch> savedBatches = Stream.concat(updatedBatches.stream(), insertedBatches.stream())
+                .collect(Collectors.toList());
+        return new InboundOrderResponseDto(savedBatches, changedBatches.size());
     }
 
+    /**
+     * Método que atualiza um lote. O lote recebido não traz a versão lida pelo cliente, por isso a versão conferida na
+     * gravação é a lida aqui: só são detectadas as alterações feitas entre a leitura e a gravação. Use updateAll, que
+     * aceita a versão enviada na requisição.
+     */
     @Override
     @Deprecated
     public Batch update(InboundOrder order, Batch batch) {
@@ -101,50 +203,82 @@ public class BatchService implements IBatchService {
         if (b.isEmpty()) {
             batch.setCurrentQuantity(batch.getInitialQuantity());
             batchRepository.save(batch);
+            stockIndex.refresh(List.of(batch));
             return batch;
         }
         int selledProducts = b.get().getInitialQuantity() - b.get().getCurrentQuantity();
         batch.setCurrentQuantity(batch.getInitialQuantity() - selledProducts);
+        batch.setVersion(b.get().getVersion());
         if (batch.getCurrentQuantity() < 0) {
             throw new InitialQuantityException(batch.getInitialQuantity(), selledProducts);
         }
-        batchRepository.save(batch);
-        return batch;
+        Batch savedBatch = batchRepository.save(batch);
+        stockIndex.refresh(List.of(savedBatch));
+        return savedBatch;
     }
 
     /**
-     * Método que busca a lista de Batches com estoque positovo e data de validade superior a 20 dias.
+     * Método que busca uma página de Batches com estoque positivo e data de validade superior a 20 dias, ordenados por
+     * data de validade e número do lote. Após a carga do índice em memória, a consulta não acessa o banco de dados.
      *
-     * @return List<Batch>
+     * @param cursor   token da página anterior (opcional).
+     * @param pageSize quantidade máxima de lotes na página.
+     * @return BatchBuyerPageDto com os lotes e o cursor da próxima página.
      */
     @Override
-    public List<BatchBuyerResponseDto> findAll() {
-        LocalDate minimumExpirationDate = LocalDate.now().plusDays(minimumExpirationDays);
-        List<Batch> batches = batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfter(0, minimumExpirationDate);
-        if (batches.isEmpty()) {
+    public BatchBuyerPageDto findAll(String cursor, int pageSize) {
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumExpirationDays);
+        BatchCursor position = getCursor(cursor, minimumExpirationDate);
+        ensureValidPageSize(pageSize);
+
+        List<BatchBuyerResponseDto> batches = stockIndex.isReady()
+                ? mapListEntryToListDto(stockIndex.findPage(null, position, pageSize + 1))
+                : batchRepository.findSellablePage(0, minimumExpirationDate,
+                position.getDueDate(), position.getBatchNumber(), PageRequest.of(0, pageSize + 1));
+        if (batches.isEmpty() && StringUtils.isBlank(cursor)) {
             throw new NotFoundException("Products", "There are no products in stock");
         }
-        return mapListBatchToListDto(batches);
+        return mapListToPageDto(batches, pageSize);
     }
 
     /**
-     * Método que busca a lista de Batches com estoque positivo e data de validade superior a 20 dias, filtrado por
+     * Método que busca uma página de Batches com estoque positivo e data de validade superior a 20 dias, filtrado por
      * categoria.
      *
      * @param categoryCode
-     * @return List<Batch>
+     * @param cursor       token da página anterior (opcional).
+     * @param pageSize     quantidade máxima de lotes na página.
+     * @return BatchBuyerPageDto com os lotes e o cursor da próxima página.
      */
     @Override
-    public List<BatchBuyerResponseDto> findBatchByCategory(String categoryCode) {
+    public BatchBuyerPageDto findBatchByCategory(String categoryCode, String cursor, int pageSize) {
         Section.Category category = getCategory(categoryCode);
-        LocalDate minimumExpirationDate = LocalDate.now().plusDays(minimumExpirationDays);
-        List<Batch> batches = batchRepository
-                .findByCurrentQuantityGreaterThanAndDueDateAfterAndProduct_CategoryIs(0, minimumExpirationDate,
-                        category);
-        if (batches.isEmpty()) {
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumExpirationDays);
+        BatchCursor position = getCursor(cursor, minimumExpirationDate);
+        ensureValidPageSize(pageSize);
+
+        List<BatchBuyerResponseDto> batches = stockIndex.isReady()
+                ? mapListEntryToListDto(stockIndex.findPage(category, position, pageSize + 1))
+                : batchRepository.findSellablePageByCategory(0, minimumExpirationDate, category,
+                position.getDueDate(), position.getBatchNumber(), PageRequest.of(0, pageSize + 1));
+        if (batches.isEmpty() && StringUtils.isBlank(cursor)) {
             throw new NotFoundException("Products", "There are no products in stock in the requested category");
         }
-        return mapListBatchToListDto(batches);
+        return mapListToPageDto(batches, pageSize);
+    }
+
+    /**
+     * Método que retorna a versão da listagem de lotes à venda, usada como ETag. Muda sempre que um lote da categoria
+     * é alterado e quando a data mínima de validade avança, sem consultar o banco de dados.
+     *
+     * @param categoryCode código da categoria (opcional).
+     * @return String com a versão da listagem.
+     */
+    @Override
+    public String getListingVersion(String categoryCode) {
+        Section.Category category = categoryCode != null ? getCategory(categoryCode) : null;
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumExpirationDays);
+        return stockVersion.current(category) + "-" + minimumExpirationDate;
     }
 
     /**
@@ -197,22 +331,12 @@ public class BatchService implements IBatchService {
      */
     @Override
     public List<BatchDueDateResponseDto> findBatchBySection(long sectionCode, int numberOfDays, long managerId) {
-        if (numberOfDays < 0)
-            throw new BadRequestException("The number of days to expiration can't be negative");
+        Section section = getSectionForManager(sectionCode, numberOfDays, managerId);
 
-        Section section = sectionService.findById(sectionCode);
-
-        Manager manager = tryFindManagerById(managerId);
-        ensureManagerHasPermissionInSection(manager, section);
+        LocalDate startDate = LocalDate.now(clock);
+        LocalDate endDate = LocalDate.now(clock).plusDays(numberOfDays);
 
-        LocalDate startDate = LocalDate.now();
-        LocalDate endDate = LocalDate.now().plusDays(numberOfDays);
-
-        return batchRepository.findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(section, startDate, endDate)
-                .stream()
-                .filter(batch -> batch.getCurrentQuantity() > 0)
-                .map(BatchDueDateResponseDto::new)
-                .collect(Collectors.toList());
+        return batchRepository.findInStockBySectionAndDueDateBetween(section, startDate, endDate);
     }
 
     /**
@@ -229,9 +353,113 @@ public class BatchService implements IBatchService {
                                                                        int numberOfDays,
                                                                        String orderDir,
                                                                        long managerId) {
-        LocalDate startDate = LocalDate.now();
-        LocalDate endDate = LocalDate.now().plusDays(numberOfDays);
+        LocalDate startDate = LocalDate.now(clock);
+        LocalDate endDate = LocalDate.now(clock).plusDays(numberOfDays);
+        Section.Category category = getCategory(categoryCode);
+        boolean ascending = isAscendingDueDateReport(numberOfDays, orderDir, managerId);
+
+        return ascending
+                ? batchRepository.findInStockByCategoryAndManagerOrderByDueDateAsc(category, managerId, startDate, endDate)
+                : batchRepository.findInStockByCategoryAndManagerOrderByDueDateDesc(category, managerId, startDate, endDate);
+    }
+
+    /**
+     * Método que prepara a exportação de todos os lotes à venda (estoque positivo e validade superior a 20 dias),
+     * opcionalmente filtrados por categoria, na mesma ordem da listagem paginada. A categoria é validada antes do
+     * início da resposta; os lotes são lidos do banco à medida que são escritos.
+     *
+     * @param categoryCode código da categoria (opcional).
+     * @param format       formato de saída.
+     * @return StreamingExport
+     */
+    @Override
+    public StreamingExport exportBatches(String categoryCode, ExportFormat format) {
+        Section.Category category = categoryCode != null ? getCategory(categoryCode) : null;
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumExpirationDays);
+
+        return exporter.export(() -> category == null
+                        ? batchRepository.streamSellable(0, minimumExpirationDate)
+                        : batchRepository.streamSellableByCategory(0, minimumExpirationDate, category),
+                format, BUYER_CSV);
+    }
+
+    /**
+     * Método que prepara a exportação dos lotes de uma seção, com as mesmas validações de findBatchBySection.
+     *
+     * @param sectionCode  Código da seção
+     * @param numberOfDays Número de dias a partir de hoje
+     * @param managerId    ID do representante
+     * @param format       formato de saída.
+     * @return StreamingExport
+     */
+    @Override
+    public StreamingExport exportBatchBySection(long sectionCode, int numberOfDays, long managerId, ExportFormat format) {
+        Section section = getSectionForManager(sectionCode, numberOfDays, managerId);
+
+        LocalDate startDate = LocalDate.now(clock);
+        LocalDate endDate = LocalDate.now(clock).plusDays(numberOfDays);
+
+        return exporter.export(() -> batchRepository.streamInStockBySectionAndDueDateBetween(section, startDate, endDate),
+                format, DUE_DATE_CSV);
+    }
+
+    /**
+     * Método que prepara a exportação dos lotes de uma categoria, com as mesmas validações de
+     * findBatchByCategoryAndDueDate.
+     *
+     * @param categoryCode Código da categoria
+     * @param numberOfDays Número de dias mínimo até expirar os produtos
+     * @param orderDir     Direção da ordenação
+     * @param managerId    ID do representante
+     * @param format       formato de saída.
+     * @return StreamingExport
+     */
+    @Override
+    public StreamingExport exportBatchByCategoryAndDueDate(String categoryCode,
+                                                           int numberOfDays,
+                                                           String orderDir,
+                                                           long managerId,
+                                                           ExportFormat format) {
+        LocalDate startDate = LocalDate.now(clock);
+        LocalDate endDate = LocalDate.now(clock).plusDays(numberOfDays);
         Section.Category category = getCategory(categoryCode);
+        boolean ascending = isAscendingDueDateReport(numberOfDays, orderDir, managerId);
+
+        return exporter.export(() -> ascending
+                        ? batchRepository.streamInStockByCategoryAndManagerOrderByDueDateAsc(category, managerId, startDate, endDate)
+                        : batchRepository.streamInStockByCategoryAndManagerOrderByDueDateDesc(category, managerId, startDate, endDate),
+                format, DUE_DATE_CSV);
+    }
+
+    /**
+     * Método que valida os parâmetros do relatório de validade por seção e retorna a seção, se o representante tiver
+     * permissão nela.
+     *
+     * @param sectionCode  Código da seção
+     * @param numberOfDays Número de dias a partir de hoje
+     * @param managerId    ID do representante
+     * @return Section
+     */
+    private Section getSectionForManager(long sectionCode, int numberOfDays, long managerId) {
+        if (numberOfDays < 0)
+            throw new BadRequestException("The number of days to expiration can't be negative");
+
+        Section section = sectionService.findById(sectionCode);
+
+        Manager manager = tryFindManagerById(managerId);
+        ensureManagerHasPermissionInSection(manager, section);
+        return section;
+    }
+
+    /**
+     * Método que valida os parâmetros do relatório de validade por categoria.
+     *
+     * @param numberOfDays Número de dias mínimo até expirar os produtos
+     * @param orderDir     Direção da ordenação
+     * @param managerId    ID do representante
+     * @return true se a ordenação for crescente, false se for decrescente.
+     */
+    private boolean isAscendingDueDateReport(int numberOfDays, String orderDir, long managerId) {
         String orderDirection = StringUtils.trimToEmpty(orderDir);
 
         tryFindManagerById(managerId);
@@ -242,27 +470,49 @@ public class BatchService implements IBatchService {
         if (!StringUtils.equalsAnyIgnoreCase(orderDirection, "ASC", "DESC"))
             throw new BadRequestException("The order direction should be either ASC or DESC");
 
-        List<Batch> batches = orderDirection.equalsIgnoreCase("ASC")
-                ? batchRepository.findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(category, startDate, endDate)
-                : batchRepository.findByProduct_CategoryAndDueDateBetweenOrderByDueDateDesc(category, startDate, endDate);
+        return orderDirection.equalsIgnoreCase("ASC");
+    }
 
-        return batches.stream()
-                .filter(batch -> batch.getInboundOrder().getSection().getManager().getManagerId() == managerId)
-                .filter(batch -> batch.getCurrentQuantity() > 0)
-                .map(BatchDueDateResponseDto::new)
+    private List<BatchBuyerResponseDto> mapListEntryToListDto(List<StockEntry> entries) {
+        return entries.stream()
+                .map(StockEntry::toBuyerDto)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Método converte a lista de Batch para uma lista de BatchBuyerResponseDto.
+     * Método converte a lista de lotes para uma página de BatchBuyerResponseDto. A lista deve conter até um lote além
+     * do tamanho da página, usado apenas para saber se existe próxima página.
      *
      * @param batches
-     * @return List<BatchBuyerResponseDto>
+     * @param pageSize
+     * @return BatchBuyerPageDto
      */
-    private List<BatchBuyerResponseDto> mapListBatchToListDto(List<Batch> batches) {
-        return batches.stream()
-                .map(BatchBuyerResponseDto::new)
+    private BatchBuyerPageDto mapListToPageDto(List<BatchBuyerResponseDto> batches, int pageSize) {
+        List<BatchBuyerResponseDto> page = batches.stream()
+                .limit(pageSize)
                 .collect(Collectors.toList());
+        String nextCursor = batches.size() > pageSize
+                ? BatchCursor.of(page.get(page.size() - 1)).encode()
+                : null;
+        return new BatchBuyerPageDto(page, nextCursor);
+    }
+
+    /**
+     * Método que retorna a posição de início da página, dado o token recebido.
+     *
+     * @param cursor                token da página anterior, ou null para a primeira página.
+     * @param minimumExpirationDate data mínima de validade para venda.
+     * @return BatchCursor
+     */
+    private BatchCursor getCursor(String cursor, LocalDate minimumExpirationDate) {
+        return StringUtils.isBlank(cursor)
+                ? BatchCursor.first(minimumExpirationDate)
+                : BatchCursor.decode(cursor);
+    }
+
+    private void ensureValidPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > maximumPageSize)
+            throw new BadRequestException("The page size should be between 1 and " + maximumPageSize);
     }
 
     /**
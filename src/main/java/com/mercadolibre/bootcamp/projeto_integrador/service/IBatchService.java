@@ -1,26 +1,43 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
-import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerPageDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+import com.mercadolibre.bootcamp.projeto_integrador.export.StreamingExport;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
 import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IBatchService {
     List<Batch> createAll(List<BatchRequestDto> batchesDto, InboundOrder order);
 
-    List<Batch> updateAll(InboundOrder order, List<BatchRequestDto> batchesDto);
+    void insertAll(List<BatchRequestDto> batchesDto, InboundOrder order, Map<Long, Product> products);
+
+    void refreshStock(InboundOrder order);
+
+    InboundOrderResponseDto updateAll(InboundOrder order, List<BatchRequestDto> batchesDto);
 
     @Deprecated
     Batch update(InboundOrder order, Batch batch);
 
-    List<BatchBuyerResponseDto> findAll();
+    BatchBuyerPageDto findAll(String cursor, int pageSize);
+
+    BatchBuyerPageDto findBatchByCategory(String categoryCode, String cursor, int pageSize);
 
-    List<BatchBuyerResponseDto> findBatchByCategory(String categoryCode);
+    String getListingVersion(String categoryCode);
 
     List<BatchDueDateResponseDto> findBatchBySection(long sectionCode, int numberOfDays, long managerId);
 
     List<BatchDueDateResponseDto> findBatchByCategoryAndDueDate(String categoryCode, int numberOfDays, String orderDir, long managerId);
+
+    StreamingExport exportBatches(String categoryCode, ExportFormat format);
+
+    StreamingExport exportBatchBySection(long sectionCode, int numberOfDays, long managerId, ExportFormat format);
+
+    StreamingExport exportBatchByCategoryAndDueDate(String categoryCode, int numberOfDays, String orderDir, long managerId, ExportFormat format);
 }
@@ -0,0 +1,13 @@
+package com.mercadolibre.bootcamp.projeto_integrador.service;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.CacheStatsDto;
+
+import java.util.function.Supplier;
+
+public interface IIdempotencyService {
+    <T> T execute(String operation, long ownerId, String key, Object request, Class<T> responseType, Supplier<T> action);
+
+    int purgeExpired();
+
+    CacheStatsDto getStats();
+}
@@ -1,13 +1,21 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundIngestionResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderJobDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderResponseDto;
-import org.springframework.transaction.annotation.Transactional;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+
+import java.io.InputStream;
 
 public interface IInboundOrderService {
-    @Transactional
     InboundOrderResponseDto create(InboundOrderRequestDto request, long managerId);
 
-    @Transactional
     InboundOrderResponseDto update(long orderNumber, InboundOrderRequestDto request, long managerId);
+
+    InboundIngestionResponseDto ingest(long sectionCode, InputStream input, ExportFormat format, long managerId);
+
+    InboundOrderJobDto enqueue(InboundOrderRequestDto request, long managerId);
+
+    InboundOrderJobDto getJob(String jobId, long managerId);
 }
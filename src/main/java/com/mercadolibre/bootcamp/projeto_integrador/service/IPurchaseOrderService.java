@@ -2,6 +2,10 @@ package com.mercadolibre.bootcamp.projeto_integrador.service;
 
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BulkPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderReconciliationDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderResponseDto;
 
@@ -9,7 +13,12 @@ import java.util.List;
 
 public interface IPurchaseOrderService {
     PurchaseOrderResponseDto create (PurchaseOrderRequestDto request, long buyerId);
+    PurchaseOrderResponseDto createAll (BulkPurchaseOrderRequestDto request, long buyerId);
+    ProductPurchaseOrderResponseDto createByProduct (ProductPurchaseOrderRequestDto request, long buyerId);
     PurchaseOrderResponseDto update (long purchaseOrderId, long buyerId);
     void dropProducts(long purchaseOrderId, BatchPurchaseOrderRequestDto batchDto, long buyerId);
     List<BatchBuyerResponseDto> getBatches(long buyerId, long purchaseOrderId);
+    List<PurchaseOrderReconciliationDto> reconcileTotals();
+    int releaseExpiredReservations();
+    int flushPendingCarts();
 }
@@ -1,12 +1,20 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ISectionService {
     Section findById(long sectionCode);
 
     Section update(Section section, List<BatchRequestDto> batchesToInsert, long managerId);
+
+    Section update(Section section, Map<Long, Product> products, int batchCount, long managerId);
+
+    void validate(Section section, Map<Long, Product> products, int batchCount, long managerId);
+
+    void ensureManagerHasPermissionInSection(long managerId, Section section);
 }
@@ -0,0 +1,206 @@
+package com.mercadolibre.bootcamp.projeto_integrador.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceCache;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.Reloadable;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.CacheStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.IdempotencyKeyReusedException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.IdempotentRequestInProgressException;
+import com.mercadolibre.bootcamp.projeto_integrador.model.IdempotencyRecord;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IIdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guarda a primeira resposta das requisições POST com Idempotency-Key, para que as repetições do cliente (por
+ * timeout, por exemplo) recebam a mesma resposta sem executar a operação de novo. As respostas ficam na tabela
+ * idempotency_record por idempotency.ttl-hours horas, com as mais usadas também em um cache em memória limitado.
+ */
+@Service
+public class IdempotencyService implements IIdempotencyService, Reloadable {
+    public static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IIdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Clock clock;
+
+    private final Duration timeToLive;
+    private final Duration pendingTimeout;
+    private final ReferenceCache<String, IdempotencyRecord> records;
+
+    public IdempotencyService(@Value("${idempotency.ttl-hours:24}") long timeToLiveHours,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${idempotency.pending-timeout-seconds:300}") long pendingTimeoutSeconds) {
+        this.timeToLive = Duration.ofHours(timeToLiveHours);
+        this.pendingTimeout = Duration.ofSeconds(pendingTimeoutSeconds);
+        this.records = new ReferenceCache<>("idempotency", cacheSize, timeToLive);
+    }
+
+    /**
+     * Metodo que executa a operação uma única vez por Idempotency-Key. Quando a chave já tem resposta gravada, ela é
+     * devolvida sem executar a operação. Antes de executar, a chave é reservada com um INSERT de uma linha PENDING: a
+     * chave primária garante que só uma requisição, em qualquer instância, execute a operação; as demais recebem a
+     * resposta gravada ou, enquanto a primeira não termina, IdempotentRequestInProgressException. Apenas respostas de
+     * sucesso são gravadas: se a operação falhar, a reserva é removida e a chave pode ser usada de novo. Uma reserva
+     * deixada por uma instância que parou é descartada após idempotency.pending-timeout-seconds.
+     * @param operation nome da operação, que separa as chaves de endpoints diferentes.
+     * @param ownerId identificador de quem faz a requisição (comprador ou representante).
+     * @param key valor do header Idempotency-Key; sem ele a operação é sempre executada.
+     * @param request corpo da requisição, comparado com o da primeira requisição com a mesma chave.
+     * @param responseType tipo da resposta, usado para ler a resposta gravada.
+     * @param action operação a executar.
+     * @return resposta da operação ou a resposta gravada da primeira requisição.
+     * @throws IdempotencyKeyReusedException caso a chave já tenha sido usada com outro corpo de requisição.
+     * @throws IdempotentRequestInProgressException caso a primeira requisição com a chave ainda esteja em execução.
+     */
+    @Override
+    public <T> T execute(String operation, long ownerId, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) return action.get();
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH)
+            throw new BadRequestException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+
+        String recordKey = operation + ":" + ownerId + ":" + key;
+        String requestHash = hash(toJson(request));
+        IdempotencyRecord record = records.get(recordKey, this::findRecord);
+        if (record != null) return replay(record, key, requestHash, responseType);
+
+        IdempotencyRecord claim = claim(recordKey, key, requestHash);
+        if (claim == null) {
+            record = findRecord(recordKey);
+            if (record != null) return replay(record, key, requestHash, responseType);
+            throw new IdempotentRequestInProgressException(key);
+        }
+
+        boolean completed = false;
+        try {
+            T response = action.get();
+            String responseBody = toJson(response);
+            if (idempotencyRecordRepository.complete(recordKey, responseBody,
+                    IdempotencyRecord.Status.PENDING, IdempotencyRecord.Status.DONE) == 1) {
+                records.put(recordKey, new IdempotencyRecord(recordKey, requestHash, IdempotencyRecord.Status.DONE,
+                        responseBody, claim.getCreatedAt(), false));
+            }
+            completed = true;
+            return response;
+        } finally {
+            if (!completed)
+                idempotencyRecordRepository.deleteRecord(recordKey, IdempotencyRecord.Status.PENDING, claim.getCreatedAt());
+        }
+    }
+
+    /**
+     * Metodo que remove as respostas gravadas há mais de idempotency.ttl-hours horas.
+     * @return quantidade de respostas removidas.
+     */
+    @Scheduled(cron = "${idempotency.purge-cron:0 0 * * * *}")
+    @Override
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now(clock).minus(timeToLive));
+    }
+
+    @Override
+    public CacheStatsDto getStats() {
+        return records.getStats();
+    }
+
+    @Override
+    public void reload() {
+        records.clear();
+    }
+
+    /**
+     * Metodo que busca a resposta gravada, ignorando as que já passaram do tempo de vida e ainda não foram removidas.
+     * Reservas PENDING não são devolvidas, para não irem para o cache.
+     * @param recordKey chave composta por operação, dono e Idempotency-Key.
+     * @return IdempotencyRecord encontrado ou null.
+     */
+    private IdempotencyRecord findRecord(String recordKey) {
+        LocalDateTime createdAfter = LocalDateTime.now(clock).minus(timeToLive);
+        return idempotencyRecordRepository.findById(recordKey)
+                .filter(record -> record.getStatus() == IdempotencyRecord.Status.DONE)
+                .filter(record -> record.getCreatedAt().isAfter(createdAfter))
+                .orElse(null);
+    }
+
+    /**
+     * Metodo que reserva a chave inserindo uma linha PENDING, em uma transação própria. Se a chave já existe como
+     * resposta vencida ou reserva abandonada, a linha é removida e a reserva é tentada mais uma vez.
+     * @param recordKey chave composta por operação, dono e Idempotency-Key.
+     * @param key valor do header Idempotency-Key.
+     * @param requestHash SHA-256 do corpo da requisição.
+     * @return IdempotencyRecord reservado, ou null caso a chave pertença a outra requisição.
+     * @throws IdempotencyKeyReusedException caso a chave esteja reservada para outro corpo de requisição.
+     */
+    private IdempotencyRecord claim(String recordKey, String key, String requestHash) {
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            // DATETIME(6): sem truncar, o instante gravado poderia diferir do usado para remover a reserva.
+            LocalDateTime now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MICROS);
+            try {
+                return idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.pending(recordKey, requestHash, now));
+            } catch (DataIntegrityViolationException ex) {
+                IdempotencyRecord existing = idempotencyRecordRepository.findById(recordKey).orElse(null);
+                if (existing == null) continue;
+                boolean stale = existing.getStatus() == IdempotencyRecord.Status.DONE
+                        ? !existing.getCreatedAt().isAfter(now.minus(timeToLive))
+                        : !existing.getCreatedAt().isAfter(now.minus(pendingTimeout));
+                if (!stale) {
+                    if (!existing.getRequestHash().equals(requestHash))
+                        throw new IdempotencyKeyReusedException(key);
+                    return null;
+                }
+                idempotencyRecordRepository.deleteRecord(recordKey, existing.getStatus(), existing.getCreatedAt());
+            }
+        }
+        return null;
+    }
+
+    private <T> T replay(IdempotencyRecord record, String key, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) throw new IdempotencyKeyReusedException(key);
+        return fromJson(record.getResponseBody(), responseType);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read stored " + type.getSimpleName(), ex);
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
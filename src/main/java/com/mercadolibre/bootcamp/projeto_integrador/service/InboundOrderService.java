@@ -1,19 +1,39 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.concurrency.ConflictRetry;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundIngestionResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderJobDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ConcurrentUpdateException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.NotFoundException;
+import com.mercadolibre.bootcamp.projeto_integrador.export.ExportFormat;
+import com.mercadolibre.bootcamp.projeto_integrador.ingest.BatchStreamReader;
+import com.mercadolibre.bootcamp.projeto_integrador.ingest.InboundOrderQueue;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
 import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IInboundOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.OptimisticLockException;
+import java.io.InputStream;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,48 +48,173 @@ public class InboundOrderService implements IInboundOrderService {
     @Autowired
     private ISectionService sectionService;
 
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private ConflictRetry conflictRetry;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private BatchStreamReader batchStreamReader;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InboundOrderQueue inboundOrderQueue;
+
+    @Value("${inbound-ingest.batch-size:500}")
+    private int ingestBatchSize;
+
     /**
      * Método que faz a criação da InboundOrder com novos lotes
      * @param request InboundOrderRequestDto
      * @return InboundOrderResponseDto contendo os dados dos lotes inseridos
      */
     @Override
-    @Transactional
     public InboundOrderResponseDto create(InboundOrderRequestDto request, long managerId) {
+        return conflictRetry.execute("inbound-order.create", () -> {
+            Section section = sectionService.findById(request.getSectionCode());
+            sectionService.update(section, request.getBatchStock(), managerId);
+
+            InboundOrder order = new InboundOrder();
+            order.setSection(section);
+            order.setOrderDate(LocalDate.now(clock));
+
+            inboundOrderRepository.save(order);
+
+            List<Batch> batches = batchService.createAll(request.getBatchStock(), order);
+
+            return new InboundOrderResponseDto(batches);
+        });
+    }
+
+    /**
+     * Método que cria uma InboundOrder a partir de um arquivo de lotes lido aos poucos, sem montar a lista inteira em
+     * memória: a cada inbound-ingest.batch-size linhas, os lotes são inseridos em lote (JDBC batch). Tudo roda em uma
+     * única transação, então uma linha inválida desfaz a importação inteira. A permissão do representante é conferida
+     * antes da leitura; a categoria dos produtos e o espaço na seção, ao final, com o total de lotes.
+     * O corpo só pode ser lido uma vez, então um conflito de versão na seção não é repetido: vira
+     * ConcurrentUpdateException e o cliente reenvia o arquivo.
+     * @param sectionCode código da seção que recebe os lotes.
+     * @param input corpo da requisição, já descompactado.
+     * @param format formato das linhas (NDJSON ou CSV).
+     * @param managerId identificador do representante.
+     * @return InboundIngestionResponseDto com a quantidade de lotes, o tempo total e a vazão em linhas por segundo.
+     */
+    @Override
+    public InboundIngestionResponseDto ingest(long sectionCode, InputStream input, ExportFormat format, long managerId) {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        InboundIngestionResponseDto response;
+        try {
+            response = transaction.execute(status -> insertInChunks(sectionCode, managerId,
+                    consumer -> batchStreamReader.read(input, format, ingestBatchSize, consumer)));
+        } catch (OptimisticLockingFailureException | OptimisticLockException ex) {
+            throw new ConcurrentUpdateException("inbound-order.ingest");
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        response.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        response.setRowsPerSecond(response.getRows() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        return response;
+    }
+
+    /**
+     * Método que valida uma InboundOrder e a coloca na fila de ordens assíncronas. Seção, permissão, produtos e espaço
+     * na seção são conferidos aqui, sem reservar os slots; um worker grava a ordem depois, em blocos de
+     * inbound-ingest.batch-size lotes (JDBC batch), e confere tudo de novo na transação.
+     * @param request InboundOrderRequestDto
+     * @param managerId identificador do representante.
+     * @return InboundOrderJobDto com a situação da ordem na fila.
+     */
+    @Override
+    public InboundOrderJobDto enqueue(InboundOrderRequestDto request, long managerId) {
+        List<BatchRequestDto> batchesDto = List.copyOf(request.getBatchStock());
         Section section = sectionService.findById(request.getSectionCode());
-        sectionService.update(section, request.getBatchStock(), managerId);
+        Map<Long, Product> products = productService.getProductMap(batchesDto);
+        batchesDto.forEach(dto -> {
+            if (!products.containsKey(dto.getProductId())) throw new NotFoundException("Product");
+        });
+        sectionService.validate(section, products, batchesDto.size(), managerId);
+
+        return inboundOrderQueue.submit(managerId, section.getSectionCode(), batchesDto.size(),
+                () -> conflictRetry.execute("inbound-order.create-async",
+                        () -> insertInChunks(section.getSectionCode(), managerId, chunk -> split(batchesDto, chunk)))
+                        .getOrderNumber());
+    }
+
+    /**
+     * Método que busca a situação de uma ordem assíncrona.
+     * @param jobId identificador retornado por enqueue.
+     * @param managerId representante que enviou a ordem.
+     * @return InboundOrderJobDto com a situação da ordem.
+     */
+    @Override
+    public InboundOrderJobDto getJob(String jobId, long managerId) {
+        return inboundOrderQueue.find(jobId, managerId)
+                .orElseThrow(() -> new NotFoundException("Inbound order job"));
+    }
+
+    private long split(List<BatchRequestDto> batchesDto, Consumer<List<BatchRequestDto>> consumer) {
+        for (int from = 0; from < batchesDto.size(); from += ingestBatchSize) {
+            consumer.accept(batchesDto.subList(from, Math.min(from + ingestBatchSize, batchesDto.size())));
+        }
+        return batchesDto.size();
+    }
+
+    /**
+     * Metodo que cria a InboundOrder e insere os lotes bloco a bloco. Deve rodar dentro de uma transação.
+     * @param sectionCode código da seção que recebe os lotes.
+     * @param managerId identificador do representante.
+     * @param batches entrega os blocos de lotes ao consumer recebido e retorna a quantidade total de lotes.
+     * @return InboundIngestionResponseDto com o número da ordem e a quantidade de lotes.
+     */
+    private InboundIngestionResponseDto insertInChunks(long sectionCode, long managerId,
+                                                       ToLongFunction<Consumer<List<BatchRequestDto>>> batches) {
+        Section section = sectionService.findById(sectionCode);
+        sectionService.ensureManagerHasPermissionInSection(managerId, section);
 
         InboundOrder order = new InboundOrder();
         order.setSection(section);
-        order.setOrderDate(LocalDate.now());
-
+        order.setOrderDate(LocalDate.now(clock));
         inboundOrderRepository.save(order);
 
-        List<Batch> batches = batchService.createAll(request.getBatchStock(), order);
+        Map<Long, Product> products = new HashMap<>();
+        long rows = batches.applyAsLong(chunk -> {
+            Map<Long, Product> chunkProducts = productService.getProductMap(chunk);
+            batchService.insertAll(chunk, order, chunkProducts);
+            products.putAll(chunkProducts);
+        });
+        if (rows == 0) throw new BadRequestException("The file has no batches");
 
-        return new InboundOrderResponseDto(batches);
+        sectionService.update(section, products, Math.toIntExact(rows), managerId);
+        batchService.refreshStock(order);
+        return new InboundIngestionResponseDto(order.getOrderNumber(), sectionCode, rows, 0, 0);
     }
 
     /**
      * Metodo que faz a atualização da InboundOrder, com novos lotes ou atualiza os que já estão dentro
      * @param orderNumber long representando o id da InboundOrder
      * @param request objeto InboundOrderRequestDto
-     * @return InboundOrderResponseDto contendo as infos dos lotes atualizados/inseridos
+     * @return InboundOrderResponseDto contendo as infos dos lotes atualizados/inseridos e quantos foram gravados
      */
     @Override
-    @Transactional
     public InboundOrderResponseDto update(long orderNumber, InboundOrderRequestDto request, long managerId) {
-        InboundOrder order = inboundOrderRepository.findById(orderNumber)
-                .orElseThrow(() -> new NotFoundException("Inbound Order"));
-
-        List<BatchRequestDto> batchesDto = request.getBatchStock();
-        List<BatchRequestDto> batchesToInsert = batchesDto.stream()
-                .filter(b -> b.getBatchNumber() == 0L)
-                .collect(Collectors.toList());
+        return conflictRetry.execute("inbound-order.update", () -> {
+            InboundOrder order = inboundOrderRepository.findById(orderNumber)
+                    .orElseThrow(() -> new NotFoundException("Inbound Order"));
 
-        sectionService.update(order.getSection(), batchesToInsert, managerId);
-        List<Batch> savedBatches = batchService.updateAll(order, batchesDto);
+            List<BatchRequestDto> batchesDto = request.getBatchStock();
+            List<BatchRequestDto> batchesToInsert = batchesDto.stream()
+                    .filter(b -> b.getBatchNumber() == 0L)
+                    .collect(Collectors.toList());
 
-        return new InboundOrderResponseDto(savedBatches);
+            sectionService.update(order.getSection(), batchesToInsert, managerId);
+            return batchService.updateAll(order, batchesDto);
+        });
     }
 }
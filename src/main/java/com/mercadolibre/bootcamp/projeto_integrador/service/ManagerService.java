@@ -1,5 +1,6 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceDataCache;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ManagerNotFoundException;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IManagerRepository;
@@ -10,9 +11,12 @@ import org.springframework.stereotype.Service;
 public class ManagerService implements IManagerService {
     @Autowired
     private IManagerRepository managerRepository;
+    @Autowired
+    private ReferenceDataCache referenceData;
 
     @Override
     public Manager findById(long managerId) {
-        return managerRepository.findById(managerId).orElseThrow(() -> new ManagerNotFoundException(managerId));
+        return referenceData.getManagers().get(managerId, id -> managerRepository.findById(id)
+                .orElseThrow(() -> new ManagerNotFoundException(id)));
     }
 }
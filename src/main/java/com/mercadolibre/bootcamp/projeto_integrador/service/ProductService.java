@@ -1,10 +1,11 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceDataCache;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductWarehouseQuantityDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.WarehouseResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ManagerNotFoundException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.NotFoundException;
-import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchRepository;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IManagerRepository;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IProductRepository;
@@ -22,11 +23,15 @@ import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService implements IProductService {
+    private final int maximumProductsPerRequest = 100;
+
     @Autowired
     private IProductRepository productRepository;
 
@@ -39,22 +44,50 @@ public class ProductService implements IProductService {
     @Autowired
     private IManagerService managerService;
 
+    @Autowired
+    private ReferenceDataCache referenceData;
+
     /**
      * Metodo que retorna todos armazens que contenham um determinado item com as quantidades totais.
+     * As quantidades são somadas no banco, sem carregar os lotes.
      * @param productId long representando o id do produto
      * @return ProductResponseDto contendo o id do produto com uma lista de códigos de armazens com quantidades do produto.
      */
     @Override
     public ProductResponseDto getWarehouses(long productId, long managerId) {
         managerService.findById(managerId);
-        List<Batch> batchList = batchRepository.findAllByProduct(productRepository.findById(productId).orElseThrow(() -> new NotFoundException("Product")));
-        List<WarehouseResponseDto> warehouses = new ArrayList<>();
-
-        batchList.stream()
-                .collect(Collectors.groupingBy(b -> b.getInboundOrder().getSection().getWarehouse().getWarehouseCode(),
-                        Collectors.summingInt(b -> b.getCurrentQuantity())))
-                .forEach((warehouseCode, totalQuantity) -> warehouses.add(new WarehouseResponseDto(warehouseCode, totalQuantity)));
-        return new ProductResponseDto(productId, warehouses);
+        if (!productRepository.existsById(productId))
+            throw new NotFoundException("Product");
+
+        return new ProductResponseDto(productId, batchRepository.sumQuantityByWarehouse(productId));
+    }
+
+    /**
+     * Metodo que retorna, para cada produto informado, os armazens que o contêm com as quantidades totais, usando uma
+     * única consulta agregada.
+     * @param productIds ids dos produtos
+     * @param managerId  ID do representante
+     * @return Lista de ProductResponseDto na ordem dos ids informados, sem repetições.
+     */
+    @Override
+    public List<ProductResponseDto> getWarehouses(List<Long> productIds, long managerId) {
+        managerService.findById(managerId);
+        Set<Long> distinctProductIds = new LinkedHashSet<>(productIds);
+        if (distinctProductIds.isEmpty() || distinctProductIds.size() > maximumProductsPerRequest)
+            throw new BadRequestException("The number of products should be between 1 and " + maximumProductsPerRequest);
+        if (productRepository.countByProductIdIn(distinctProductIds) != distinctProductIds.size())
+            throw new NotFoundException("Product");
+
+        Map<Long, List<WarehouseResponseDto>> warehousesByProduct = batchRepository
+                .sumQuantityByProductAndWarehouse(distinctProductIds)
+                .stream()
+                .collect(Collectors.groupingBy(ProductWarehouseQuantityDto::getProductId,
+                        Collectors.mapping(ProductWarehouseQuantityDto::toWarehouseResponseDto, Collectors.toList())));
+
+        return distinctProductIds.stream()
+                .map(productId -> new ProductResponseDto(productId,
+                        warehousesByProduct.getOrDefault(productId, new ArrayList<>())))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -68,11 +101,7 @@ public class ProductService implements IProductService {
     public ProductDetailsResponseDto getProductDetails(long productId, long managerId, String orderBy) {
         ensureManagerExists(managerId);
         Product product = productRepository.findById(productId).orElseThrow(() -> new NotFoundException("product"));
-        List<BatchResponseDto> batches = batchRepository.findAllByProduct(product)
-                .stream()
-                .filter(batch -> batch.getInboundOrder().getSection().getManager().getManagerId() == managerId)
-                .map(BatchResponseDto::new)
-                .collect(Collectors.toList());
+        List<BatchResponseDto> batches = batchRepository.findByProductAndManager(productId, managerId);
 
         if (batches.isEmpty())
             throw new EmptyStockException(product.getProductName());
@@ -115,15 +144,16 @@ public class ProductService implements IProductService {
     }
 
     /**
-     * Retorna mapa de produtos por ID
+     * Retorna mapa de produtos por ID, buscando no banco apenas os que não estão em cache
      * @param batchesDto Lotes enviados no pedido de entrada
      * @return Mapa de produtos com identificador como chave
      */
     @Override
     public Map<Long, Product> getProductMap(List<BatchRequestDto> batchesDto) {
-        return productRepository
-                .findAllById(batchesDto.stream().map(BatchRequestDto::getProductId).collect(Collectors.toList()))
-                .stream()
-                .collect(Collectors.toMap(Product::getProductId, product -> product));
+        return referenceData.getProducts().getAll(
+                batchesDto.stream().map(BatchRequestDto::getProductId).collect(Collectors.toList()),
+                productIds -> productRepository.findAllById(productIds)
+                        .stream()
+                        .collect(Collectors.toMap(Product::getProductId, product -> product)));
     }
 }
@@ -1,26 +1,56 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceDataCache;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.StockEntry;
+import com.mercadolibre.bootcamp.projeto_integrador.cart.PendingCartLine;
+import com.mercadolibre.bootcamp.projeto_integrador.cart.WriteBehindCartStore;
+import com.mercadolibre.bootcamp.projeto_integrador.concurrency.ConflictRetry;
+import com.mercadolibre.bootcamp.projeto_integrador.concurrency.StripedLocks;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BulkPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderReconciliationDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ConcurrentUpdateException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.NotFoundException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BatchOutOfStockException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ProductOutOfStockException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.PurchaseOrderAlreadyClosedException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.UnauthorizedBuyerException;
 import com.mercadolibre.bootcamp.projeto_integrador.model.*;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.*;
+import com.mercadolibre.bootcamp.projeto_integrador.reservation.Reservation;
+import com.mercadolibre.bootcamp.projeto_integrador.reservation.ReservationWheel;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class PurchaseOrderService implements IPurchaseOrderService {
+    private final int minimumPurchaseExpirationDays = SellableStockIndex.MINIMUM_EXPIRATION_DAYS + 1;
+    private static final Logger log = LoggerFactory.getLogger(PurchaseOrderService.class);
+    private static final int MAX_ALLOCATION_ATTEMPTS = 3;
 
     @Autowired
     IBuyerRepository buyerRepository;
@@ -37,78 +67,286 @@ public class PurchaseOrderService implements IPurchaseOrderService {
     @Autowired
     IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
 
+    @Autowired
+    PurchaseOrderJdbcRepository purchaseOrderJdbcRepository;
+
+    @Autowired
+    IPurchaseOrderArchiveRepository purchaseOrderArchiveRepository;
+
+    @Autowired
+    SellableStockIndex stockIndex;
+
+    @Autowired
+    ReferenceDataCache referenceData;
+
+    @Autowired
+    Clock clock;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    ConflictRetry conflictRetry;
+
+    @Autowired
+    StripedLocks batchLocks;
+
+    @Autowired
+    ReservationWheel reservationWheel;
+
+    @Autowired
+    WriteBehindCartStore cartStore;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${reservations.release-batch-size:100}")
+    int reservationReleaseBatchSize;
+
     /**
      *  Metodo que cria um carrinho (PurchaseOrder) novo ou insere/atualiza itens em um carrinho existente.
+     *  Compras do mesmo batch são serializadas pelo lock em memória até o commit.
      * @param request objeto PurchaseOrderRequestDto.
      * @return valor BigDecimal do valor total em carrinho.
      */
-    @Transactional
     @Override
     public PurchaseOrderResponseDto create(PurchaseOrderRequestDto request, long buyerId) {
-        Buyer buyer = findBuyer(buyerId);
-        PurchaseOrder purchaseOrder = getPurchaseOrder(buyer, request.getOrderStatus());
+        flushBeforeClosing(request.getOrderStatus());
+        return batchLocks.withLock("purchase-order.create", request.getBatch().getBatchNumber(), () ->
+                conflictRetry.execute("purchase-order.create", () -> {
+                    Buyer buyer = findBuyer(buyerId);
+                    PurchaseOrder purchaseOrder = getPurchaseOrder(buyer, request.getOrderStatus());
+
+                    BigDecimal totalPrice = getPurchaseInStock(request.getBatch(), purchaseOrder);
+                    if (purchaseOrder.getOrderStatus().equals("Closed")) archive(purchaseOrder);
+                    return new PurchaseOrderResponseDto(purchaseOrder.getPurchaseId(), totalPrice);
+                }));
+    }
 
-        return new PurchaseOrderResponseDto(purchaseOrder.getPurchaseId(), getPurchaseInStock(request.getBatch(), purchaseOrder));
+    /**
+     *  Metodo que insere/atualiza vários itens no carrinho (PurchaseOrder) em uma única transação. Itens repetidos do
+     *  mesmo batch são somados; os batches são travados, em memória e no banco, sempre em ordem crescente.
+     * @param request objeto BulkPurchaseOrderRequestDto com a lista de batches.
+     * @return valor BigDecimal do valor total em carrinho.
+     */
+    @Override
+    public PurchaseOrderResponseDto createAll(BulkPurchaseOrderRequestDto request, long buyerId) {
+        SortedMap<Long, Integer> quantities = mergeBatches(request.getBatches());
+        flushBeforeClosing(request.getOrderStatus());
+        return batchLocks.withLocks("purchase-order.create-all", quantities.keySet(), () ->
+                savePurchases("purchase-order.create-all", quantities, request.getOrderStatus(), buyerId));
     }
 
     /**
-     * Metodo que atualiza o carrinho (PurchaseOrder) para fechado.
+     *  Metodo que compra um produto pela quantidade, sem escolher o batch: a quantidade é distribuída entre os batches
+     *  do produto na ordem de validade (FEFO, o que vence primeiro sai primeiro), dividindo entre vários batches quando
+     *  necessário. A distribuição vem do índice de estoque; se algum batch não atender mais no banco (uma compra direta
+     *  pelo batch chegou antes), ela é refeita a partir do banco, até MAX_ALLOCATION_ATTEMPTS tentativas.
+     *  Como nas compras diretas, os batches da distribuição ficam travados em memória (pelo número do batch) durante
+     *  a gravação; se a distribuição for refeita, os locks são obtidos de novo para os novos batches. A distribuição
+     *  pelo índice não acessa o banco, então a primeira espera pelos locks acontece sem conexão presa à requisição.
+     * @param request objeto ProductPurchaseOrderRequestDto com o produto e a quantidade.
+     * @return ProductPurchaseOrderResponseDto com o valor total em carrinho e a quantidade retirada de cada batch.
+     * @throws ProductOutOfStockException caso os batches à venda do produto não somem a quantidade pedida.
+     */
+    @Override
+    public ProductPurchaseOrderResponseDto createByProduct(ProductPurchaseOrderRequestDto request, long buyerId) {
+        flushBeforeClosing(request.getOrderStatus());
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumPurchaseExpirationDays);
+        SortedMap<Long, Integer> allocation = stockIndex.isReady()
+                ? allocateFirstExpiring(stockIndex.findFirstExpiring(request.getProductId(), request.getQuantity(), minimumExpirationDate), request.getQuantity())
+                : null;
+        if (allocation == null) allocation = allocateFromDatabase(request, minimumExpirationDate);
+
+        PurchaseOrderResponseDto response;
+        for (int attempt = 1; ; attempt++) {
+            SortedMap<Long, Integer> lockedAllocation = allocation;
+            response = batchLocks.withLocks("purchase-order.create-by-product", lockedAllocation.keySet(), () -> {
+                try {
+                    return savePurchases("purchase-order.create-by-product", lockedAllocation, request.getOrderStatus(), buyerId);
+                } catch (BatchOutOfStockException ex) {
+                    return null;
+                }
+            });
+            if (response != null) break;
+            if (attempt == MAX_ALLOCATION_ATTEMPTS) throw new ProductOutOfStockException(request.getProductId(), request.getQuantity());
+            allocation = allocateFromDatabase(request, minimumExpirationDate);
+        }
+        List<BatchPurchaseOrderRequestDto> batches = allocation.entrySet().stream()
+                .map(entry -> new BatchPurchaseOrderRequestDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        return new ProductPurchaseOrderResponseDto(response.getPurchaseOrderId(), response.getTotalPrice(), batches);
+    }
+
+    /**
+     * Metodo que fecha o carrinho (PurchaseOrder), movendo-o para o arquivo de carrinhos fechados. Os itens saem da
+     * tabela de itens junto com as reservas: o estoque descontado ao colocar no carrinho passa a ser definitivo.
+     * No modo write-behind, as inclusões pendentes são gravadas antes.
      * @param purchaseOrderId identificador do carrinho.
      * @return valor BigDecimal do valor total da compra.
      */
-    @Transactional
     @Override
     public PurchaseOrderResponseDto update(long purchaseOrderId, long buyerId) {
-        PurchaseOrder foundOrder = findPurchaseOrder(purchaseOrderId, buyerId);
+        flushPendingCarts();
+        return conflictRetry.execute("purchase-order.update", () -> {
+            PurchaseOrder foundOrder = findPurchaseOrder(purchaseOrderId, buyerId);
 
-        foundOrder.setOrderStatus("Closed");
-        purchaseOrderRepository.save(foundOrder);
+            foundOrder.setOrderStatus("Closed");
+            archive(foundOrder);
 
-        return new PurchaseOrderResponseDto(foundOrder.getPurchaseId(), foundOrder.getBatchPurchaseOrders().stream()
-                .map(batchPurchaseOrder -> batchPurchaseOrder.getUnitPrice().multiply(new BigDecimal(batchPurchaseOrder.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
+            return new PurchaseOrderResponseDto(foundOrder.getPurchaseId(), foundOrder.getTotalPrice());
+        });
     }
 
     /**
-     * Metodo que remove produto do carrinho.
+     * Metodo que remove produto do carrinho. Assim como na compra, o batch fica travado em memória até o commit.
      * @param purchaseOrderId identificador do carrinho (PurchaseOrder).
      * @param batchDto objeto BatchPurchaseOrderRequestDto com id do batch a ser retirado do carrinho.
      * @param buyerId identificador do comprador.
      */
-    @Transactional
     @Override
     public void dropProducts(long purchaseOrderId, BatchPurchaseOrderRequestDto batchDto, long buyerId) {
-        batchPurchaseOrderRepository.delete(returnToStock(findBatchPurchaseOrder(findPurchaseOrder(purchaseOrderId, buyerId), findBatchById(batchDto.getBatchNumber()))));
+        flushPendingCarts();
+        batchLocks.runWithLock("purchase-order.drop-products", batchDto.getBatchNumber(), () ->
+                conflictRetry.run("purchase-order.drop-products", () ->
+                        batchPurchaseOrderRepository.delete(returnToStock(findBatchPurchaseOrder(findPurchaseOrder(purchaseOrderId, buyerId), findBatchById(batchDto.getBatchNumber()))))));
+    }
+
+    /**
+     * Metodo que confere o valor total e a quantidade de itens gravados em cada carrinho contra a soma dos itens e
+     * corrige os que divergirem. Cada correção roda em sua própria transação, com a verificação de versão do carrinho.
+     * Por padrão só roda sob demanda; o agendamento é definido pela propriedade purchase-order.reconcile-cron.
+     * @return Lista de PurchaseOrderReconciliationDto com os carrinhos corrigidos, antes da correção.
+     */
+    @Scheduled(cron = "${purchase-order.reconcile-cron:-}")
+    @Override
+    public List<PurchaseOrderReconciliationDto> reconcileTotals() {
+        List<PurchaseOrderReconciliationDto> mismatches = purchaseOrderRepository.findMismatchedTotals();
+        mismatches.forEach(mismatch -> conflictRetry.run("purchase-order.reconcile", () -> {
+            Optional<PurchaseOrder> foundOrder = purchaseOrderRepository.findById(mismatch.getPurchaseId());
+            if (foundOrder.isEmpty()) return;
+            PurchaseOrder purchaseOrder = foundOrder.get();
+            purchaseOrder.setTotalPrice(batchPurchaseOrderRepository.sumTotalPrice(purchaseOrder));
+            purchaseOrder.setLineCount((int) batchPurchaseOrderRepository.countByPurchaseOrder(purchaseOrder));
+            purchaseOrderRepository.save(purchaseOrder);
+        }));
+        return mismatches;
+    }
+
+    /**
+     * Metodo que devolve ao estoque os itens de carrinhos em aberto cuja reserva venceu. Os candidatos vêm da roda de
+     * reservas e são liberados em lotes de reservations.release-batch-size itens, cada lote em sua própria transação,
+     * pela mesma devolução usada ao remover um produto do carrinho. Um lote que não pôde ser gravado, por conflito ou
+     * por qualquer outra falha, volta para a roda e é tentado de novo no tick seguinte; os lotes seguintes continuam
+     * sendo processados.
+     * @return quantidade de itens liberados.
+     */
+    @Scheduled(fixedDelayString = "${reservations.tick-ms:1000}")
+    @Override
+    public int releaseExpiredReservations() {
+        List<Long> candidates = reservationWheel.advance();
+        int released = 0;
+        for (int from = 0; from < candidates.size(); from += reservationReleaseBatchSize) {
+            List<Long> batchPurchaseIds = candidates.subList(from, Math.min(from + reservationReleaseBatchSize, candidates.size()));
+            try {
+                released += conflictRetry.execute("purchase-order.release-reservations", () -> releaseReservations(batchPurchaseIds));
+            } catch (RuntimeException ex) {
+                if (!(ex instanceof ConcurrentUpdateException))
+                    log.error("Failed to release {} expired reservations, retrying on the next tick", batchPurchaseIds.size(), ex);
+                LocalDateTime now = LocalDateTime.now(clock);
+                reservationWheel.schedule(batchPurchaseIds.stream()
+                        .map(batchPurchaseId -> new Reservation(batchPurchaseId, now))
+                        .collect(Collectors.toList()));
+            }
+        }
+        return released;
     }
 
     /**
-     * Método que busca a lista de compras do carrinho (PurchaseOrder) do cliente.
+     * Metodo que grava no banco as inclusões pendentes dos carrinhos no modo write-behind, em uma única transação:
+     * para cada carrinho, uma consulta dos itens existentes, as escritas dos itens em lote e o novo total. Inclusões
+     * em carrinhos que deixaram de estar em aberto (fechados entre a inclusão e o flush) voltam ao estoque.
+     * @return quantidade de inclusões gravadas.
+     */
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-ms:200}")
+    @Override
+    public int flushPendingCarts() {
+        return cartStore.flush(this::writePendingLines);
+    }
+
+    /**
+     * Método que busca a lista de compras do carrinho (PurchaseOrder) do cliente. Carrinhos fechados são lidos do
+     * arquivo. As inclusões pendentes do modo write-behind são gravadas antes de abrir a transação de leitura.
      * @param buyerId long.
      * @param purchaseOrderId long.
      * @return PurchaseOrder.
      * @throws NotFoundException if not exist opened Purchase
      */
-    @Transactional
     @Override
     public List<BatchBuyerResponseDto> getBatches(long buyerId, long purchaseOrderId) {
-        Buyer buyer = findBuyer(buyerId);
-        PurchaseOrder purchaseOrder = purchaseOrderRepository.findOneByPurchaseIdAndBuyer(purchaseOrderId, buyer);
-        if(purchaseOrder == null) {
-            throw new NotFoundException("Purchase");
-        }
-        return mapListBatchPurchaseToListDto(purchaseOrder.getBatchPurchaseOrders());
+        flushPendingCarts();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            Buyer buyer = findBuyer(buyerId);
+            PurchaseOrder purchaseOrder = purchaseOrderRepository.findOneByPurchaseIdAndBuyer(purchaseOrderId, buyer);
+            if(purchaseOrder == null) {
+                List<ArchivedPurchaseOrderLine> archivedLines = purchaseOrderArchiveRepository.findByPurchaseIdOrderByArchiveLineId(purchaseOrderId);
+                if (archivedLines.isEmpty() || archivedLines.get(0).getBuyerId() != buyerId) {
+                    throw new NotFoundException("Purchase");
+                }
+                return archivedLines.stream().map(BatchBuyerResponseDto::new).collect(Collectors.toList());
+            }
+            return mapListBatchPurchaseToListDto(purchaseOrder.getBatchPurchaseOrders());
+        });
     }
 
     /**
-     * Metodo que devolve ao estoque a quantidade que estava no carrinho.
+     * Metodo que devolve ao estoque a quantidade que estava no carrinho e a desconta do total do carrinho.
      * @param batchPurchaseOrder objeto da tabela nxm BatchPurchaseOrder.
      * @return o próprio objeto BatchPurchaseOrder.
      */
     private BatchPurchaseOrder returnToStock(BatchPurchaseOrder batchPurchaseOrder) {
-        batchPurchaseOrder.getBatch().setCurrentQuantity(batchPurchaseOrder.getBatch().getCurrentQuantity()+batchPurchaseOrder.getQuantity());
+        long batchNumber = batchPurchaseOrder.getBatch().getBatchNumber();
+        batchRepository.incrementStock(batchNumber, batchPurchaseOrder.getQuantity());
+        stockIndex.refresh(List.of(findUpdatedBatch(batchNumber)));
+
+        PurchaseOrder purchase = batchPurchaseOrder.getPurchaseOrder();
+        purchase.setTotalPrice(purchase.getTotalPrice().subtract(linePrice(batchPurchaseOrder.getUnitPrice(), batchPurchaseOrder.getQuantity())));
+        purchase.setLineCount(purchase.getLineCount() - 1);
+        purchaseOrderRepository.save(purchase);
         return batchPurchaseOrder;
     }
 
+    /**
+     * Metodo que devolve ao estoque os itens informados cuja reserva ainda está vencida no banco: entre o agendamento e
+     * a liberação o item pode ter sido renovado, removido ou arquivado com o carrinho fechado.
+     * @param batchPurchaseIds identificadores dos itens de carrinho candidatos.
+     * @return quantidade de itens liberados.
+     */
+    private int releaseReservations(List<Long> batchPurchaseIds) {
+        List<BatchPurchaseOrder> expired = batchPurchaseOrderRepository.findExpiredReservations(batchPurchaseIds, LocalDateTime.now(clock));
+        expired.forEach(batchPurchaseOrder -> batchPurchaseOrderRepository.delete(returnToStock(batchPurchaseOrder)));
+        return expired.size();
+    }
+
+    /**
+     * Metodo que move o carrinho fechado para o arquivo: os itens são copiados, com os dados do lote e do produto,
+     * e removidos junto com o carrinho. O UPDATE do status, enviado antes da cópia, confere a versão e trava o
+     * carrinho: dois fechamentos concorrentes não copiam os itens duas vezes, e o que chegar depois é repetido.
+     * Um carrinho sem itens não é fechado: sem linhas no arquivo, ele deixaria de existir em vez de constar como fechado.
+     * @param purchase objeto PurchaseOrder com status Closed.
+     * @throws BadRequestException caso o carrinho não tenha itens; a transação é desfeita e o carrinho continua aberto.
+     */
+    private void archive(PurchaseOrder purchase) {
+        // As instruções JDBC não passam pelo Hibernate: o carrinho e os itens gravados nesta transação precisam estar
+        // no banco antes da cópia.
+        entityManager.flush();
+        int archivedLines = purchaseOrderJdbcRepository.archiveLines(purchase.getPurchaseId(), LocalDateTime.now(clock));
+        if (archivedLines == 0) throw new BadRequestException("Unable to close an empty purchase order");
+        purchaseOrderRepository.delete(purchase);
+    }
+
     /**
      * Metodo que verifica se o comprador ter uma PurchaseOrder aberta, senão cria uma nova.
      * @param buyer objeto do comprador.
@@ -120,7 +358,7 @@ public class PurchaseOrderService implements IPurchaseOrderService {
         if(purchaseOrder == null) {
             purchaseOrder = new PurchaseOrder();
             purchaseOrder.setBuyer(buyer);
-            purchaseOrder.setDate(LocalDate.now());
+            purchaseOrder.setDate(LocalDate.now(clock));
             purchaseOrderRepository.save(purchaseOrder);
         }
         purchaseOrder.setOrderStatus(orderStatus);
@@ -134,30 +372,234 @@ public class PurchaseOrderService implements IPurchaseOrderService {
      * @return Lista de Batch, um para cada produto.
      */
     private BigDecimal getPurchaseInStock(BatchPurchaseOrderRequestDto batchDto, PurchaseOrder purchase) {
-        Optional<Batch> batchFound = batchRepository.findOneByBatchNumberAndCurrentQuantityGreaterThanEqualAndDueDateAfterOrderByDueDate(batchDto.getBatchNumber(),
-                batchDto.getQuantity(), LocalDate.now().plusDays(21));
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumPurchaseExpirationDays);
+        int updatedRows = batchRepository.decrementStock(batchDto.getBatchNumber(), batchDto.getQuantity(), minimumExpirationDate);
+        if(updatedRows == 0) throw new BatchOutOfStockException(batchDto.getBatchNumber());
 
-        if(batchFound.isEmpty()) throw new BatchOutOfStockException(batchDto.getBatchNumber());
+        Batch batch = findUpdatedBatch(batchDto.getBatchNumber());
+        stockIndex.refresh(List.of(batch));
 
-        batchFound.get().setCurrentQuantity(batchFound.get().getCurrentQuantity() - batchDto.getQuantity());
+        if (isWriteBehind(purchase)) {
+            return cartStore.add(purchase, List.of(batch), Map.of(batch.getBatchNumber(), batchDto.getQuantity()),
+                    reservationWheel.newDeadline());
+        }
+        purchase = saveBatchPurchaseOrder(batch, batchDto, purchase);
+        return purchase.getTotalPrice();
+    }
+
+    /**
+     * Metodo que insere/atualiza vários itens no carrinho em uma única transação, repetida em caso de conflito.
+     * @param operation nome da operação, usado nas estatísticas de conflito.
+     * @param quantities quantidade por número do batch, em ordem crescente.
+     * @param orderStatus status da compra (Opened/Closed).
+     * @param buyerId identificador do comprador.
+     * @return PurchaseOrderResponseDto com o valor total em carrinho.
+     */
+    private PurchaseOrderResponseDto savePurchases(String operation, SortedMap<Long, Integer> quantities,
+                                                   String orderStatus, long buyerId) {
+        return conflictRetry.execute(operation, () -> {
+            Buyer buyer = findBuyer(buyerId);
+            PurchaseOrder purchaseOrder = getPurchaseOrder(buyer, orderStatus);
+
+            BigDecimal totalPrice = getPurchasesInStock(quantities, purchaseOrder);
+            if (purchaseOrder.getOrderStatus().equals("Closed")) archive(purchaseOrder);
+            return new PurchaseOrderResponseDto(purchaseOrder.getPurchaseId(), totalPrice);
+        });
+    }
 
-        purchase = saveBatchPurchaseOrder(batchFound.get(), batchDto, purchase);
-        return sumTotalPrice(purchase);
+    /**
+     * Metodo que distribui a quantidade entre os batches, na ordem recebida (do que vence primeiro ao que vence por
+     * último), esgotando cada batch antes de passar ao seguinte.
+     * @param entries batches à venda do produto, em ordem de validade.
+     * @param quantity quantidade pedida.
+     * @return quantidade por número do batch, em ordem crescente; null caso os batches não somem a quantidade.
+     */
+    private SortedMap<Long, Integer> allocateFirstExpiring(List<StockEntry> entries, int quantity) {
+        SortedMap<Long, Integer> allocation = new TreeMap<>();
+        int remaining = quantity;
+        for (StockEntry entry : entries) {
+            if (remaining == 0) break;
+            int taken = Math.min(remaining, entry.getQuantity());
+            allocation.put(entry.getBatchNumber(), taken);
+            remaining -= taken;
+        }
+        return remaining == 0 ? allocation : null;
+    }
+
+    /**
+     * Metodo que distribui a quantidade a partir dos batches lidos do banco, que é a fonte da verdade quando o índice
+     * está desatualizado.
+     * @param request objeto ProductPurchaseOrderRequestDto com o produto e a quantidade.
+     * @param minimumExpirationDate data mínima de validade para compra.
+     * @return quantidade por número do batch, em ordem crescente.
+     * @throws ProductOutOfStockException caso os batches não somem a quantidade pedida.
+     */
+    private SortedMap<Long, Integer> allocateFromDatabase(ProductPurchaseOrderRequestDto request, LocalDate minimumExpirationDate) {
+        SortedMap<Long, Integer> allocation = allocateFirstExpiring(
+                batchRepository.findSellableByProduct(request.getProductId(), minimumExpirationDate), request.getQuantity());
+        if (allocation == null) throw new ProductOutOfStockException(request.getProductId(), request.getQuantity());
+        return allocation;
+    }
+
+    /**
+     * Metodo que desconta o estoque de vários batches e grava os itens no carrinho, com uma ida ao banco por etapa:
+     * um UPDATE em lote no estoque, uma consulta para os batches, uma para os itens já existentes no carrinho, as
+     * escritas dos itens em lote e a soma do total.
+     * O índice de estoque não é consultado aqui: ele é atualizado após o commit, sem ordem entre as transações, e pode
+     * estar atrasado; quem decide se o batch atende é o UPDATE condicional.
+     * @param quantities quantidade por número do batch, em ordem crescente.
+     * @param purchase objeto PurchaseOrder sendo a compra atual para vincular os batches.
+     * @return valor BigDecimal do valor total em carrinho.
+     */
+    private BigDecimal getPurchasesInStock(SortedMap<Long, Integer> quantities, PurchaseOrder purchase) {
+        LocalDate minimumExpirationDate = LocalDate.now(clock).plusDays(minimumPurchaseExpirationDays);
+        int[] updatedRows = purchaseOrderJdbcRepository.decrementStock(quantities, minimumExpirationDate);
+        Iterator<Long> batchNumbers = quantities.keySet().iterator();
+        for (int rows : updatedRows) {
+            long batchNumber = batchNumbers.next();
+            if (rows == 0) throw new BatchOutOfStockException(batchNumber);
+        }
+
+        List<Batch> batches = findUpdatedBatches(quantities.keySet());
+        stockIndex.refresh(batches);
+
+        if (isWriteBehind(purchase)) return cartStore.add(purchase, batches, quantities, reservationWheel.newDeadline());
+
+        Map<Long, BigDecimal> unitPrices = batches.stream()
+                .collect(Collectors.toMap(Batch::getBatchNumber, Batch::getProductPrice));
+        writeLines(purchase, quantities, unitPrices, reservationWheel.newDeadline());
+        return purchase.getTotalPrice();
+    }
+
+    /**
+     * Metodo que grava os itens no carrinho, somando as quantidades aos itens já existentes e inserindo os novos, e
+     * atualiza o total. O carrinho é gravado antes dos itens, conferindo a versão e travando a linha do carrinho na
+     * mesma ordem do fechamento.
+     * @param purchase objeto PurchaseOrder em aberto.
+     * @param quantities quantidade por número do batch, em ordem crescente.
+     * @param unitPrices preço unitário dos novos itens, por número do batch.
+     * @param reservedUntil prazo da reserva dos itens.
+     */
+    private void writeLines(PurchaseOrder purchase, SortedMap<Long, Integer> quantities, Map<Long, BigDecimal> unitPrices,
+                            LocalDateTime reservedUntil) {
+        Map<Long, BatchPurchaseOrder> lines = purchaseOrderJdbcRepository.findLines(purchase.getPurchaseId(), quantities.keySet());
+        Map<Long, Integer> addedQuantities = new HashMap<>();
+        List<BatchPurchaseOrder> newLines = new ArrayList<>();
+        BigDecimal addedPrice = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            int quantity = entry.getValue();
+            BatchPurchaseOrder line = lines.get(entry.getKey());
+            if (line != null) {
+                addedQuantities.put(line.getBatchPurchaseId(), quantity);
+                addedPrice = addedPrice.add(linePrice(line.getUnitPrice(), quantity));
+                continue;
+            }
+            BatchPurchaseOrder batchPurchaseOrder = new BatchPurchaseOrder();
+            batchPurchaseOrder.setBatch(entityManager.getReference(Batch.class, entry.getKey()));
+            batchPurchaseOrder.setUnitPrice(unitPrices.get(entry.getKey()));
+            batchPurchaseOrder.setQuantity(quantity);
+            batchPurchaseOrder.setReservedUntil(reservedUntil);
+            newLines.add(batchPurchaseOrder);
+            addedPrice = addedPrice.add(linePrice(batchPurchaseOrder.getUnitPrice(), quantity));
+        }
+
+        purchase.setTotalPrice(purchase.getTotalPrice().add(addedPrice));
+        purchase.setLineCount(purchase.getLineCount() + newLines.size());
+        purchaseOrderRepository.save(purchase);
+        entityManager.flush();
+
+        purchaseOrderJdbcRepository.addLineQuantities(addedQuantities, reservedUntil);
+        purchaseOrderJdbcRepository.insertLines(purchase.getPurchaseId(), newLines);
+        Set<Long> reservedIds = new HashSet<>(addedQuantities.keySet());
+        if (!newLines.isEmpty()) {
+            purchaseOrderJdbcRepository.findLines(purchase.getPurchaseId(), quantities.keySet())
+                    .values().forEach(line -> reservedIds.add(line.getBatchPurchaseId()));
+        }
+        reservationWheel.schedule(reservedIds.stream()
+                .map(batchPurchaseId -> new Reservation(batchPurchaseId, reservedUntil))
+                .collect(Collectors.toList()));
     }
 
     /**
-     * Metodo que calcula e retorna o preço total (quantidade comprada * preço do item no estoque)
-     * @param purchase objeto PurchaseOrder para pegar todos os batches relacionados.
+     * Metodo que grava as inclusões pendentes do modo write-behind, agrupadas por carrinho. O prazo da reserva de cada
+     * carrinho é o da inclusão mais recente, e o preço de um item novo é o da primeira inclusão do batch.
+     * @param pendingLines inclusões pendentes, em ordem de sequência.
+     */
+    private void writePendingLines(List<PendingCartLine> pendingLines) {
+        Map<Long, List<PendingCartLine>> linesByOrder = pendingLines.stream()
+                .collect(Collectors.groupingBy(PendingCartLine::getPurchaseId, TreeMap::new, Collectors.toList()));
+        Map<Long, PurchaseOrder> openOrders = purchaseOrderRepository.findAllById(linesByOrder.keySet()).stream()
+                .filter(purchaseOrder -> purchaseOrder.getOrderStatus().equals("Opened"))
+                .collect(Collectors.toMap(PurchaseOrder::getPurchaseId, purchaseOrder -> purchaseOrder));
+
+        SortedMap<Long, Integer> orphanedQuantities = new TreeMap<>();
+        linesByOrder.forEach((purchaseId, lines) -> {
+            SortedMap<Long, Integer> quantities = new TreeMap<>();
+            Map<Long, BigDecimal> unitPrices = new HashMap<>();
+            LocalDateTime reservedUntil = lines.get(0).getReservedUntil();
+            for (PendingCartLine line : lines) {
+                quantities.merge(line.getBatchNumber(), line.getQuantity(), Integer::sum);
+                unitPrices.putIfAbsent(line.getBatchNumber(), line.getUnitPrice());
+                if (line.getReservedUntil().isAfter(reservedUntil)) reservedUntil = line.getReservedUntil();
+            }
+            PurchaseOrder purchaseOrder = openOrders.get(purchaseId);
+            if (purchaseOrder == null) quantities.forEach((batchNumber, quantity) -> orphanedQuantities.merge(batchNumber, quantity, Integer::sum));
+            else writeLines(purchaseOrder, quantities, unitPrices, reservedUntil);
+        });
+
+        if (orphanedQuantities.isEmpty()) return;
+        orphanedQuantities.forEach(batchRepository::incrementStock);
+        stockIndex.refresh(findUpdatedBatches(orphanedQuantities.keySet()));
+    }
+
+    /**
+     * Metodo que verifica se a inclusão no carrinho deve ser gravada pelo modo write-behind: só carrinhos que
+     * continuam em aberto; um carrinho fechado na mesma requisição é gravado e arquivado na hora.
+     * @param purchase objeto PurchaseOrder da compra atual.
+     * @return true caso a inclusão deva ficar pendente em memória.
+     */
+    private boolean isWriteBehind(PurchaseOrder purchase) {
+        return cartStore.isEnabled() && purchase.getOrderStatus().equals("Opened");
+    }
+
+    /**
+     * Metodo que grava as inclusões pendentes antes de uma compra que fecha o carrinho, para que sejam arquivadas
+     * junto com ele. Roda antes de qualquer lock ou acesso ao banco.
+     * @param orderStatus status da compra (Opened/Closed).
+     */
+    private void flushBeforeClosing(String orderStatus) {
+        if ("Closed".equals(orderStatus)) flushPendingCarts();
+    }
+
+    /**
+     * Metodo que junta os itens do mesmo batch, somando as quantidades, e os ordena pelo número do batch.
+     * @param batches lista de BatchPurchaseOrderRequestDto da requisição.
+     * @return quantidade por número do batch, em ordem crescente.
+     * @throws BadRequestException caso a soma das quantidades de um batch não caiba em um int.
+     */
+    private SortedMap<Long, Integer> mergeBatches(List<BatchPurchaseOrderRequestDto> batches) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        try {
+            batches.forEach(batchDto -> quantities.merge(batchDto.getBatchNumber(), batchDto.getQuantity(), Math::addExact));
+        } catch (ArithmeticException ex) {
+            throw new BadRequestException("The total quantity of a batch exceeds the maximum allowed");
+        }
+        return quantities;
+    }
+
+    /**
+     * Metodo que calcula o preço de um item (quantidade comprada * preço unitário).
+     * @param unitPrice preço unitário do item no carrinho.
+     * @param quantity quantidade comprada.
      * @return valor BigDecimal.
      */
-    private BigDecimal sumTotalPrice(PurchaseOrder purchase) {
-        return purchase.getBatchPurchaseOrders().stream()
-                .map(batchPurchaseOrder -> batchPurchaseOrder.getUnitPrice().multiply(new BigDecimal(batchPurchaseOrder.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private BigDecimal linePrice(BigDecimal unitPrice, int quantity) {
+        return unitPrice.multiply(new BigDecimal(quantity));
     }
 
     /**
-     * Metodo cria uma nova tabela nxm ou atualiza a já existente.
+     * Metodo cria uma nova tabela nxm ou atualiza a já existente, somando o item ao total do carrinho. A reserva do
+     * item é renovada a cada compra.
      * @param batch objeto Batch disponivel para descontar quantidade do batch.
      * @param batchDto objeto BatchPurchaseOrderRequestDto.
      * @param purchase objeto Purchase que será usado na relação nxm.
@@ -172,16 +614,15 @@ public class PurchaseOrderService implements IPurchaseOrderService {
             batchPurchaseOrder.setPurchaseOrder(purchase);
             batchPurchaseOrder.setBatch(batch);
             batchPurchaseOrder.setUnitPrice(batch.getProductPrice());
+            purchase.setLineCount(purchase.getLineCount() + 1);
         }
         batchPurchaseOrder.setQuantity(batchPurchaseOrder.getQuantity()+batchDto.getQuantity());
-        batchPurchaseOrderRepository.save(batchPurchaseOrder);
+        batchPurchaseOrder.setReservedUntil(reservationWheel.newDeadline());
+        batchPurchaseOrder = batchPurchaseOrderRepository.save(batchPurchaseOrder);
+        reservationWheel.schedule(List.of(new Reservation(batchPurchaseOrder.getBatchPurchaseId(), batchPurchaseOrder.getReservedUntil())));
 
-        if(purchase.getBatchPurchaseOrders() == null){
-            purchase.setBatchPurchaseOrders(new ArrayList<>());
-        }
-        if(!purchase.getBatchPurchaseOrders().contains(batchPurchaseOrder)){
-            purchase.getBatchPurchaseOrders().add(batchPurchaseOrder);
-        }
+        purchase.setTotalPrice(purchase.getTotalPrice().add(linePrice(batchPurchaseOrder.getUnitPrice(), batchDto.getQuantity())));
+        purchaseOrderRepository.save(purchase);
         return purchase;
     }
 
@@ -193,7 +634,12 @@ public class PurchaseOrderService implements IPurchaseOrderService {
      */
     private PurchaseOrder findPurchaseOrder(long purchaseOrderId, long buyerId) {
         Optional<PurchaseOrder> foundOrder = purchaseOrderRepository.findById(purchaseOrderId);
-        if (foundOrder.isEmpty()) throw new NotFoundException("Purchase order");
+        if (foundOrder.isEmpty()) {
+            Optional<ArchivedPurchaseOrderLine> archivedLine = purchaseOrderArchiveRepository.findFirstByPurchaseId(purchaseOrderId);
+            if (archivedLine.isEmpty()) throw new NotFoundException("Purchase order");
+            if (archivedLine.get().getBuyerId() != buyerId) throw new UnauthorizedBuyerException(buyerId, purchaseOrderId);
+            throw new PurchaseOrderAlreadyClosedException(purchaseOrderId);
+        }
         if(foundOrder.get().getBuyer().getBuyerId() != buyerId) throw new UnauthorizedBuyerException(buyerId, purchaseOrderId);
         if (foundOrder.get().getOrderStatus().equals("Closed")) throw new PurchaseOrderAlreadyClosedException(foundOrder.get().getPurchaseId());
         return foundOrder.get();
@@ -205,9 +651,11 @@ public class PurchaseOrderService implements IPurchaseOrderService {
      * @return Objeto Buyer contendo infos do comprador.
      */
     private Buyer findBuyer(long buyerId) {
-        Optional<Buyer> foundBuyer = buyerRepository.findById(buyerId);
-        if (foundBuyer.isEmpty()) throw new NotFoundException("Buyer");
-        return foundBuyer.get();
+        return referenceData.getBuyers().get(buyerId, id -> {
+            Optional<Buyer> foundBuyer = buyerRepository.findById(id);
+            if (foundBuyer.isEmpty()) throw new NotFoundException("Buyer");
+            return foundBuyer.get();
+        });
     }
 
     /**
@@ -221,6 +669,34 @@ public class PurchaseOrderService implements IPurchaseOrderService {
         return foundBatch.get();
     }
 
+    /**
+     * Metodo que busca o batch com a quantidade gravada pelo UPDATE de estoque. O UPDATE não passa pelo contexto de
+     * persistência: se o batch já estava carregado, ele é lido novamente do banco; senão, a referência é carregada
+     * no primeiro acesso. Nos dois casos é feito um único SELECT.
+     * @param batchNumber identificador do batch, já alterado pelo UPDATE.
+     * @return Objeto Batch com a quantidade atual.
+     */
+    private Batch findUpdatedBatch(long batchNumber) {
+        Batch batch = entityManager.getReference(Batch.class, batchNumber);
+        if (Hibernate.isInitialized(batch)) entityManager.refresh(batch);
+        return batch;
+    }
+
+    /**
+     * Mesmo que findUpdatedBatch, para vários batches: os que já estavam carregados são lidos novamente do banco e os
+     * demais são buscados, já com o produto, em uma única consulta. O índice de estoque descarta versões antigas,
+     * então os batches não podem vir desatualizados do contexto de persistência.
+     * @param batchNumbers identificadores dos batches, já alterados pelo UPDATE.
+     * @return Lista de Batch com a quantidade e a versão atuais, em ordem crescente de número.
+     */
+    private List<Batch> findUpdatedBatches(Collection<Long> batchNumbers) {
+        batchNumbers.forEach(batchNumber -> {
+            Batch batch = entityManager.getReference(Batch.class, batchNumber);
+            if (Hibernate.isInitialized(batch)) entityManager.refresh(batch);
+        });
+        return batchRepository.findAllWithProductByBatchNumberIn(batchNumbers);
+    }
+
     /**
      * Metodo que retorna o objeto intermediário da relação nxm entre Batch e PurchaseOrder.
      * @param purchase objeto PurchaseOrder.
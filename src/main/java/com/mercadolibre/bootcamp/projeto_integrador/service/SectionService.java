@@ -1,5 +1,7 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceDataCache;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SectionSlotHints;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.IncompatibleCategoryException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.MaxSizeException;
@@ -27,24 +29,50 @@ public class SectionService implements ISectionService {
     @Autowired
     private IProductService productService;
 
+    @Autowired
+    private ReferenceDataCache referenceData;
+
+    @Autowired
+    private SectionSlotHints slotHints;
+
     @Override
     public Section findById(long sectionCode) {
-        return sectionRepository.findById(sectionCode).orElseThrow(() -> new NotFoundException("Section"));
+        return referenceData.getSections().get(sectionCode, code -> sectionRepository.findById(code)
+                .orElseThrow(() -> new NotFoundException("Section")));
     }
 
     @Override
     public Section update(Section section, List<BatchRequestDto> batchesToInsert, long managerId) {
-        Map<Long, Product> products = productService.getProductMap(batchesToInsert);
+        return update(section, productService.getProductMap(batchesToInsert), batchesToInsert.size(), managerId);
+    }
 
+    @Override
+    public Section update(Section section, Map<Long, Product> products, int batchCount, long managerId) {
         ensureManagerHasPermissionInSection(managerId, section);
         ensureSectionHasCompatibleCategory(section, products);
-        ensureSectionHasSpace(section, batchesToInsert.size());
+        reserveSlots(section.getSectionCode(), batchCount);
 
-        sectionRepository.save(section);
+        referenceData.getSections().evict(section.getSectionCode());
 
         return section;
     }
 
+    /**
+     * Metodo que confere se os lotes podem entrar na seção (permissão do representante, categoria dos produtos e
+     * espaço disponível), sem reservar os slots.
+     *
+     * @param section    objeto Section.
+     * @param products   produtos dos lotes, por id.
+     * @param batchCount quantos novos lotes seriam alocados.
+     * @param managerId  ID do gerente.
+     */
+    @Override
+    public void validate(Section section, Map<Long, Product> products, int batchCount, long managerId) {
+        ensureManagerHasPermissionInSection(managerId, section);
+        ensureSectionHasCompatibleCategory(section, products);
+        ensureSectionHasSpace(section, batchCount);
+    }
+
     /**
      * Garante que a seção pode acomodar todos os produtos fornecidos.
      * @param section Seção dos lotes
@@ -67,7 +95,8 @@ public class SectionService implements ISectionService {
      * @param managerId ID do gerente
      * @param section Seção dos lotes
      */
-    private void ensureManagerHasPermissionInSection(long managerId, Section section) {
+    @Override
+    public void ensureManagerHasPermissionInSection(long managerId, Section section) {
         Manager manager = managerService.findById(managerId);
 
         if (section.getManager().getManagerId() != managerId)
@@ -75,17 +104,38 @@ public class SectionService implements ISectionService {
     }
 
     /**
-     * Metodo que verifica se uma seção tem slots disponiveis para um ou mais novos lotes, e já atualiza o número de
-     * slots utilizados.
+     * Metodo que verifica se uma seção tem slots disponiveis para um ou mais novos lotes, sem reservá-los.
      *
      * @param section    objeto Section.
      * @param batchCount quantos novos lotes estão sendo alocados.
      */
     private void ensureSectionHasSpace(Section section, int batchCount){
+        slotHints.observe(section.getSectionCode(), section.getAvailableSlots());
         if (section.getAvailableSlots() < batchCount) {
             throw new MaxSizeException("Section");
         }
-        section.setCurrentBatches(section.getCurrentBatches() + batchCount);
+    }
+
+    /**
+     * Metodo que reserva slots da seção com um UPDATE condicional no banco, sem ler e regravar a seção. Seções que já
+     * se sabe estarem cheias são recusadas antes, pelo limite mantido em SectionSlotHints.
+     * A seção recebida não é alterada: pode estar anexada ao EntityManager, e gravá-la depois do UPDATE daria conflito
+     * de versão. Sem lotes novos não há UPDATE, para não incrementar a versão da seção à toa.
+     *
+     * @param sectionCode código da seção.
+     * @param batchCount  quantos novos lotes estão sendo alocados.
+     */
+    private void reserveSlots(long sectionCode, int batchCount) {
+        if (batchCount == 0) return;
+        if (!slotHints.mayFit(sectionCode, batchCount)) {
+            throw new MaxSizeException("Section");
+        }
+        if (sectionRepository.reserveSlots(sectionCode, batchCount) == 0) {
+            sectionRepository.findAvailableSlots(sectionCode)
+                    .ifPresent(freeSlots -> slotHints.observe(sectionCode, freeSlots));
+            throw new MaxSizeException("Section");
+        }
+        slotHints.reserved(sectionCode, batchCount);
     }
 
 }
@@ -0,0 +1,15 @@
+-- Cada instância tem o seu diário de carrinhos, com a sua própria sequência: o ponto de controle passa a ser um por
+-- diário (CART_JOURNAL:instancia). O ponto de controle único anterior fica como CART_JOURNAL e só é lido por uma
+-- instância que ainda não gravou o seu.
+CREATE TABLE write_behind_journal_checkpoint (
+    journal_id      VARCHAR(191) NOT NULL,
+    last_sequence   BIGINT       NOT NULL,
+    PRIMARY KEY (journal_id)
+);
+
+INSERT INTO write_behind_journal_checkpoint (journal_id, last_sequence)
+SELECT 'CART_JOURNAL', last_sequence FROM write_behind_checkpoint WHERE checkpoint_id = 1;
+
+DROP TABLE write_behind_checkpoint;
+
+ALTER TABLE write_behind_journal_checkpoint RENAME TO write_behind_checkpoint;
@@ -0,0 +1,94 @@
+CREATE TABLE warehouse (
+    warehouse_code BIGINT NOT NULL AUTO_INCREMENT,
+    location VARCHAR(50),
+    PRIMARY KEY (warehouse_code)
+) ENGINE = InnoDB;
+
+CREATE TABLE manager (
+    manager_id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(60),
+    name VARCHAR(100),
+    username VARCHAR(45),
+    PRIMARY KEY (manager_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE seller (
+    seller_id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(60),
+    name VARCHAR(100),
+    username VARCHAR(45),
+    PRIMARY KEY (seller_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE buyer (
+    buyer_id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(45),
+    PRIMARY KEY (buyer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE section (
+    section_code BIGINT NOT NULL AUTO_INCREMENT,
+    category ENUM('FRESH', 'CHILLED', 'FROZEN'),
+    current_batches INTEGER NOT NULL,
+    max_batches INTEGER NOT NULL,
+    manager_id BIGINT,
+    warehouse_code BIGINT,
+    PRIMARY KEY (section_code),
+    CONSTRAINT fk_section_manager FOREIGN KEY (manager_id) REFERENCES manager (manager_id),
+    CONSTRAINT fk_section_warehouse FOREIGN KEY (warehouse_code) REFERENCES warehouse (warehouse_code)
+) ENGINE = InnoDB;
+
+CREATE TABLE product (
+    product_id BIGINT NOT NULL AUTO_INCREMENT,
+    brand VARCHAR(45),
+    category ENUM('FRESH', 'CHILLED', 'FROZEN'),
+    product_name VARCHAR(45),
+    seller_id BIGINT,
+    PRIMARY KEY (product_id),
+    CONSTRAINT fk_product_seller FOREIGN KEY (seller_id) REFERENCES seller (seller_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE inbound_order (
+    order_number BIGINT NOT NULL AUTO_INCREMENT,
+    order_date DATE,
+    section_code BIGINT,
+    PRIMARY KEY (order_number),
+    CONSTRAINT fk_inbound_order_section FOREIGN KEY (section_code) REFERENCES section (section_code)
+) ENGINE = InnoDB;
+
+CREATE TABLE batch (
+    batch_number BIGINT NOT NULL AUTO_INCREMENT,
+    current_quantity INTEGER NOT NULL,
+    current_temperature FLOAT NOT NULL,
+    due_date DATE,
+    initial_quantity INTEGER NOT NULL,
+    manufacturing_date DATE,
+    manufacturing_time DATETIME(6),
+    minimum_temperature FLOAT NOT NULL,
+    product_price DECIMAL(9, 2),
+    order_number BIGINT,
+    product_id BIGINT,
+    PRIMARY KEY (batch_number),
+    CONSTRAINT fk_batch_inbound_order FOREIGN KEY (order_number) REFERENCES inbound_order (order_number),
+    CONSTRAINT fk_batch_product FOREIGN KEY (product_id) REFERENCES product (product_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE purchase_order (
+    purchase_id BIGINT NOT NULL AUTO_INCREMENT,
+    date DATE,
+    order_status VARCHAR(255),
+    buyer_id BIGINT NOT NULL,
+    PRIMARY KEY (purchase_id),
+    CONSTRAINT fk_purchase_order_buyer FOREIGN KEY (buyer_id) REFERENCES buyer (buyer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE batch_purchase_order (
+    batch_purchase_id BIGINT NOT NULL AUTO_INCREMENT,
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(9, 2),
+    batch_number_batch_number BIGINT,
+    purchase_id_purchase_id BIGINT,
+    PRIMARY KEY (batch_purchase_id),
+    CONSTRAINT fk_batch_purchase_order_batch FOREIGN KEY (batch_number_batch_number) REFERENCES batch (batch_number),
+    CONSTRAINT fk_batch_purchase_order_purchase FOREIGN KEY (purchase_id_purchase_id) REFERENCES purchase_order (purchase_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- Listagem de lotes à venda (keyset por due_date, batch_number) e carga do índice de estoque em memória.
+CREATE INDEX idx_batch_due_date ON batch (due_date, batch_number, current_quantity);
+
+-- Lotes de um produto: detalhes do produto, armazéns e vencimento por categoria.
+CREATE INDEX idx_batch_product_due_date ON batch (product_id, due_date, current_quantity);
+
+-- Lotes de uma ordem de entrada: vencimento por seção e por representante.
+CREATE INDEX idx_batch_order_due_date ON batch (order_number, due_date, current_quantity);
+
+-- Filtro por categoria do produto.
+CREATE INDEX idx_product_category ON product (category);
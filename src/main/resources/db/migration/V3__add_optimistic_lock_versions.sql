@@ -0,0 +1,3 @@
+-- Controle de concorrência otimista (@Version) dos lotes e das seções.
+ALTER TABLE batch ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE section ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Valor total e quantidade de itens mantidos no carrinho, com controle de concorrência otimista (@Version).
+ALTER TABLE purchase_order ADD COLUMN total_price DECIMAL(13, 2) NOT NULL DEFAULT 0;
+ALTER TABLE purchase_order ADD COLUMN line_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE purchase_order ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE purchase_order po
+SET total_price = COALESCE((SELECT SUM(bpo.unit_price * bpo.quantity)
+                            FROM batch_purchase_order bpo
+                            WHERE bpo.purchase_id_purchase_id = po.purchase_id), 0),
+    line_count = (SELECT COUNT(*)
+                  FROM batch_purchase_order bpo
+                  WHERE bpo.purchase_id_purchase_id = po.purchase_id);
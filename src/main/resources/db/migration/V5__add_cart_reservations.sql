@@ -0,0 +1,7 @@
+-- Reserva de estoque dos itens de carrinho em aberto. Os itens já existentes em carrinhos abertos ganham o prazo padrão
+-- de 30 minutos a partir da migração, e os de carrinhos fechados ficam confirmados (prazo nulo).
+ALTER TABLE batch_purchase_order ADD COLUMN reserved_until DATETIME(6);
+
+UPDATE batch_purchase_order
+SET reserved_until = TIMESTAMPADD(MINUTE, 30, CURRENT_TIMESTAMP)
+WHERE purchase_id_purchase_id IN (SELECT purchase_id FROM purchase_order WHERE order_status = 'Opened');
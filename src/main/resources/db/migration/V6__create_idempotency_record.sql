@@ -0,0 +1,11 @@
+-- Primeira resposta de cada requisição POST com Idempotency-Key, para que as repetições a reproduzam sem executar
+-- a operação de novo. A chave é composta por operação, dono da requisição (comprador ou representante) e chave.
+CREATE TABLE idempotency_record (
+    idempotency_key VARCHAR(191) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    response_body   LONGTEXT     NOT NULL,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_record_created_at ON idempotency_record (created_at);
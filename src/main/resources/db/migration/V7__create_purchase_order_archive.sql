@@ -0,0 +1,37 @@
+-- Arquivo dos carrinhos fechados: um item por linha, com os dados do carrinho, do lote e do produto, para que as
+-- tabelas purchase_order e batch_purchase_order guardem apenas carrinhos abertos. Os carrinhos já fechados são
+-- movidos para o arquivo, sem data de fechamento.
+CREATE TABLE purchase_order_archive_line (
+    archive_line_id BIGINT NOT NULL AUTO_INCREMENT,
+    purchase_id     BIGINT NOT NULL,
+    buyer_id        BIGINT NOT NULL,
+    order_date      DATE,
+    closed_at       DATETIME(6),
+    batch_number    BIGINT NOT NULL,
+    due_date        DATE,
+    product_id      BIGINT NOT NULL,
+    product_name    VARCHAR(45),
+    brand           VARCHAR(45),
+    category        ENUM('FRESH', 'CHILLED', 'FROZEN'),
+    unit_price      DECIMAL(9, 2),
+    quantity        INTEGER NOT NULL,
+    PRIMARY KEY (archive_line_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_purchase_order_archive_line_purchase ON purchase_order_archive_line (purchase_id);
+
+INSERT INTO purchase_order_archive_line (purchase_id, buyer_id, order_date, closed_at, batch_number, due_date,
+                                         product_id, product_name, brand, category, unit_price, quantity)
+SELECT po.purchase_id, po.buyer_id, po.date, NULL, b.batch_number, b.due_date,
+       p.product_id, p.product_name, p.brand, p.category, bpo.unit_price, bpo.quantity
+FROM batch_purchase_order bpo
+         JOIN purchase_order po ON po.purchase_id = bpo.purchase_id_purchase_id
+         JOIN batch b ON b.batch_number = bpo.batch_number_batch_number
+         JOIN product p ON p.product_id = b.product_id
+WHERE po.order_status = 'Closed'
+ORDER BY bpo.batch_purchase_id;
+
+DELETE FROM batch_purchase_order
+WHERE purchase_id_purchase_id IN (SELECT purchase_id FROM purchase_order WHERE order_status = 'Closed');
+
+DELETE FROM purchase_order WHERE order_status = 'Closed';
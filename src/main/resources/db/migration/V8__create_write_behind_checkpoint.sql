@@ -0,0 +1,7 @@
+-- Ponto de controle do modo write-behind dos carrinhos: a maior sequência do diário local já gravada no banco,
+-- atualizada na mesma transação que grava os itens.
+CREATE TABLE write_behind_checkpoint (
+    checkpoint_id   INT    NOT NULL,
+    last_sequence   BIGINT NOT NULL,
+    PRIMARY KEY (checkpoint_id)
+);
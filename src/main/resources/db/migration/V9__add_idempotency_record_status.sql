@@ -0,0 +1,4 @@
+-- A chave é reservada com uma linha PENDING antes de executar a operação, para que uma repetição em outra instância
+-- encontre a reserva; a resposta é gravada depois, com status DONE. As respostas já gravadas ficam como DONE.
+ALTER TABLE idempotency_record ADD COLUMN status VARCHAR(16) NOT NULL DEFAULT 'DONE';
+ALTER TABLE idempotency_record MODIFY response_body LONGTEXT NULL;
@@ -9,25 +9,25 @@ insert into manager values (null, 'brunav@example.com', 'Bruna', 'Vottri');
 insert into manager values (null, 'felipe@example.com', 'Felipe', 'Ticiane');
 insert into manager values (null, 'viviane@example.com', 'Viviane', 'de Freitas');
 
-insert into section values (null, 'FROZEN', 0, 500, 1, 1);
-insert into section values (null, 'FRESH', 0, 500, 1, 1);
-insert into section values (null, 'CHILLED', 0, 500, 1, 1);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FROZEN', 0, 500, 1, 1, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FRESH', 0, 500, 1, 1, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'CHILLED', 0, 500, 1, 1, 0);
 
-insert into section values (null, 'FROZEN', 0, 20, 2, 2);
-insert into section values (null, 'FRESH', 0, 5, 2, 2);
-insert into section values (null, 'CHILLED', 5, 10, 3, 2);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FROZEN', 0, 20, 2, 2, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FRESH', 0, 5, 2, 2, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'CHILLED', 5, 10, 3, 2, 0);
 
-insert into section values (null, 'FROZEN', 0, 10, 3, 3);
-insert into section values (null, 'FRESH', 0, 5, 4, 3);
-insert into section values (null, 'CHILLED', 0, 5, 4, 3);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FROZEN', 0, 10, 3, 3, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FRESH', 0, 5, 4, 3, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'CHILLED', 0, 5, 4, 3, 0);
 
-insert into section values (null, 'FROZEN', 0, 10, 5, 3);
-insert into section values (null, 'FRESH', 0, 10, 5, 3);
-insert into section values (null, 'CHILLED', 0, 10, 5, 2);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FROZEN', 0, 10, 5, 3, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FRESH', 0, 10, 5, 3, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'CHILLED', 0, 10, 5, 2, 0);
 
-insert into section values (null, 'FROZEN', 0, 5, 6, 2);
-insert into section values (null, 'FRESH', 0, 5, 6, 1);
-insert into section values (null, 'CHILLED', 0, 5, 6, 1);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FROZEN', 0, 5, 6, 2, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'FRESH', 0, 5, 6, 1, 0);
+insert into section (section_code, category, current_batches, max_batches, manager_id, warehouse_code, version) values (null, 'CHILLED', 0, 5, 6, 1, 0);
 
 insert into seller values (null, 'maria@example.com', 'Maria', 'maria');
 insert into seller values (null, 'joao@example.com', 'João', 'joao');
@@ -0,0 +1,147 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.CacheStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReferenceCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ReferenceCache<Long, String> cache = new ReferenceCache<>("test", 2, Duration.ofSeconds(10),
+            now::get, UnaryOperator.identity());
+
+    @Test
+    void get_loadOnlyOnce_whenKeyIsCached() {
+        // Act
+        String first = cache.get(1L, this::load);
+        String second = cache.get(1L, this::load);
+
+        // Assert
+        assertThat(first).isEqualTo("value-1");
+        assertThat(second).isEqualTo("value-1");
+        assertThat(loads).hasValue(1);
+        CacheStatsDto stats = cache.getStats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void get_loadAgain_whenValueExpired() {
+        // Arrange
+        cache.get(1L, this::load);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act
+        cache.get(1L, this::load);
+
+        // Assert
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void get_evictLeastRecentlyUsed_whenSizeExceeded() {
+        // Arrange
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+
+        // Act
+        cache.get(3L, this::load);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        // Assert
+        assertThat(loads).hasValue(4);
+        assertThat(cache.getStats().getSize()).isEqualTo(2);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    void get_notCacheValue_whenLoaderThrows() {
+        // Act
+        assertThrows(NotFoundException.class, () -> cache.get(1L, key -> {
+            throw new NotFoundException("Test");
+        }));
+        String value = cache.get(1L, this::load);
+
+        // Assert
+        assertThat(value).isEqualTo("value-1");
+        assertThat(cache.getStats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void get_discardLoadedValue_whenKeyEvictedDuringLoad() {
+        // Act
+        cache.get(1L, key -> {
+            cache.evict(key);
+            return "stale";
+        });
+        String value = cache.get(1L, this::load);
+
+        // Assert
+        assertThat(value).isEqualTo("value-1");
+    }
+
+    @Test
+    void evict_loadAgain_afterKeyEvicted() {
+        // Arrange
+        cache.get(1L, this::load);
+
+        // Act
+        cache.evict(1L);
+        cache.get(1L, this::load);
+
+        // Assert
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getStats().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void getAll_loadOnlyMissingKeys() {
+        // Arrange
+        cache.get(1L, this::load);
+        AtomicInteger requestedKeys = new AtomicInteger();
+
+        // Act
+        Map<Long, String> values = cache.getAll(List.of(1L, 2L, 2L), keys -> {
+            requestedKeys.addAndGet(keys.size());
+            return keys.stream().collect(Collectors.toMap(key -> key, this::load));
+        });
+
+        // Assert
+        assertThat(values).containsEntry(1L, "value-1").containsEntry(2L, "value-2").hasSize(2);
+        assertThat(requestedKeys).hasValue(1);
+    }
+
+    @Test
+    void get_returnCopy_whenCopierInformed() {
+        // Arrange
+        ReferenceCache<Long, StringBuilder> copying = new ReferenceCache<>("copying", 2, Duration.ofSeconds(10),
+                now::get, StringBuilder::new);
+        copying.get(1L, key -> new StringBuilder("original"));
+
+        // Act
+        copying.get(1L, key -> new StringBuilder()).append("-changed");
+
+        // Assert
+        assertThat(copying.get(1L, key -> new StringBuilder()).toString()).isEqualTo("original");
+    }
+
+    private String load(long key) {
+        loads.incrementAndGet();
+        return "value-" + key;
+    }
+}
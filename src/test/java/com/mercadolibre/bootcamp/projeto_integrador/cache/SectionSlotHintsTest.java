@@ -0,0 +1,69 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SectionSlotHintsTest {
+    private static final long SECTION_CODE = 1L;
+
+    private final AtomicLong now = new AtomicLong();
+    private final SectionSlotHints hints = new SectionSlotHints(60, now::get);
+
+    @Test
+    void mayFit_returnTrue_whenSectionWasNeverObserved() {
+        assertThat(hints.mayFit(SECTION_CODE, 1000)).isTrue();
+    }
+
+    @Test
+    void mayFit_rejectOnlyWhatDoesNotFit_afterObserve() {
+        // Arrange
+        hints.observe(SECTION_CODE, 3);
+
+        // Act & Assert
+        assertThat(hints.mayFit(SECTION_CODE, 3)).isTrue();
+        assertThat(hints.mayFit(SECTION_CODE, 4)).isFalse();
+    }
+
+    @Test
+    void observe_keepSmallestLimit() {
+        // Arrange
+        hints.observe(SECTION_CODE, 2);
+
+        // Act
+        hints.observe(SECTION_CODE, 5);
+
+        // Assert
+        assertThat(hints.mayFit(SECTION_CODE, 3)).isFalse();
+    }
+
+    @Test
+    void reserved_decrementLimit_whenOutsideTransaction() {
+        // Arrange
+        hints.observe(SECTION_CODE, 5);
+
+        // Act
+        hints.reserved(SECTION_CODE, 4);
+
+        // Assert
+        assertThat(hints.mayFit(SECTION_CODE, 1)).isTrue();
+        assertThat(hints.mayFit(SECTION_CODE, 2)).isFalse();
+    }
+
+    @Test
+    void mayFit_ignoreLimit_whenExpired() {
+        // Arrange
+        hints.observe(SECTION_CODE, 0);
+
+        // Act
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        // Assert
+        assertThat(hints.mayFit(SECTION_CODE, 1)).isTrue();
+        hints.observe(SECTION_CODE, 10);
+        assertThat(hints.mayFit(SECTION_CODE, 10)).isTrue();
+    }
+}
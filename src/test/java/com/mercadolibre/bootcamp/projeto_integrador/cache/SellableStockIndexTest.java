@@ -0,0 +1,248 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchCursor;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.util.BatchGenerator;
+import com.mercadolibre.bootcamp.projeto_integrador.util.ProductsGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SellableStockIndexTest {
+
+    @InjectMocks
+    private SellableStockIndex index;
+
+    @Mock
+    private IBatchRepository batchRepository;
+
+    @Mock
+    private StockVersion stockVersion;
+
+    private List<Batch> batches;
+
+    @BeforeEach
+    void setup() {
+        batches = BatchGenerator.newBatchList();
+        // Data mínima de venda igual a hoje: todos os lotes gerados estão à venda.
+        setToday(LocalDate.now().minusDays(SellableStockIndex.MINIMUM_EXPIRATION_DAYS));
+        when(batchRepository.findStockEntryPage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(batches.stream().map(StockEntry::new).collect(Collectors.toList()));
+        index.reload();
+    }
+
+    @Test
+    void reload_loadBatchesOrderedByDueDate() {
+        // Act
+        List<StockEntry> page = index.findPage(null, BatchCursor.first(LocalDate.now()), 10);
+
+        // Assert
+        assertThat(index.isReady()).isTrue();
+        assertThat(batchNumbers(page)).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void findPage_removeExpiredBatches_whenDayChanges() {
+        // Arrange
+        setToday(LocalDate.now().minusDays(SellableStockIndex.MINIMUM_EXPIRATION_DAYS - 10));
+
+        // Act
+        List<StockEntry> page = index.findPage(null, BatchCursor.first(LocalDate.now()), 10);
+
+        // Assert
+        assertThat(batchNumbers(page)).containsExactly(2L, 1L);
+        assertEquals(index.getMinimumExpirationDate(), LocalDate.now().plusDays(10));
+        verify(stockVersion).bump(EnumSet.of(Section.Category.FRESH));
+    }
+
+    @Test
+    void expire_removeBatchesWithDueDateEqualToMinimumExpirationDate() {
+        // Arrange
+        setToday(batches.get(2).getDueDate().minusDays(SellableStockIndex.MINIMUM_EXPIRATION_DAYS));
+
+        // Act
+        index.expire();
+
+        // Assert
+        assertThat(index.find(batches.get(2).getBatchNumber())).isEmpty();
+        assertThat(index.find(batches.get(1).getBatchNumber())).isPresent();
+        assertThat(batchNumbers(index.findPage(null, BatchCursor.first(LocalDate.now()), 10)))
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void expire_keepBatches_whenDayNotChanged() {
+        // Act
+        index.expire();
+
+        // Assert
+        assertThat(batchNumbers(index.findPage(null, BatchCursor.first(LocalDate.now()), 10)))
+                .containsExactly(3L, 2L, 1L);
+        verify(stockVersion, never()).bump(ArgumentMatchers.any());
+    }
+
+    @Test
+    void refresh_ignoreBatchesNotAfterMinimumExpirationDate() {
+        // Arrange
+        batches.get(0).setDueDate(LocalDate.now());
+        nextVersion(batches.get(0));
+
+        // Act
+        index.refresh(List.of(batches.get(0)));
+
+        // Assert
+        assertThat(index.find(batches.get(0).getBatchNumber())).isEmpty();
+        assertThat(batchNumbers(index.findPage(null, BatchCursor.first(LocalDate.now()), 10)))
+                .containsExactly(3L, 2L);
+    }
+
+    @Test
+    void findPage_returnBatchesAfterCursor() {
+        // Arrange
+        BatchCursor cursor = new BatchCursor(batches.get(2).getDueDate(), batches.get(2).getBatchNumber());
+
+        // Act
+        List<StockEntry> page = index.findPage(null, cursor, 1);
+
+        // Assert
+        assertThat(batchNumbers(page)).containsExactly(2L);
+    }
+
+    @Test
+    void findPage_returnOnlyBatchesOfCategory() {
+        // Arrange
+        batches.get(1).setProduct(ProductsGenerator.newProductFrozen());
+        nextVersion(batches.get(1));
+        index.refresh(List.of(batches.get(1)));
+
+        // Act
+        List<StockEntry> fresh = index.findPage(Section.Category.FRESH, BatchCursor.first(LocalDate.now()), 10);
+        List<StockEntry> frozen = index.findPage(Section.Category.FROZEN, BatchCursor.first(LocalDate.now()), 10);
+
+        // Assert
+        assertThat(batchNumbers(fresh)).containsExactly(3L, 1L);
+        assertThat(batchNumbers(frozen)).containsExactly(2L);
+    }
+
+    @Test
+    void refresh_updateQuantityAndRemoveBatchesOutOfStock() {
+        // Arrange
+        batches.get(0).setCurrentQuantity(5);
+        batches.get(2).setCurrentQuantity(0);
+        nextVersion(batches.get(0));
+        nextVersion(batches.get(2));
+
+        // Act
+        index.refresh(List.of(batches.get(0), batches.get(2)));
+        List<StockEntry> page = index.findPage(null, BatchCursor.first(LocalDate.now()), 10);
+
+        // Assert
+        assertThat(batchNumbers(page)).containsExactly(2L, 1L);
+        assertEquals(page.get(1).getQuantity(), 5);
+    }
+
+    @Test
+    void refresh_bumpVersionOfPreviousAndNewCategory() {
+        // Arrange
+        batches.get(1).setProduct(ProductsGenerator.newProductFrozen());
+        nextVersion(batches.get(1));
+
+        // Act
+        index.refresh(List.of(batches.get(1)));
+
+        // Assert
+        verify(stockVersion).bump(EnumSet.of(Section.Category.FRESH, Section.Category.FROZEN));
+    }
+
+    @Test
+    void refresh_ignoreOlderVersions_whenCommitsArriveOutOfOrder() {
+        // Arrange
+        Batch older = batches.get(0).toBuilder().currentQuantity(8).version(1).build();
+        Batch newer = batches.get(0).toBuilder().currentQuantity(5).version(2).build();
+        Batch soldOut = batches.get(2).toBuilder().currentQuantity(0).version(2).build();
+        Batch beforeSoldOut = batches.get(2).toBuilder().currentQuantity(3).version(1).build();
+
+        // Act
+        index.refresh(List.of(newer, soldOut));
+        index.refresh(List.of(older, beforeSoldOut));
+
+        // Assert
+        assertEquals(index.find(newer.getBatchNumber()).get().getQuantity(), 5);
+        assertThat(index.find(soldOut.getBatchNumber())).isEmpty();
+    }
+
+    @Test
+    void findFirstExpiring_returnBatchesByDueDateUntilQuantityIsCovered() {
+        // Arrange
+        long productId = batches.get(0).getProduct().getProductId();
+
+        // Act
+        List<StockEntry> entries = index.findFirstExpiring(productId, 50, LocalDate.now());
+
+        // Assert
+        assertThat(batchNumbers(entries)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void findFirstExpiring_skipBatchesNotAfterMinimumExpirationDate() {
+        // Arrange
+        long productId = batches.get(0).getProduct().getProductId();
+
+        // Act
+        List<StockEntry> entries = index.findFirstExpiring(productId, 100, batches.get(2).getDueDate());
+
+        // Assert
+        assertThat(batchNumbers(entries)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void findFirstExpiring_returnEmpty_whenProductHasNoBatches() {
+        // Arrange
+        batches.forEach(batch -> {
+            batch.setCurrentQuantity(0);
+            nextVersion(batch);
+        });
+        index.refresh(batches);
+
+        // Act
+        List<StockEntry> entries = index.findFirstExpiring(batches.get(0).getProduct().getProductId(), 1, LocalDate.now());
+
+        // Assert
+        assertThat(entries).isEmpty();
+    }
+
+    private void nextVersion(Batch batch) {
+        batch.setVersion(batch.getVersion() + 1);
+    }
+
+    private void setToday(LocalDate today) {
+        ZoneId zone = ZoneId.systemDefault();
+        ReflectionTestUtils.setField(index, "clock", Clock.fixed(today.atStartOfDay(zone).toInstant(), zone));
+    }
+
+    private List<Long> batchNumbers(List<StockEntry> entries) {
+        return entries.stream().map(StockEntry::getBatchNumber).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,55 @@
+package com.mercadolibre.bootcamp.projeto_integrador.cache;
+
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockVersionTest {
+
+    private final StockVersion stockVersion = new StockVersion();
+
+    @Test
+    void bump_changeGlobalAndCategoryVersion_onlyForChangedCategories() {
+        // Arrange
+        String global = stockVersion.current(null);
+        String fresh = stockVersion.current(Section.Category.FRESH);
+        String frozen = stockVersion.current(Section.Category.FROZEN);
+
+        // Act
+        stockVersion.bump(EnumSet.of(Section.Category.FRESH));
+
+        // Assert
+        assertThat(stockVersion.current(null)).isNotEqualTo(global);
+        assertThat(stockVersion.current(Section.Category.FRESH)).isNotEqualTo(fresh);
+        assertThat(stockVersion.current(Section.Category.FROZEN)).isEqualTo(frozen);
+    }
+
+    @Test
+    void current_returnDifferentVersions_forDifferentCategories() {
+        // Act
+        String global = stockVersion.current(null);
+        String fresh = stockVersion.current(Section.Category.FRESH);
+        String chilled = stockVersion.current(Section.Category.CHILLED);
+
+        // Assert
+        assertThat(Set.of(global, fresh, chilled)).hasSize(3);
+    }
+
+    @Test
+    void reload_changeAllVersions() {
+        // Arrange
+        String global = stockVersion.current(null);
+        String fresh = stockVersion.current(Section.Category.FRESH);
+
+        // Act
+        stockVersion.reload();
+
+        // Assert
+        assertThat(stockVersion.current(null)).isNotEqualTo(global);
+        assertThat(stockVersion.current(Section.Category.FRESH)).isNotEqualTo(fresh);
+    }
+}
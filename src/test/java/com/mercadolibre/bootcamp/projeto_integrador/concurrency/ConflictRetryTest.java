@@ -0,0 +1,114 @@
+package com.mercadolibre.bootcamp.projeto_integrador.concurrency;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.RetryStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ConcurrentUpdateException;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConflictRetryTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    @InjectMocks
+    private ConflictRetry conflictRetry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(conflictRetry, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(conflictRetry, "initialBackoffMillis", 1L);
+        ReflectionTestUtils.setField(conflictRetry, "maxBackoffMillis", 2L);
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void execute_returnResultWithoutRetry_whenNoConflict() {
+        // Act
+        String result = conflictRetry.execute("operation", () -> "done");
+
+        // Assert
+        assertEquals(result, "done");
+        verify(transactionManager).commit(any());
+        assertStats(1, 0, 0, 0);
+    }
+
+    @Test
+    void execute_retryInNewTransaction_whenVersionConflicts() {
+        // Act
+        String result = conflictRetry.execute("operation", () -> {
+            if (calls.incrementAndGet() < MAX_ATTEMPTS) throw conflict();
+            return "done";
+        });
+
+        // Assert
+        assertEquals(result, "done");
+        assertEquals(calls.get(), MAX_ATTEMPTS);
+        verify(transactionManager, times(MAX_ATTEMPTS - 1)).rollback(any());
+        verify(transactionManager).commit(any());
+        assertStats(1, MAX_ATTEMPTS - 1, MAX_ATTEMPTS - 1, 0);
+    }
+
+    @Test
+    void execute_throwConcurrentUpdateException_whenAttemptsExhausted() {
+        // Act
+        ConcurrentUpdateException exception = assertThrows(ConcurrentUpdateException.class,
+                () -> conflictRetry.execute("operation", () -> {
+                    calls.incrementAndGet();
+                    throw conflict();
+                }));
+
+        // Assert
+        assertThat(exception.getMessage()).contains("operation");
+        assertEquals(calls.get(), MAX_ATTEMPTS);
+        assertStats(1, MAX_ATTEMPTS, MAX_ATTEMPTS - 1, 1);
+    }
+
+    @Test
+    void execute_notRetry_whenExceptionIsNotAConflict() {
+        // Act
+        assertThrows(BadRequestException.class, () -> conflictRetry.run("operation", () -> {
+            calls.incrementAndGet();
+            throw new BadRequestException("invalid");
+        }));
+
+        // Assert
+        assertEquals(calls.get(), 1);
+        assertStats(1, 0, 0, 0);
+    }
+
+    private ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException(Batch.class, 1L);
+    }
+
+    private void assertStats(long executions, long conflicts, long retries, long exhausted) {
+        assertThat(conflictRetry.getStats()).hasSize(1);
+        RetryStatsDto stats = conflictRetry.getStats().get(0);
+        assertEquals(stats.getOperation(), "operation");
+        assertEquals(stats.getExecutions(), executions);
+        assertEquals(stats.getConflicts(), conflicts);
+        assertEquals(stats.getRetries(), retries);
+        assertEquals(stats.getExhausted(), exhausted);
+    }
+}
@@ -0,0 +1,191 @@
+package com.mercadolibre.bootcamp.projeto_integrador.concurrency;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.LockStripeStatsDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ConcurrentUpdateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StripedLocksTest {
+
+    @Test
+    void constructor_roundStripesUpToPowerOfTwo() {
+        assertThat(new StripedLocks(1, 10).getStats()).hasSize(1);
+        assertThat(new StripedLocks(6, 10).getStats()).hasSize(8);
+        assertThat(new StripedLocks(8, 10).getStats()).hasSize(8);
+        assertThat(new StripedLocks(0, 10).getStats().size())
+                .isGreaterThanOrEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void withLock_serializeOperationsOnSameKey() throws Exception {
+        // Arrange
+        StripedLocks locks = new StripedLocks(4, 5000);
+        int threads = 8;
+        int incrementsPerThread = 1000;
+        int[] counter = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < incrementsPerThread; j++) {
+                    locks.runWithLock("operation", 42L, () -> counter[0]++);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(counter[0], threads * incrementsPerThread);
+        LockStripeStatsDto stats = locks.getStats().get(locks.indexOf(42L));
+        assertEquals(stats.getAcquisitions(), threads * incrementsPerThread);
+        assertEquals(stats.getTimeouts(), 0);
+    }
+
+    @Test
+    void withLock_notBlockOtherStripes_whenKeyIsHeld() throws Exception {
+        // Arrange
+        StripedLocks locks = new StripedLocks(4, 5000);
+        long heldKey = 0L;
+        long otherKey = 1L;
+        assertThat(locks.indexOf(heldKey)).isNotEqualTo(locks.indexOf(otherKey));
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> locks.runWithLock("operation", heldKey, () -> {
+            held.countDown();
+            awaitQuietly(release);
+        }));
+        held.await();
+
+        // Act
+        String result = locks.withLock("operation", otherKey, () -> "done");
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(result, "done");
+        assertEquals(locks.getStats().get(locks.indexOf(otherKey)).getContended(), 0);
+    }
+
+    @Test
+    void withLock_throwConcurrentUpdateException_whenTimeoutExpires() throws Exception {
+        // Arrange
+        StripedLocks locks = new StripedLocks(4, 20);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> locks.runWithLock("operation", 7L, () -> {
+            held.countDown();
+            awaitQuietly(release);
+        }));
+        held.await();
+
+        // Act
+        assertThrows(ConcurrentUpdateException.class, () -> locks.runWithLock("operation", 7L, () -> { }));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        LockStripeStatsDto stats = locks.getStats().get(locks.indexOf(7L));
+        assertEquals(stats.getContended(), 1);
+        assertEquals(stats.getTimeouts(), 1);
+        assertEquals(stats.getAcquisitions(), 1);
+    }
+
+    @Test
+    void withLocks_acquireEachStripeOnce_whenKeysShareStripe() {
+        // Arrange
+        StripedLocks locks = new StripedLocks(4, 5000);
+        long key = 3L;
+        long sameStripeKey = key + 4;
+        assertEquals(locks.indexOf(key), locks.indexOf(sameStripeKey));
+
+        // Act
+        String result = locks.withLocks("operation", List.of(sameStripeKey, 1L, key), () -> "done");
+
+        // Assert
+        assertEquals(result, "done");
+        assertEquals(locks.getStats().get(locks.indexOf(key)).getAcquisitions(), 1);
+        assertEquals(locks.getStats().get(locks.indexOf(1L)).getAcquisitions(), 1);
+    }
+
+    @Test
+    void withLocks_notDeadlock_whenKeysAreRequestedInOppositeOrder() throws Exception {
+        // Arrange
+        StripedLocks locks = new StripedLocks(4, 5000);
+        int iterations = 1000;
+        int[] counter = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<?> forward = executor.submit(() -> {
+            for (int i = 0; i < iterations; i++) {
+                locks.withLocks("operation", List.of(0L, 1L), () -> counter[0]++);
+            }
+        });
+        Future<?> backward = executor.submit(() -> {
+            for (int i = 0; i < iterations; i++) {
+                locks.withLocks("operation", List.of(1L, 0L), () -> counter[0]++);
+            }
+        });
+        forward.get(30, TimeUnit.SECONDS);
+        backward.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(counter[0], 2 * iterations);
+        assertEquals(locks.getStats().get(locks.indexOf(0L)).getTimeouts(), 0);
+    }
+
+    @Test
+    void withLocks_releaseAcquiredStripes_whenTimeoutExpires() throws Exception {
+        // Arrange
+        StripedLocks locks = new StripedLocks(4, 20);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> locks.runWithLock("operation", 1L, () -> {
+            held.countDown();
+            awaitQuietly(release);
+        }));
+        held.await();
+
+        // Act
+        assertThrows(ConcurrentUpdateException.class,
+                () -> locks.withLocks("operation", List.of(0L, 1L), () -> null));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        assertEquals(other.submit(() -> locks.withLock("operation", 0L, () -> "done")).get(5, TimeUnit.SECONDS), "done");
+        other.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
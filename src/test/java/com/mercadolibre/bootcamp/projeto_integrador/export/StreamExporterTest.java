@@ -0,0 +1,78 @@
+package com.mercadolibre.bootcamp.projeto_integrador.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class StreamExporterTest {
+
+    private static final CsvLayout<BatchBuyerResponseDto> LAYOUT = new CsvLayout<>(
+            List.of("batchNumber", "productName", "productPrice"),
+            dto -> Arrays.asList(dto.getBatchNumber(), dto.getProductName(), dto.getProductPrice()));
+
+    @InjectMocks
+    private StreamExporter exporter;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void export_writeHeaderAndEscapedValues_whenFormatIsCsv() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean(false);
+        BatchBuyerResponseDto batch = newBatch(1L, "Queijo \"Minas\", fresco");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exporter.export(() -> Stream.of(batch).onClose(() -> closed.set(true)), ExportFormat.CSV, LAYOUT)
+                .writeTo(out);
+
+        // Assert
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("batchNumber,productName,productPrice\n1,\"Queijo \"\"Minas\"\", fresco\",10.00\n");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void export_writeOneJsonPerLine_whenFormatIsNdjson() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exporter.export(() -> Stream.of(newBatch(1L, "Alface"), newBatch(2L, "Tomate")), ExportFormat.NDJSON, LAYOUT)
+                .writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("productName").asText()).isEqualTo("Alface");
+        assertThat(objectMapper.readTree(lines[1]).get("batchNumber").asLong()).isEqualTo(2L);
+    }
+
+    private BatchBuyerResponseDto newBatch(long batchNumber, String productName) {
+        return new BatchBuyerResponseDto(batchNumber, productName, "Marca", Section.Category.FRESH, 10,
+                LocalDate.now().plusDays(30), new BigDecimal("10.00"));
+    }
+}
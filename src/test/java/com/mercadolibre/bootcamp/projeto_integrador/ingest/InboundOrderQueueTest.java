@@ -0,0 +1,132 @@
+package com.mercadolibre.bootcamp.projeto_integrador.ingest;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderJobDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.InboundOrderQueueFullException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+class InboundOrderQueueTest {
+    private static final long MANAGER_ID = 1L;
+    private static final long SECTION_CODE = 10L;
+
+    private InboundOrderQueue queue;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        queue.shutdown();
+    }
+
+    @Test
+    void submit_rejectOrder_whenQueueIsFull() throws Exception {
+        // Arrange
+        queue = new InboundOrderQueue(Clock.systemDefaultZone(), 1, 1, 10, 5);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InboundOrderJobDto running = queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> {
+            started.countDown();
+            await(release);
+            return 1L;
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        InboundOrderJobDto queued = queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> 2L);
+
+        // Act & Assert
+        assertThrows(InboundOrderQueueFullException.class, () -> queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> 3L));
+        assertThat(queue.find(running.getJobId(), MANAGER_ID).get().getStatus())
+                .isEqualTo(InboundOrderJobDto.Status.PROCESSING);
+        assertThat(queue.find(queued.getJobId(), MANAGER_ID).get().getStatus())
+                .isEqualTo(InboundOrderJobDto.Status.QUEUED);
+
+        release.countDown();
+        InboundOrderJobDto done = awaitFinished(queued.getJobId());
+        assertThat(done.getStatus()).isEqualTo(InboundOrderJobDto.Status.DONE);
+        assertThat(done.getOrderNumber()).isEqualTo(2L);
+    }
+
+    @Test
+    void submit_markJobAsFailed_whenTaskThrows() throws Exception {
+        // Arrange
+        queue = new InboundOrderQueue(Clock.systemDefaultZone(), 1, 1, 10, 5);
+
+        // Act
+        InboundOrderJobDto job = queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> {
+            throw new NotFoundException("Product");
+        });
+
+        // Assert
+        InboundOrderJobDto failed = awaitFinished(job.getJobId());
+        assertThat(failed.getStatus()).isEqualTo(InboundOrderJobDto.Status.FAILED);
+        assertThat(failed.getError()).contains("There is no product");
+        assertThat(failed.getOrderNumber()).isNull();
+        assertThat(failed.getFinishedAt()).isNotNull();
+    }
+
+    @Test
+    void submit_markJobAsFailed_whenTaskThrowsError() throws Exception {
+        // Arrange
+        queue = new InboundOrderQueue(Clock.systemDefaultZone(), 1, 1, 10, 5);
+
+        // Act
+        InboundOrderJobDto job = queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> {
+            throw new OutOfMemoryError("test");
+        });
+
+        // Assert
+        InboundOrderJobDto failed = awaitFinished(job.getJobId());
+        assertThat(failed.getStatus()).isEqualTo(InboundOrderJobDto.Status.FAILED);
+        assertThat(failed.getError()).isEqualTo("An internal server error has occurred.");
+        assertThat(failed.getFinishedAt()).isNotNull();
+        // O worker substituído continua atendendo a fila.
+        assertThat(awaitFinished(queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> 2L).getJobId()).getStatus())
+                .isEqualTo(InboundOrderJobDto.Status.DONE);
+    }
+
+    @Test
+    void find_returnEmpty_whenJobIsFromAnotherManagerOrWasDiscarded() throws Exception {
+        // Arrange
+        queue = new InboundOrderQueue(Clock.systemDefaultZone(), 1, 5, 1, 5);
+        InboundOrderJobDto first = queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> 1L);
+        awaitFinished(first.getJobId());
+
+        // Act
+        InboundOrderJobDto second = queue.submit(MANAGER_ID, SECTION_CODE, 1, () -> 2L);
+        awaitFinished(second.getJobId());
+        // A ordem mais antiga é descartada logo após a seguinte terminar.
+        long timeout = System.currentTimeMillis() + 5000;
+        while (queue.find(first.getJobId(), MANAGER_ID).isPresent() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertThat(queue.find(second.getJobId(), MANAGER_ID + 1)).isEmpty();
+        assertThat(queue.find(first.getJobId(), MANAGER_ID)).isEmpty();
+        assertThat(queue.find(second.getJobId(), MANAGER_ID)).isPresent();
+    }
+
+    private InboundOrderJobDto awaitFinished(String jobId) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        InboundOrderJobDto job = queue.find(jobId, MANAGER_ID).get();
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+            job = queue.find(jobId, MANAGER_ID).get();
+        }
+        return job;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,15 +2,20 @@ package com.mercadolibre.bootcamp.projeto_integrador.integration;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.ReferenceDataCache;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.model.*;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.*;
 import com.mercadolibre.bootcamp.projeto_integrador.util.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.persistence.EntityManagerFactory;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -35,6 +40,10 @@ public class BaseControllerTest {
     protected IBatchRepository batchRepository;
     @Autowired
     protected IInboundOrderRepository inboundOrderRepository;
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+    @Autowired
+    protected ReferenceDataCache referenceData;
 
     public BaseControllerTest() {
         objectMapper = new ObjectMapper();
@@ -148,6 +157,13 @@ public class BaseControllerTest {
         return batch;
     }
 
+    /**
+     * Estatísticas do Hibernate, usadas para contar as instruções SQL executadas em uma requisição.
+     */
+    protected Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
     protected String asJsonString(final Object obj) throws JsonProcessingException {
         return objectMapper.writeValueAsString(obj);
     }
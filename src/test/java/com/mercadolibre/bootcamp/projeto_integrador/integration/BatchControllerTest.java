@@ -15,8 +15,11 @@ import java.time.format.DateTimeFormatter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -291,4 +294,117 @@ public class BatchControllerTest extends BaseControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void findBatchByCategory_runSameNumberOfStatements_regardlessOfNumberOfBatches() throws Exception {
+        Product product = getSavedFreshProduct();
+        getSavedBatch(product, order);
+        long statementsForOneBatch = countStatementsOfFindBatchByCategory(1);
+
+        for (int i = 0; i < 4; i++) {
+            InboundOrder newOrder = getSavedInboundOrder(getSavedFreshSection(warehouse, manager));
+            getSavedBatch(getSavedFreshProduct(), newOrder);
+        }
+        long statementsForFiveBatches = countStatementsOfFindBatchByCategory(5);
+
+        assertThat(statementsForFiveBatches).isEqualTo(statementsForOneBatch);
+    }
+
+    @Test
+    void findBatchBySection_skipManagerAndSectionQueries_whenAlreadyCached() throws Exception {
+        getSavedBatch(getSavedFreshProduct(), order);
+        long statementsOfFirstRequest = countStatementsOfFindBatchBySection();
+
+        long statementsOfSecondRequest = countStatementsOfFindBatchBySection();
+
+        assertThat(statementsOfSecondRequest).isLessThan(statementsOfFirstRequest);
+        assertThat(statementsOfSecondRequest).isEqualTo(1);
+    }
+
+    private long countStatementsOfFindBatchBySection() throws Exception {
+        getStatistics().clear();
+        mockMvc.perform(get("/api/v1/fresh-products/due-date")
+                        .queryParam("sectionCode", String.valueOf(section.getSectionCode()))
+                        .queryParam("numberOfDays", "10")
+                        .header("Manager-Id", manager.getManagerId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(hasSize(1)));
+        return getStatistics().getPrepareStatementCount();
+    }
+
+    @Test
+    void exportBatchBySection_returnCsvOrderedByDueDate_whenFormatIsCsv() throws Exception {
+        Product product = getSavedFreshProduct();
+        Batch batch1 = getSavedBatch(LocalDate.now().plusDays(5), product, order);
+        Batch batch2 = getSavedBatch(LocalDate.now().plusDays(2), product, order);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/fresh-products/due-date/export")
+                        .queryParam("sectionCode", String.valueOf(section.getSectionCode()))
+                        .queryParam("numberOfDays", "10")
+                        .queryParam("format", "csv")
+                        .header("Manager-Id", manager.getManagerId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string(
+                        "batchNumber,productId,productName,productCategory,dueDate,currentQuantity\n" +
+                                toCsvLine(batch2, product) + toCsvLine(batch1, product)));
+    }
+
+    @Test
+    void exportBatchBySection_returnError_whenGivenManagerThatDoesNotHavePermission() throws Exception {
+        mockMvc.perform(get("/api/v1/fresh-products/due-date/export")
+                        .queryParam("sectionCode", String.valueOf(section.getSectionCode()))
+                        .queryParam("numberOfDays", "10")
+                        .header("Manager-Id", forbiddenManager.getManagerId()))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void exportBatchByCategory_returnOneJsonPerLine_whenFormatNotInformed() throws Exception {
+        Product product = getSavedFreshProduct();
+        Batch batch1 = getSavedBatch(LocalDate.now().plusDays(2), product, order);
+        Batch batch2 = getSavedBatch(LocalDate.now().plusDays(5), product, order);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/fresh-products/due-date/export")
+                        .queryParam("category", product.getCategory().getCode())
+                        .queryParam("orderDir", "DESC")
+                        .queryParam("numberOfDays", "10")
+                        .header("Manager-Id", manager.getManagerId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("batchNumber").asLong()).isEqualTo(batch2.getBatchNumber());
+        assertThat(objectMapper.readTree(lines[1]).get("batchNumber").asLong()).isEqualTo(batch1.getBatchNumber());
+    }
+
+    private String toCsvLine(Batch batch, Product product) {
+        return batch.getBatchNumber() + "," + product.getProductId() + "," + product.getProductName() + "," +
+                product.getCategory() + "," + batch.getDueDate().format(dateFormatter) + "," +
+                batch.getCurrentQuantity() + "\n";
+    }
+
+    private long countStatementsOfFindBatchByCategory(int expectedBatches) throws Exception {
+        referenceData.reload();
+        getStatistics().clear();
+        mockMvc.perform(get("/api/v1/fresh-products/due-date")
+                        .queryParam("category", Section.Category.FRESH.getCode())
+                        .queryParam("orderDir", "ASC")
+                        .queryParam("numberOfDays", "15")
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(hasSize(expectedBatches)));
+        return getStatistics().getPrepareStatementCount();
+    }
 }
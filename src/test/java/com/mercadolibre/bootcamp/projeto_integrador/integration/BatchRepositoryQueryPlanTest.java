@@ -0,0 +1,174 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Warehouse;
+import com.mercadolibre.bootcamp.projeto_integrador.util.SqlCaptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Executa EXPLAIN sobre o SQL gerado por cada consulta do IBatchRepository e falha caso alguma tabela seja lida por
+ * varredura completa. As subclasses definem o banco usado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+abstract class BatchRepositoryQueryPlanTest extends BaseControllerTest {
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+    private Section section;
+    private Manager manager;
+
+    @BeforeEach
+    void setup() {
+        Warehouse warehouse = getSavedWarehouse();
+        manager = getSavedManager();
+        section = getSavedFreshSection(warehouse, manager);
+        product = getSavedFreshProduct();
+        getSavedBatch(product, getSavedInboundOrder(section));
+    }
+
+    @Test
+    void sumQuantityByWarehouse_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.sumQuantityByWarehouse(product.getProductId()));
+        assertNoTableScan(() -> batchRepository.sumQuantityByProductAndWarehouse(List.of(product.getProductId())));
+    }
+
+    @Test
+    void findSellablePage_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findSellablePage(0, LocalDate.now(), LocalDate.now(), 0L,
+                PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findSellablePageByCategory_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findSellablePageByCategory(0, LocalDate.now(),
+                Section.Category.FRESH, LocalDate.now(), 0L, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findStockEntryPage_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findStockEntryPage(0, LocalDate.now(), LocalDate.now(), 0L,
+                PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findSellableByProduct_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findSellableByProduct(product.getProductId(), LocalDate.now()));
+    }
+
+    @Test
+    void findInStockBySectionAndDueDateBetween_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findInStockBySectionAndDueDateBetween(section, LocalDate.now(),
+                LocalDate.now().plusDays(10)));
+    }
+
+    @Test
+    void findInStockByCategoryAndManagerOrderByDueDate_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findInStockByCategoryAndManagerOrderByDueDateAsc(
+                Section.Category.FRESH, manager.getManagerId(), LocalDate.now(), LocalDate.now().plusDays(10)));
+        assertNoTableScan(() -> batchRepository.findInStockByCategoryAndManagerOrderByDueDateDesc(
+                Section.Category.FRESH, manager.getManagerId(), LocalDate.now(), LocalDate.now().plusDays(10)));
+    }
+
+    @Test
+    void findByProductAndManager_useIndex() throws SQLException {
+        assertNoTableScan(() -> batchRepository.findByProductAndManager(product.getProductId(),
+                manager.getManagerId()));
+    }
+
+    @Test
+    void decrementAndIncrementStock_useIndex() throws SQLException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertNoTableScan(() -> transaction.executeWithoutResult(status ->
+                batchRepository.decrementStock(1L, 1, LocalDate.now())));
+        assertNoTableScan(() -> transaction.executeWithoutResult(status ->
+                batchRepository.incrementStock(1L, 1)));
+    }
+
+    @Test
+    void streamSellable_useIndex() throws SQLException {
+        assertNoTableScan(() -> consume(() -> batchRepository.streamSellable(0, LocalDate.now())));
+        assertNoTableScan(() -> consume(() -> batchRepository.streamSellableByCategory(0, LocalDate.now(),
+                Section.Category.FRESH)));
+    }
+
+    @Test
+    void streamInStockBySectionAndDueDateBetween_useIndex() throws SQLException {
+        assertNoTableScan(() -> consume(() -> batchRepository.streamInStockBySectionAndDueDateBetween(section,
+                LocalDate.now(), LocalDate.now().plusDays(30))));
+    }
+
+    @Test
+    void streamInStockByCategoryAndManagerOrderByDueDate_useIndex() throws SQLException {
+        assertNoTableScan(() -> consume(() -> batchRepository.streamInStockByCategoryAndManagerOrderByDueDateAsc(
+                Section.Category.FRESH, manager.getManagerId(), LocalDate.now(), LocalDate.now().plusDays(30))));
+        assertNoTableScan(() -> consume(() -> batchRepository.streamInStockByCategoryAndManagerOrderByDueDateDesc(
+                Section.Category.FRESH, manager.getManagerId(), LocalDate.now(), LocalDate.now().plusDays(30))));
+    }
+
+    /**
+     * Consultas em Stream só podem ser lidas dentro de uma transação.
+     */
+    private void consume(Supplier<Stream<?>> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<?> rows = query.get()) {
+                rows.forEach(row -> { });
+            }
+        });
+    }
+
+    private void assertNoTableScan(Runnable query) throws SQLException {
+        List<String> statements = SqlCaptor.capture(query);
+        assertThat(statements).isNotEmpty();
+
+        for (String sql : statements) {
+            assertThat(explain(sql))
+                    .as("Plano de execução de: %s", sql)
+                    .doesNotContain(TABLE_SCAN);
+        }
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+}
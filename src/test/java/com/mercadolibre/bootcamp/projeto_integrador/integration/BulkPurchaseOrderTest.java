@@ -0,0 +1,186 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BulkPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IPurchaseOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class BulkPurchaseOrderTest extends BaseControllerTest {
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
+    @Autowired
+    private SellableStockIndex stockIndex;
+    @Autowired
+    private IPurchaseOrderService purchaseOrderService;
+
+    private Buyer buyer;
+    private Batch firstBatch;
+    private Batch secondBatch;
+
+    @BeforeEach
+    void setup() {
+        InboundOrder inboundOrder = getSavedInboundOrder(getSavedFreshSection(getSavedWarehouse(), getSavedManager()));
+        Product product = getSavedFreshProduct();
+        firstBatch = getSavedBatch(LocalDate.now().plusDays(30), product, inboundOrder);
+        secondBatch = getSavedBatch(LocalDate.now().plusDays(40), product, inboundOrder);
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("bulkBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void createBulkPurchaseOrder_returnCreated_andMergeRepeatedBatches() throws Exception {
+        // Arrange
+        BulkPurchaseOrderRequestDto request = getRequest(
+                new BatchPurchaseOrderRequestDto(secondBatch.getBatchNumber(), 2),
+                new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 1),
+                new BatchPurchaseOrderRequestDto(secondBatch.getBatchNumber(), 3));
+        BigDecimal expectedTotal = firstBatch.getProductPrice()
+                .add(secondBatch.getProductPrice().multiply(new BigDecimal(5)));
+
+        // Act
+        ResultActions response = postBulk(request);
+
+        // Assert
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalPrice").value(expectedTotal.doubleValue()));
+        List<BatchPurchaseOrder> lines = batchPurchaseOrderRepository.findAll();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.stream().collect(Collectors.toMap(line -> line.getBatch().getBatchNumber(), BatchPurchaseOrder::getQuantity)))
+                .containsEntry(firstBatch.getBatchNumber(), 1)
+                .containsEntry(secondBatch.getBatchNumber(), 5);
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity() - 1);
+        assertThat(batchRepository.findById(secondBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(secondBatch.getCurrentQuantity() - 5);
+        assertThat(stockIndex.find(secondBatch.getBatchNumber()).get().getQuantity())
+                .isEqualTo(secondBatch.getCurrentQuantity() - 5);
+    }
+
+    @Test
+    void createBulkPurchaseOrder_returnCreated_whenStockIndexIsBehindDatabase() throws Exception {
+        // Arrange
+        Batch batch = batchRepository.findById(firstBatch.getBatchNumber()).get();
+        int quantity = batch.getCurrentQuantity() + 5;
+        batch.setCurrentQuantity(quantity);
+        batchRepository.save(batch);
+
+        // Act
+        ResultActions response = postBulk(getRequest(new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), quantity)));
+
+        // Assert
+        response.andExpect(status().isCreated());
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity()).isZero();
+    }
+
+    @Test
+    void createBulkPurchaseOrder_addToExistingLines_whenBatchIsAlreadyInCart() throws Exception {
+        // Arrange
+        BulkPurchaseOrderRequestDto request = getRequest(
+                new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 1));
+        postBulk(request).andExpect(status().isCreated());
+
+        // Act
+        ResultActions response = postBulk(request);
+
+        // Assert
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalPrice").value(firstBatch.getProductPrice().multiply(new BigDecimal(2)).doubleValue()));
+        List<BatchPurchaseOrder> lines = batchPurchaseOrderRepository.findAll();
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void createBulkPurchaseOrder_returnBadRequest_andKeepStock_whenRepeatedBatchQuantitiesOverflow() throws Exception {
+        // Arrange
+        BulkPurchaseOrderRequestDto request = getRequest(
+                new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 1_500_000_000),
+                new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 1_500_000_000));
+
+        // Act
+        ResultActions response = postBulk(request);
+
+        // Assert
+        response.andExpect(status().isBadRequest());
+        assertThrows(BadRequestException.class, () -> purchaseOrderService.createAll(request, buyer.getBuyerId()));
+        assertThat(batchPurchaseOrderRepository.findAll()).isEmpty();
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+    }
+
+    @Test
+    void createBulkPurchaseOrder_returnBadRequest_andKeepStock_whenOneBatchIsOutOfStock() throws Exception {
+        // Arrange
+        BulkPurchaseOrderRequestDto request = getRequest(
+                new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 1),
+                new BatchPurchaseOrderRequestDto(secondBatch.getBatchNumber(), secondBatch.getCurrentQuantity() + 1));
+
+        // Act
+        ResultActions response = postBulk(request);
+
+        // Assert
+        response.andExpect(status().isBadRequest());
+        assertThat(batchPurchaseOrderRepository.findAll()).isEmpty();
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+    }
+
+    @Test
+    void createBulkPurchaseOrder_returnBadRequest_whenBatchesIsEmpty() throws Exception {
+        // Act
+        ResultActions response = postBulk(getRequest());
+
+        // Assert
+        response.andExpect(status().isBadRequest());
+    }
+
+    private BulkPurchaseOrderRequestDto getRequest(BatchPurchaseOrderRequestDto... batches) {
+        BulkPurchaseOrderRequestDto request = new BulkPurchaseOrderRequestDto();
+        request.setOrderStatus("Opened");
+        request.setBatches(List.of(batches));
+        return request;
+    }
+
+    private ResultActions postBulk(BulkPurchaseOrderRequestDto request) throws Exception {
+        return mockMvc.perform(post("/api/v1/fresh-products/orders/bulk")
+                .header("Buyer-Id", buyer.getBuyerId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(request)));
+    }
+}
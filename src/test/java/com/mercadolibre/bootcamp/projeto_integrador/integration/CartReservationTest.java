@@ -0,0 +1,131 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.PurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.reservation.ReservationWheel;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IPurchaseOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class CartReservationTest extends BaseControllerTest {
+    @Autowired
+    private IPurchaseOrderService purchaseOrderService;
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IPurchaseOrderRepository purchaseOrderRepository;
+    @Autowired
+    private IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
+    @Autowired
+    private ReservationWheel reservationWheel;
+    @Autowired
+    private SellableStockIndex stockIndex;
+
+    private Buyer buyer;
+    private Batch firstBatch;
+    private Batch secondBatch;
+
+    @BeforeEach
+    void setup() {
+        InboundOrder inboundOrder = getSavedInboundOrder(getSavedFreshSection(getSavedWarehouse(), getSavedManager()));
+        Product product = getSavedFreshProduct();
+        firstBatch = getSavedBatch(LocalDate.now().plusDays(30), product, inboundOrder);
+        secondBatch = getSavedBatch(LocalDate.now().plusDays(40), product, inboundOrder);
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("reservationBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void create_reserveCartLineUntilDeadline() {
+        // Act
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+
+        // Assert
+        BatchPurchaseOrder line = batchPurchaseOrderRepository.findAll().get(0);
+        assertThat(line.getReservedUntil()).isAfter(LocalDateTime.now());
+        assertThat(reservationWheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void update_keepStock_whenReservationWouldExpireAfterCheckout() {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        long purchaseId = purchaseOrderService.create(getRequest(secondBatch, 1), buyer.getBuyerId()).getPurchaseOrderId();
+
+        // Act
+        purchaseOrderService.update(purchaseId, buyer.getBuyerId());
+        int released = purchaseOrderService.releaseExpiredReservations();
+
+        // Assert
+        assertThat(released).isZero();
+        assertThat(batchPurchaseOrderRepository.findAll()).isEmpty();
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity() - 2);
+    }
+
+    @Test
+    void releaseExpiredReservations_returnExpiredLinesToStock() throws Exception {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        long purchaseId = purchaseOrderService.create(getRequest(secondBatch, 1), buyer.getBuyerId()).getPurchaseOrderId();
+        BatchPurchaseOrder expiredLine = batchPurchaseOrderRepository.findAll().stream()
+                .filter(line -> line.getBatch().getBatchNumber() == firstBatch.getBatchNumber())
+                .findFirst().get();
+        expiredLine.setReservedUntil(LocalDateTime.now().minusMinutes(1));
+        batchPurchaseOrderRepository.save(expiredLine);
+        reservationWheel.reload();
+
+        // Act
+        // A reserva vence no tick seguinte da roda, que também é avançada pela tarefa agendada.
+        long timeout = System.currentTimeMillis() + 5000;
+        while (batchPurchaseOrderRepository.existsById(expiredLine.getBatchPurchaseId()) && System.currentTimeMillis() < timeout) {
+            purchaseOrderService.releaseExpiredReservations();
+            Thread.sleep(100);
+        }
+
+        // Assert
+        assertThat(batchPurchaseOrderRepository.findAll()).hasSize(1);
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+        assertThat(batchRepository.findById(secondBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(secondBatch.getCurrentQuantity() - 1);
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findById(purchaseId).get();
+        assertThat(purchaseOrder.getTotalPrice()).isEqualByComparingTo(secondBatch.getProductPrice());
+        assertThat(purchaseOrder.getLineCount()).isEqualTo(1);
+        assertThat(stockIndex.find(firstBatch.getBatchNumber()).get().getQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+    }
+
+    private PurchaseOrderRequestDto getRequest(Batch batch, int quantity) {
+        PurchaseOrderRequestDto request = new PurchaseOrderRequestDto();
+        request.setOrderStatus("Opened");
+        request.setBatch(new BatchPurchaseOrderRequestDto(batch.getBatchNumber(), quantity));
+        return request;
+    }
+}
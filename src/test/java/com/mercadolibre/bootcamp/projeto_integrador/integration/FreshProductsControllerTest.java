@@ -12,10 +12,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -50,9 +56,45 @@ class FreshProductsControllerTest extends BaseControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(validInboundOrderRequest.getBatchStock().size()))
                 .andExpect(jsonPath("$[0].batchNumber")
-                        .value(validInboundOrderRequest.getBatchStock().get(0).getBatchNumber()))
+                        .value(validInboundOrderRequest.getBatchStock().get(1).getBatchNumber()))
                 .andExpect(jsonPath("$[1].batchNumber")
-                        .value(validInboundOrderRequest.getBatchStock().get(1).getBatchNumber()));
+                        .value(validInboundOrderRequest.getBatchStock().get(0).getBatchNumber()))
+                .andExpect(header().doesNotExist("Next-Cursor"));
+    }
+
+    @Test
+    void findBatches_returnPagesOrderedByDueDate_whenPageSizeInformed() throws Exception {
+        service.create(validInboundOrderRequest, manager.getManagerId());
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/fresh-products").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].batchNumber")
+                        .value(validInboundOrderRequest.getBatchStock().get(1).getBatchNumber()))
+                .andExpect(header().exists("Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/v1/fresh-products")
+                        .param("size", "1")
+                        .param("cursor", firstPage.getResponse().getHeader("Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].batchNumber")
+                        .value(validInboundOrderRequest.getBatchStock().get(0).getBatchNumber()))
+                .andExpect(header().doesNotExist("Next-Cursor"));
+    }
+
+    @Test
+    void findBatches_returnBadRequestException_whenInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/fresh-products").param("cursor", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Invalid cursor")));
+    }
+
+    @Test
+    void findBatches_returnBadRequestException_whenPageSizeTooLarge() throws Exception {
+        mockMvc.perform(get("/api/v1/fresh-products").param("size", "1000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("The page size should be between 1 and")));
     }
 
     @Test
@@ -70,9 +112,9 @@ class FreshProductsControllerTest extends BaseControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(validInboundOrderRequest.getBatchStock().size()))
                 .andExpect(jsonPath("$[0].batchNumber")
-                        .value(validInboundOrderRequest.getBatchStock().get(0).getBatchNumber()))
-                .andExpect(jsonPath("$[1].batchNumber")
                         .value(validInboundOrderRequest.getBatchStock().get(1).getBatchNumber()))
+                .andExpect(jsonPath("$[1].batchNumber")
+                        .value(validInboundOrderRequest.getBatchStock().get(0).getBatchNumber()))
                 .andExpect(jsonPath("$[0].category").value("FRESH"))
                 .andExpect(jsonPath("$[1].category").value("FRESH"));
     }
@@ -92,4 +134,80 @@ class FreshProductsControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.name", containsString("Bad request")))
                 .andExpect(jsonPath("$.message", containsString("Invalid category, try again with one of the options")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findBatches_returnNotModifiedWithoutQueries_whenETagMatches() throws Exception {
+        service.create(validInboundOrderRequest, manager.getManagerId());
+        String etag = mockMvc.perform(get("/api/v1/fresh-products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        getStatistics().clear();
+        mockMvc.perform(get("/api/v1/fresh-products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        assertThat(getStatistics().getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void findBatches_returnNewETag_whenStockChanges() throws Exception {
+        service.create(validInboundOrderRequest, manager.getManagerId());
+        String etag = mockMvc.perform(get("/api/v1/fresh-products").param("category", "FS"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        service.create(validInboundOrderRequest, manager.getManagerId());
+
+        String newEtag = mockMvc.perform(get("/api/v1/fresh-products")
+                        .param("category", "FS")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(validInboundOrderRequest.getBatchStock().size() * 2))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
+    @Test
+    void exportBatches_returnOneJsonPerLineOrderedByDueDate_whenFormatNotInformed() throws Exception {
+        service.create(validInboundOrderRequest, manager.getManagerId());
+        MvcResult result = mockMvc.perform(get("/api/v1/fresh-products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(validInboundOrderRequest.getBatchStock().size());
+        assertThat(objectMapper.readTree(lines[0]).get("batchNumber").asLong())
+                .isEqualTo(validInboundOrderRequest.getBatchStock().get(1).getBatchNumber());
+        assertThat(objectMapper.readTree(lines[1]).get("batchNumber").asLong())
+                .isEqualTo(validInboundOrderRequest.getBatchStock().get(0).getBatchNumber());
+    }
+
+    @Test
+    void exportBatches_returnOnlyHeader_whenFormatIsCsvAndCategoryHasNoBatches() throws Exception {
+        service.create(validInboundOrderRequest, manager.getManagerId());
+        MvcResult result = mockMvc.perform(get("/api/v1/fresh-products/export")
+                        .param("category", "FF")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("batchNumber,productName,brand,category,quantity,dueDate,productPrice\n"));
+    }
+
+    @Test
+    void exportBatches_returnBadRequestException_whenInvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/fresh-products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("The export format should be either NDJSON or CSV")));
+    }
+}
@@ -0,0 +1,7 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+/**
+ * Planos de execução no H2 padrão, com o schema gerado pelo Hibernate a partir dos índices declarados nas entidades.
+ */
+class H2BatchRepositoryQueryPlanTest extends BatchRepositoryQueryPlanTest {
+}
@@ -0,0 +1,186 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.*;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IIdempotencyRecordRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class IdempotencyKeyTest extends BaseControllerTest {
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IIdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private SellableStockIndex stockIndex;
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private Manager manager;
+    private Section section;
+    private Product product;
+    private Buyer buyer;
+    private Batch batch;
+
+    @BeforeEach
+    void setup() {
+        manager = getSavedManager();
+        section = getSavedFreshSection(getSavedWarehouse(), manager);
+        product = getSavedFreshProduct();
+        batch = getSavedBatch(LocalDate.now().plusDays(30), product, getSavedInboundOrder(section));
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("idempotentBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void createPurchaseOrder_replayFirstResponse_whenKeyIsRepeated() throws Exception {
+        // Arrange
+        PurchaseOrderRequestDto request = getPurchaseOrderRequest(2);
+        String firstResponse = postPurchaseOrder(request, "retry-1")
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        // Act
+        ResultActions response = postPurchaseOrder(request, "retry-1");
+
+        // Assert
+        response.andExpect(status().isCreated())
+                .andExpect(content().json(firstResponse));
+        assertThat(batchRepository.findById(batch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(batch.getCurrentQuantity() - 2);
+        assertThat(idempotencyRecordRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createPurchaseOrder_executeAgain_whenKeyIsDifferentOrMissing() throws Exception {
+        // Arrange
+        PurchaseOrderRequestDto request = getPurchaseOrderRequest(1);
+
+        // Act
+        postPurchaseOrder(request, "first").andExpect(status().isCreated());
+        postPurchaseOrder(request, "second").andExpect(status().isCreated());
+        postPurchaseOrder(request, null).andExpect(status().isCreated());
+
+        // Assert
+        assertThat(batchRepository.findById(batch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(batch.getCurrentQuantity() - 3);
+    }
+
+    @Test
+    void createPurchaseOrder_returnUnprocessableEntity_whenKeyIsReusedWithAnotherBody() throws Exception {
+        // Arrange
+        postPurchaseOrder(getPurchaseOrderRequest(1), "reused").andExpect(status().isCreated());
+
+        // Act
+        ResultActions response = postPurchaseOrder(getPurchaseOrderRequest(5), "reused");
+
+        // Assert
+        response.andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.name").value("Idempotency-Key"));
+        assertThat(batchRepository.findById(batch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(batch.getCurrentQuantity() - 1);
+    }
+
+    @Test
+    void createPurchaseOrder_returnConflict_whenKeyIsClaimedByAnotherRequest() throws Exception {
+        // Arrange
+        PurchaseOrderRequestDto request = getPurchaseOrderRequest(1);
+        postPurchaseOrder(request, "claimed").andExpect(status().isCreated());
+        IdempotencyRecord record = idempotencyRecordRepository.findAll().get(0);
+        record.setStatus(IdempotencyRecord.Status.PENDING);
+        record.setResponseBody(null);
+        record.setCreatedAt(LocalDateTime.now());
+        idempotencyRecordRepository.save(record);
+        idempotencyService.reload();
+
+        // Act
+        ResultActions response = postPurchaseOrder(request, "claimed");
+
+        // Assert
+        response.andExpect(status().isConflict());
+        assertThat(batchRepository.findById(batch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(batch.getCurrentQuantity() - 1);
+    }
+
+    @Test
+    void createPurchaseOrder_releaseKey_whenOperationFails() throws Exception {
+        // Arrange
+        postPurchaseOrder(getPurchaseOrderRequest(batch.getCurrentQuantity() + 1), "failed")
+                .andExpect(status().is4xxClientError());
+
+        // Act
+        ResultActions response = postPurchaseOrder(getPurchaseOrderRequest(1), "failed");
+
+        // Assert
+        response.andExpect(status().isCreated());
+        assertThat(idempotencyRecordRepository.findAll()).hasSize(1);
+        assertThat(idempotencyRecordRepository.findAll().get(0).getStatus()).isEqualTo(IdempotencyRecord.Status.DONE);
+    }
+
+    @Test
+    void createInboundOrder_replayFirstResponse_whenKeyIsRepeated() throws Exception {
+        // Arrange
+        InboundOrderRequestDto request = getValidInboundOrderRequestDto(section, getValidBatchRequest(product));
+        int quantityBatch = batchRepository.findAll().size();
+        postInboundOrder(request, "inbound-1").andExpect(status().isCreated());
+
+        // Act
+        ResultActions response = postInboundOrder(request, "inbound-1");
+
+        // Assert
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.batchStock.length()").value(1));
+        assertThat(batchRepository.findAll().size()).isEqualTo(quantityBatch + 1);
+    }
+
+    private PurchaseOrderRequestDto getPurchaseOrderRequest(int quantity) {
+        PurchaseOrderRequestDto request = new PurchaseOrderRequestDto();
+        request.setOrderStatus("Opened");
+        request.setBatch(new BatchPurchaseOrderRequestDto(batch.getBatchNumber(), quantity));
+        return request;
+    }
+
+    private ResultActions postPurchaseOrder(PurchaseOrderRequestDto request, String idempotencyKey) throws Exception {
+        var builder = post("/api/v1/fresh-products/orders")
+                .header("Buyer-Id", buyer.getBuyerId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(request));
+        if (idempotencyKey != null) builder.header("Idempotency-Key", idempotencyKey);
+        return mockMvc.perform(builder);
+    }
+
+    private ResultActions postInboundOrder(InboundOrderRequestDto request, String idempotencyKey) throws Exception {
+        return mockMvc.perform(post("/api/v1/fresh-products/inboundorder")
+                .header("Manager-Id", manager.getManagerId())
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(request)));
+    }
+}
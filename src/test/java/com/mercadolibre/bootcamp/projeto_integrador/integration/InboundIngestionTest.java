@@ -0,0 +1,172 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class InboundIngestionTest extends BaseControllerTest {
+    private static final String STREAM_URL = "/api/v1/fresh-products/inboundorder/stream";
+
+    private Manager manager;
+    private Section section;
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        manager = getSavedManager();
+        section = getSavedFreshSection(getSavedWarehouse(), manager);
+        product = getSavedFreshProduct();
+    }
+
+    @Test
+    void ingest_insertAllBatches_whenIsGivenNdjson() throws Exception {
+        // Arrange
+        String body = asJsonString(getValidBatchRequest(product)) + "\n"
+                + asJsonString(getValidBatchRequest(product)) + "\n\n"
+                + asJsonString(getValidBatchRequest(product)) + "\n";
+
+        // Act
+        mockMvc.perform(post(STREAM_URL)
+                        .param("sectionCode", String.valueOf(section.getSectionCode()))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.sectionCode").value(section.getSectionCode()));
+
+        // Assert
+        List<Batch> batches = batchRepository.findAll();
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(0).getCurrentQuantity()).isEqualTo(batches.get(0).getInitialQuantity());
+        assertThat(batches.get(0).getProduct().getProductId()).isEqualTo(product.getProductId());
+        assertThat(inboundOrderRepository.count()).isEqualTo(1);
+        assertThat(sectionRepository.findById(section.getSectionCode()).get().getCurrentBatches())
+                .isEqualTo(section.getCurrentBatches() + 3);
+    }
+
+    @Test
+    void ingest_insertAllBatches_whenIsGivenGzipCsv() throws Exception {
+        // Arrange
+        String body = "productId,currentTemperature,minimumTemperature,initialQuantity,manufacturingDate,"
+                + "manufacturingTime,dueDate,productPrice\n"
+                + toCsvLine(getValidBatchRequest(product)) + "\n"
+                + toCsvLine(getValidBatchRequest(product)) + "\n";
+
+        // Act
+        mockMvc.perform(post(STREAM_URL)
+                        .param("sectionCode", String.valueOf(section.getSectionCode()))
+                        .header("Manager-Id", manager.getManagerId())
+                        .header("Content-Encoding", "gzip")
+                        .contentType("text/csv")
+                        .content(gzip(body)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.rows").value(2));
+
+        // Assert
+        assertThat(batchRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    void ingest_returnBadRequestAndInsertNothing_whenALineIsInvalid() throws Exception {
+        // Arrange
+        String body = asJsonString(getValidBatchRequest(product)) + "\n"
+                + asJsonString(getInvalidBatchRequestDto(product)) + "\n";
+
+        // Act
+        mockMvc.perform(post(STREAM_URL)
+                        .param("sectionCode", String.valueOf(section.getSectionCode()))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Line 2")));
+
+        // Assert
+        assertThat(batchRepository.findAll()).isEmpty();
+        assertThat(inboundOrderRepository.count()).isZero();
+        assertThat(sectionRepository.findById(section.getSectionCode()).get().getCurrentBatches())
+                .isEqualTo(section.getCurrentBatches());
+    }
+
+    @Test
+    void ingest_returnBadRequestAndInsertNothing_whenSectionHasNoSpace() throws Exception {
+        // Arrange
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= section.getMaxBatches(); i++) {
+            body.append(asJsonString(getValidBatchRequest(product))).append("\n");
+        }
+
+        // Act
+        mockMvc.perform(post(STREAM_URL)
+                        .param("sectionCode", String.valueOf(section.getSectionCode()))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType("application/x-ndjson")
+                        .content(body.toString()))
+                .andExpect(status().isBadRequest());
+
+        // Assert
+        assertThat(batchRepository.findAll()).isEmpty();
+        assertThat(inboundOrderRepository.count()).isZero();
+    }
+
+    @Test
+    void ingest_returnForbidden_whenManagerIsNotFromSection() throws Exception {
+        // Arrange
+        Manager forbiddenManager = getSavedManager();
+
+        // Act
+        mockMvc.perform(post(STREAM_URL)
+                        .param("sectionCode", String.valueOf(section.getSectionCode()))
+                        .header("Manager-Id", forbiddenManager.getManagerId())
+                        .contentType("application/x-ndjson")
+                        .content(asJsonString(getValidBatchRequest(product))))
+                .andExpect(status().isForbidden());
+
+        // Assert
+        assertThat(batchRepository.findAll()).isEmpty();
+    }
+
+    private String toCsvLine(BatchRequestDto batch) {
+        return String.join(",",
+                String.valueOf(batch.getProductId()),
+                String.valueOf(batch.getCurrentTemperature()),
+                String.valueOf(batch.getMinimumTemperature()),
+                String.valueOf(batch.getInitialQuantity()),
+                batch.getManufacturingDate().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")),
+                batch.getManufacturingTime().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss")),
+                batch.getDueDate().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")),
+                batch.getProductPrice().toPlainString());
+    }
+
+    private byte[] gzip(String body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,136 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderJobDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IInboundOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest(properties = "inbound-ingest.batch-size=2")
+@AutoConfigureMockMvc
+@ResetDatabase
+class InboundOrderAsyncTest extends BaseControllerTest {
+    private static final String ASYNC_URL = "/api/v1/fresh-products/inboundorder/async";
+
+    @Autowired
+    private IInboundOrderService inboundOrderService;
+
+    private Manager manager;
+    private Section section;
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        manager = getSavedManager();
+        section = getSavedFreshSection(getSavedWarehouse(), manager);
+        product = getSavedFreshProduct();
+    }
+
+    @Test
+    void enqueueInboundOrder_returnAcceptedAndInsertBatchesInBackground() throws Exception {
+        // Arrange
+        InboundOrderRequestDto request = getValidInboundOrderRequestDto(section, getValidBatchRequest(product),
+                getValidBatchRequest(product), getValidBatchRequest(product));
+
+        // Act
+        MvcResult result = mockMvc.perform(post(ASYNC_URL)
+                        .content(asJsonString(request))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.rows").value(3))
+                .andReturn();
+        String jobId = objectMapper.readValue(result.getResponse().getContentAsString(), InboundOrderJobDto.class).getJobId();
+        InboundOrderJobDto job = awaitFinished(jobId);
+
+        // Assert
+        assertThat(job.getStatus()).isEqualTo(InboundOrderJobDto.Status.DONE);
+        List<Batch> batches = batchRepository.findAll();
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(0).getCurrentQuantity()).isEqualTo(batches.get(0).getInitialQuantity());
+        assertThat(inboundOrderRepository.findById(job.getOrderNumber())).isPresent();
+        assertThat(sectionRepository.findById(section.getSectionCode()).get().getCurrentBatches())
+                .isEqualTo(section.getCurrentBatches() + 3);
+
+        mockMvc.perform(get(result.getResponse().getHeader("Location"))
+                        .header("Manager-Id", manager.getManagerId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.orderNumber").value(job.getOrderNumber()));
+    }
+
+    @Test
+    void enqueueInboundOrder_returnForbiddenWithoutQueueing_whenManagerIsNotFromSection() throws Exception {
+        // Arrange
+        Manager forbiddenManager = getSavedManager();
+
+        // Act & Assert
+        mockMvc.perform(post(ASYNC_URL)
+                        .content(asJsonString(getValidInboundOrderRequestDto(section, getValidBatchRequest(product))))
+                        .header("Manager-Id", forbiddenManager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+        assertThat(inboundOrderRepository.count()).isZero();
+    }
+
+    @Test
+    void enqueueInboundOrder_returnBadRequest_whenSectionHasNoSpace() throws Exception {
+        // Arrange
+        Section smallSection = getSavedFreshSection(getSavedWarehouse(), manager, 1);
+        InboundOrderRequestDto request = getValidInboundOrderRequestDto(smallSection, getValidBatchRequest(product),
+                getValidBatchRequest(product));
+
+        // Act & Assert
+        mockMvc.perform(post(ASYNC_URL)
+                        .content(asJsonString(request))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        assertThat(batchRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void getInboundOrderJob_returnNotFound_whenJobIsFromAnotherManager() throws Exception {
+        // Arrange
+        Manager otherManager = getSavedManager();
+        InboundOrderJobDto job = inboundOrderService.enqueue(
+                getValidInboundOrderRequestDto(section, getValidBatchRequest(product)), manager.getManagerId());
+        awaitFinished(job.getJobId());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/fresh-products/inboundorder/jobs/" + job.getJobId())
+                        .header("Manager-Id", otherManager.getManagerId()))
+                .andExpect(status().isNotFound());
+    }
+
+    private InboundOrderJobDto awaitFinished(String jobId) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        InboundOrderJobDto job = inboundOrderService.getJob(jobId, manager.getManagerId());
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < timeout) {
+            Thread.sleep(20);
+            job = inboundOrderService.getJob(jobId, manager.getManagerId());
+        }
+        return job;
+    }
+}
@@ -0,0 +1,119 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SectionSlotHints;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.MaxSizeException;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IInboundOrderService;
+import com.mercadolibre.bootcamp.projeto_integrador.util.SectionGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Vários representantes enviam ordens de entrada para a mesma seção ao mesmo tempo; a seção nunca pode receber mais
+ * lotes do que maxBatches.
+ */
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class InboundOrderConcurrencyTest extends BaseControllerTest {
+    private static final int MAX_BATCHES = 5;
+    private static final int ORDERS = 12;
+
+    @Autowired
+    private IInboundOrderService inboundOrderService;
+    @Autowired
+    private SectionSlotHints slotHints;
+
+    private Manager manager;
+    private Section section;
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        manager = getSavedManager();
+        // A seção começa vazia: todos os MAX_BATCHES slots ficam livres para as ordens do teste.
+        section = SectionGenerator.getFreshSection(getSavedWarehouse(), manager);
+        section.setCurrentBatches(0);
+        section.setMaxBatches(MAX_BATCHES);
+        sectionRepository.save(section);
+        product = getSavedFreshProduct();
+    }
+
+    @Test
+    void create_neverExceedMaxBatches_whenOrdersArriveConcurrently() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(ORDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inboundOrderService.create(getRequest(), manager.getManagerId());
+                    created.incrementAndGet();
+                } catch (MaxSizeException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        try {
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertThat(created.get()).isEqualTo(MAX_BATCHES);
+        assertThat(rejected.get()).isEqualTo(ORDERS - MAX_BATCHES);
+        assertThat(batchRepository.findAll()).hasSize(MAX_BATCHES);
+        assertThat(sectionRepository.findById(section.getSectionCode()).get().getCurrentBatches()).isEqualTo(MAX_BATCHES);
+    }
+
+    @Test
+    void create_rememberFullSection_afterRejection() {
+        // Arrange
+        for (int i = 0; i < MAX_BATCHES; i++) {
+            inboundOrderService.create(getRequest(), manager.getManagerId());
+        }
+
+        // Act
+        assertThrows(MaxSizeException.class, () -> inboundOrderService.create(getRequest(), manager.getManagerId()));
+
+        // Assert
+        assertThat(slotHints.mayFit(section.getSectionCode(), 1)).isFalse();
+        assertThrows(MaxSizeException.class, () -> inboundOrderService.create(getRequest(), manager.getManagerId()));
+        assertThat(inboundOrderRepository.count()).isEqualTo(MAX_BATCHES);
+    }
+
+    private InboundOrderRequestDto getRequest() {
+        return getValidInboundOrderRequestDto(section, getValidBatchRequest(product));
+    }
+}
@@ -0,0 +1,15 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Planos de execução no H2 em modo de compatibilidade com MySQL, com o schema criado pelas migrations do Flyway e
+ * validado pelo Hibernate.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:mysql_mode;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class MySqlModeBatchRepositoryQueryPlanTest extends BatchRepositoryQueryPlanTest {
+}
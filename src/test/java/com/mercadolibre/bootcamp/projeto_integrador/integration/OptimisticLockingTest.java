@@ -0,0 +1,83 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class OptimisticLockingTest extends BaseControllerTest {
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Section section;
+    private Batch batch;
+
+    @BeforeEach
+    void setup() {
+        section = getSavedFreshSection(getSavedWarehouse(), getSavedManager());
+        batch = getSavedBatch(LocalDate.now().plusDays(30), getSavedFreshProduct(), getSavedInboundOrder(section));
+    }
+
+    @Test
+    void save_throwOptimisticLockingFailure_whenBatchWasUpdatedAfterRead() {
+        // Arrange
+        Batch staleBatch = batchRepository.findById(batch.getBatchNumber()).get();
+        Batch currentBatch = batchRepository.findById(batch.getBatchNumber()).get();
+        currentBatch.setCurrentQuantity(currentBatch.getCurrentQuantity() - 1);
+        batchRepository.save(currentBatch);
+
+        // Act
+        staleBatch.setCurrentQuantity(staleBatch.getCurrentQuantity() + 1);
+
+        // Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> batchRepository.save(staleBatch));
+        assertThat(batchRepository.findById(batch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(currentBatch.getCurrentQuantity());
+    }
+
+    @Test
+    void save_throwOptimisticLockingFailure_whenSectionWasUpdatedAfterRead() {
+        // Arrange
+        Section staleSection = sectionRepository.findById(section.getSectionCode()).get();
+        Section currentSection = sectionRepository.findById(section.getSectionCode()).get();
+        currentSection.setCurrentBatches(currentSection.getCurrentBatches() + 1);
+        sectionRepository.save(currentSection);
+
+        // Act
+        staleSection.setCurrentBatches(staleSection.getCurrentBatches() + 1);
+
+        // Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sectionRepository.save(staleSection));
+    }
+
+    @Test
+    void decrementStock_incrementVersion() {
+        // Arrange
+        long version = batchRepository.findById(batch.getBatchNumber()).get().getVersion();
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                batchRepository.decrementStock(batch.getBatchNumber(), 1, LocalDate.now()));
+
+        // Assert
+        Batch updatedBatch = batchRepository.findById(batch.getBatchNumber()).get();
+        assertThat(updatedBatch.getVersion()).isEqualTo(version + 1);
+        assertThat(updatedBatch.getCurrentQuantity()).isEqualTo(batch.getCurrentQuantity() - 1);
+    }
+}
@@ -16,6 +16,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -155,4 +156,29 @@ class ProductControllerTest extends BaseControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message", containsString("Parâmetro de ordenação inválido")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProductDetails_runSameNumberOfStatements_regardlessOfNumberOfBatches() throws Exception {
+        getSavedBatch(product, getSavedInboundOrder(section));
+        long statementsForOneBatch = countStatementsOfGetProductDetails(1);
+
+        for (int i = 0; i < 4; i++) {
+            Section newSection = getSavedSection(getSavedWarehouseWithoutCode(), manager, Section.Category.FROZEN);
+            getSavedBatch(product, getSavedInboundOrder(newSection));
+        }
+        long statementsForFiveBatches = countStatementsOfGetProductDetails(5);
+
+        assertEquals(statementsForOneBatch, statementsForFiveBatches);
+    }
+
+    private long countStatementsOfGetProductDetails(int expectedBatches) throws Exception {
+        referenceData.reload();
+        getStatistics().clear();
+        mockMvc.perform(get("/api/v1/fresh-products/list")
+                        .param("productId", String.valueOf(product.getProductId()))
+                        .header("Manager-Id", manager.getManagerId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.batchStock", hasSize(expectedBatches)));
+        return getStatistics().getPrepareStatementCount();
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -94,4 +95,48 @@ class ProductGetWarehousesTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.productId").value(product2.getProductId()))
                 .andExpect(jsonPath("$.warehouses.length()").value(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getWarehouses_returnAllProducts_whenGivenProductIds() throws Exception {
+        mockMvc.perform(get("/api/v1/fresh-products/warehouse")
+                .param("productIds", product2.getProductId() + "," + product1.getProductId())
+                .header("Manager-Id", manager.getManagerId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productId").value(product2.getProductId()))
+                .andExpect(jsonPath("$[0].warehouses.length()").value(0))
+                .andExpect(jsonPath("$[1].productId").value(product1.getProductId()))
+                .andExpect(jsonPath("$[1].warehouses.length()").value(3));
+    }
+
+    @Test
+    void getWarehouses_returnNotFoundException_whenAnyOfProductIdsNotExists() throws Exception {
+        mockMvc.perform(get("/api/v1/fresh-products/warehouse")
+                .param("productIds", product1.getProductId() + "," + (product1.getProductId() + 1000))
+                .header("Manager-Id", manager.getManagerId()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.name", containsString("Product")));
+    }
+
+    @Test
+    void getWarehouses_runSameNumberOfStatements_regardlessOfNumberOfBatches() throws Exception {
+        long statementsForThreeWarehouses = countStatementsOfGetWarehouses();
+
+        Section section = getSavedSection(getSavedWarehouseWithoutCode(), manager, product1.getCategory());
+        service.create(getValidInboundOrderRequestDtoWithBatchList(section, getValidListBatchRequest(product1)),
+                manager.getManagerId());
+        long statementsForFourWarehouses = countStatementsOfGetWarehouses();
+
+        assertThat(statementsForFourWarehouses).isEqualTo(statementsForThreeWarehouses);
+    }
+
+    private long countStatementsOfGetWarehouses() throws Exception {
+        referenceData.reload();
+        getStatistics().clear();
+        mockMvc.perform(get("/api/v1/fresh-products/warehouse")
+                .param("productId", String.valueOf(product1.getProductId()))
+                .header("Manager-Id", manager.getManagerId()))
+                .andExpect(status().isOk());
+        return getStatistics().getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,119 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class ProductPurchaseOrderTest extends BaseControllerTest {
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private SellableStockIndex stockIndex;
+
+    private Buyer buyer;
+    private Product product;
+    private Batch expiringBatch;
+    private Batch firstBatch;
+    private Batch secondBatch;
+
+    @BeforeEach
+    void setup() {
+        InboundOrder inboundOrder = getSavedInboundOrder(getSavedFreshSection(getSavedWarehouse(), getSavedManager()));
+        product = getSavedFreshProduct();
+        // Criados fora da ordem de validade, para que a alocação não dependa do número do lote.
+        secondBatch = getSavedBatch(LocalDate.now().plusDays(40), product, inboundOrder);
+        expiringBatch = getSavedBatch(LocalDate.now().plusDays(10), product, inboundOrder);
+        firstBatch = getSavedBatch(LocalDate.now().plusDays(30), product, inboundOrder);
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("fefoBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void createPurchaseOrderByProduct_splitQuantityFirstExpireFirstOut() throws Exception {
+        // Arrange
+        int quantity = firstBatch.getCurrentQuantity() + 2;
+        BigDecimal expectedTotal = firstBatch.getProductPrice().multiply(new BigDecimal(firstBatch.getCurrentQuantity()))
+                .add(secondBatch.getProductPrice().multiply(new BigDecimal(2)));
+
+        // Act
+        ResultActions response = postByProduct(new ProductPurchaseOrderRequestDto("Opened", product.getProductId(), quantity));
+
+        // Assert
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalPrice").value(expectedTotal.doubleValue()))
+                .andExpect(jsonPath("$.batches.length()").value(2))
+                .andExpect(jsonPath("$.batches[0].batchNumber").value(secondBatch.getBatchNumber()))
+                .andExpect(jsonPath("$.batches[0].quantity").value(2))
+                .andExpect(jsonPath("$.batches[1].batchNumber").value(firstBatch.getBatchNumber()))
+                .andExpect(jsonPath("$.batches[1].quantity").value(firstBatch.getCurrentQuantity()));
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity()).isZero();
+        assertThat(batchRepository.findById(secondBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(secondBatch.getCurrentQuantity() - 2);
+        assertThat(batchRepository.findById(expiringBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(expiringBatch.getCurrentQuantity());
+    }
+
+    @Test
+    void createPurchaseOrderByProduct_returnBadRequest_whenSellableBatchesDoNotCoverQuantity() throws Exception {
+        // Arrange
+        int quantity = firstBatch.getCurrentQuantity() + secondBatch.getCurrentQuantity() + 1;
+
+        // Act
+        ResultActions response = postByProduct(new ProductPurchaseOrderRequestDto("Opened", product.getProductId(), quantity));
+
+        // Assert
+        response.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.name").value("Product"));
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+    }
+
+    @Test
+    void createPurchaseOrderByProduct_allocateFromDatabase_whenIndexIsStale() throws Exception {
+        // Arrange
+        Batch soldOut = batchRepository.findById(firstBatch.getBatchNumber()).get();
+        soldOut.setCurrentQuantity(0);
+        batchRepository.save(soldOut);
+
+        // Act
+        ResultActions response = postByProduct(new ProductPurchaseOrderRequestDto("Opened", product.getProductId(), 1));
+
+        // Assert
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.batches[0].batchNumber").value(secondBatch.getBatchNumber()));
+    }
+
+    private ResultActions postByProduct(ProductPurchaseOrderRequestDto request) throws Exception {
+        return mockMvc.perform(post("/api/v1/fresh-products/orders/by-product")
+                .header("Buyer-Id", buyer.getBuyerId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(request)));
+    }
+}
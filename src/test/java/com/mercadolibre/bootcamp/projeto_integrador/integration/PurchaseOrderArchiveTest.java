@@ -0,0 +1,150 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.PurchaseOrderAlreadyClosedException;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.ArchivedPurchaseOrderLine;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IPurchaseOrderArchiveRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IPurchaseOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class PurchaseOrderArchiveTest extends BaseControllerTest {
+    @Autowired
+    private IPurchaseOrderService purchaseOrderService;
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IPurchaseOrderRepository purchaseOrderRepository;
+    @Autowired
+    private IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
+    @Autowired
+    private IPurchaseOrderArchiveRepository purchaseOrderArchiveRepository;
+    @Autowired
+    private SellableStockIndex stockIndex;
+
+    private Buyer buyer;
+    private Product product;
+    private Batch firstBatch;
+    private Batch secondBatch;
+
+    @BeforeEach
+    void setup() {
+        InboundOrder inboundOrder = getSavedInboundOrder(getSavedFreshSection(getSavedWarehouse(), getSavedManager()));
+        product = getSavedFreshProduct();
+        firstBatch = getSavedBatch(LocalDate.now().plusDays(30), product, inboundOrder);
+        secondBatch = getSavedBatch(LocalDate.now().plusDays(40), product, inboundOrder);
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("archiveBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void update_moveClosedOrderToArchive() {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2, "Opened"), buyer.getBuyerId());
+        long purchaseId = purchaseOrderService.create(getRequest(secondBatch, 1, "Opened"), buyer.getBuyerId()).getPurchaseOrderId();
+
+        // Act
+        purchaseOrderService.update(purchaseId, buyer.getBuyerId());
+
+        // Assert
+        assertThat(purchaseOrderRepository.count()).isZero();
+        assertThat(batchPurchaseOrderRepository.count()).isZero();
+        List<ArchivedPurchaseOrderLine> archivedLines = purchaseOrderArchiveRepository.findByPurchaseIdOrderByArchiveLineId(purchaseId);
+        assertThat(archivedLines).hasSize(2);
+        ArchivedPurchaseOrderLine firstLine = archivedLines.get(0);
+        assertThat(firstLine.getBuyerId()).isEqualTo(buyer.getBuyerId());
+        assertThat(firstLine.getBatchNumber()).isEqualTo(firstBatch.getBatchNumber());
+        assertThat(firstLine.getProductName()).isEqualTo(product.getProductName());
+        assertThat(firstLine.getUnitPrice()).isEqualByComparingTo(firstBatch.getProductPrice());
+        assertThat(firstLine.getQuantity()).isEqualTo(2);
+        assertThat(firstLine.getClosedAt()).isNotNull();
+    }
+
+    @Test
+    void update_throwAlreadyClosed_whenOrderIsArchived() {
+        // Arrange
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 1, "Opened"), buyer.getBuyerId()).getPurchaseOrderId();
+        purchaseOrderService.update(purchaseId, buyer.getBuyerId());
+
+        // Act & Assert
+        assertThrows(PurchaseOrderAlreadyClosedException.class, () -> purchaseOrderService.update(purchaseId, buyer.getBuyerId()));
+    }
+
+    @Test
+    void update_throwBadRequestAndKeepOrderOpen_whenOrderIsEmpty() {
+        // Arrange
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 1, "Opened"), buyer.getBuyerId()).getPurchaseOrderId();
+        purchaseOrderService.dropProducts(purchaseId, new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 1), buyer.getBuyerId());
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> purchaseOrderService.update(purchaseId, buyer.getBuyerId()));
+        assertThat(purchaseOrderRepository.findById(purchaseId).get().getOrderStatus()).isEqualTo("Opened");
+        assertThat(purchaseOrderArchiveRepository.findByPurchaseIdOrderByArchiveLineId(purchaseId)).isEmpty();
+    }
+
+    @Test
+    void create_archiveOrder_whenStatusIsClosed() {
+        // Act
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 1, "Closed"), buyer.getBuyerId()).getPurchaseOrderId();
+
+        // Assert
+        assertThat(purchaseOrderRepository.existsById(purchaseId)).isFalse();
+        assertThat(purchaseOrderArchiveRepository.findByPurchaseIdOrderByArchiveLineId(purchaseId)).hasSize(1);
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity() - 1);
+    }
+
+    @Test
+    void getProductsPurchaseOrder_readArchivedOrder() throws Exception {
+        // Arrange
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 3, "Opened"), buyer.getBuyerId()).getPurchaseOrderId();
+        purchaseOrderService.update(purchaseId, buyer.getBuyerId());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/fresh-products/orders")
+                        .header("Buyer-Id", buyer.getBuyerId())
+                        .param("purchaseOrderId", String.valueOf(purchaseId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].batchNumber").value(firstBatch.getBatchNumber()))
+                .andExpect(jsonPath("$[0].productName").value(product.getProductName()))
+                .andExpect(jsonPath("$[0].quantity").value(3));
+    }
+
+    private PurchaseOrderRequestDto getRequest(Batch batch, int quantity, String orderStatus) {
+        PurchaseOrderRequestDto request = new PurchaseOrderRequestDto();
+        request.setOrderStatus(orderStatus);
+        request.setBatch(new BatchPurchaseOrderRequestDto(batch.getBatchNumber(), quantity));
+        return request;
+    }
+}
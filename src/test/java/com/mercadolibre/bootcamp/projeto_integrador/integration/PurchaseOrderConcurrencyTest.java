@@ -0,0 +1,127 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BatchOutOfStockException;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Section;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IPurchaseOrderService;
+import com.mercadolibre.bootcamp.projeto_integrador.util.BatchGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vários compradores disputam o mesmo lote ao mesmo tempo; o estoque nunca pode ficar negativo nem divergir da soma
+ * das quantidades nos carrinhos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class PurchaseOrderConcurrencyTest extends BaseControllerTest {
+    private static final int BUYERS = 8;
+    private static final int PURCHASES_PER_BUYER = 25;
+    private static final int STOCK = 60;
+
+    @Autowired
+    private IPurchaseOrderService purchaseOrderService;
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
+    @Autowired
+    private SellableStockIndex stockIndex;
+
+    private Batch batch;
+    private List<Buyer> buyers;
+
+    @BeforeEach
+    void setup() {
+        Section section = getSavedFreshSection(getSavedWarehouse(), getSavedManager());
+        Batch newBatch = BatchGenerator.newBatch(LocalDate.now().plusDays(30), getSavedFreshProduct(),
+                getSavedInboundOrder(section));
+        newBatch.setInitialQuantity(STOCK);
+        newBatch.setCurrentQuantity(STOCK);
+        batch = batchRepository.save(newBatch);
+        stockIndex.reload();
+
+        buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Buyer buyer = new Buyer();
+            buyer.setUsername("buyer" + i);
+            buyers.add(buyerRepository.save(buyer));
+        }
+    }
+
+    @Test
+    void create_neverSellMoreThanStock_whenBuyersPurchaseConcurrently() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (Buyer buyer : buyers) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_BUYER; i++) {
+                    try {
+                        purchaseOrderService.create(getPurchaseRequest(), buyer.getBuyerId());
+                        sold.incrementAndGet();
+                    } catch (BatchOutOfStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        try {
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        int remaining = batchRepository.findById(batch.getBatchNumber()).get().getCurrentQuantity();
+        int inCarts = batchPurchaseOrderRepository.findAll().stream()
+                .mapToInt(BatchPurchaseOrder::getQuantity)
+                .sum();
+        assertThat(sold.get() + rejected.get()).isEqualTo(BUYERS * PURCHASES_PER_BUYER);
+        assertThat(sold.get()).isPositive();
+        assertThat(remaining).isGreaterThanOrEqualTo(0);
+        assertThat(STOCK - remaining).isEqualTo(sold.get());
+        assertThat(inCarts).isEqualTo(sold.get());
+    }
+
+    private PurchaseOrderRequestDto getPurchaseRequest() {
+        PurchaseOrderRequestDto request = new PurchaseOrderRequestDto();
+        request.setOrderStatus("Opened");
+        request.setBatch(new BatchPurchaseOrderRequestDto(batch.getBatchNumber(), 1));
+        return request;
+    }
+}
@@ -0,0 +1,123 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderReconciliationDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.PurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IPurchaseOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ResetDatabase
+class PurchaseOrderTotalsTest extends BaseControllerTest {
+    @Autowired
+    private IPurchaseOrderService purchaseOrderService;
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IPurchaseOrderRepository purchaseOrderRepository;
+    @Autowired
+    private SellableStockIndex stockIndex;
+
+    private Buyer buyer;
+    private Batch firstBatch;
+    private Batch secondBatch;
+
+    @BeforeEach
+    void setup() {
+        InboundOrder inboundOrder = getSavedInboundOrder(getSavedFreshSection(getSavedWarehouse(), getSavedManager()));
+        Product product = getSavedFreshProduct();
+        firstBatch = getSavedBatch(LocalDate.now().plusDays(30), product, inboundOrder);
+        secondBatch = getSavedBatch(LocalDate.now().plusDays(40), product, inboundOrder);
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("totalsBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void create_keepRunningTotalAndLineCount() {
+        // Act
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        purchaseOrderService.create(getRequest(secondBatch, 1), buyer.getBuyerId());
+        PurchaseOrderResponseDto response = purchaseOrderService.create(getRequest(firstBatch, 1), buyer.getBuyerId());
+
+        // Assert
+        BigDecimal expectedTotal = firstBatch.getProductPrice().multiply(new BigDecimal(3))
+                .add(secondBatch.getProductPrice());
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findById(response.getPurchaseOrderId()).get();
+        assertThat(response.getTotalPrice()).isEqualByComparingTo(expectedTotal);
+        assertThat(purchaseOrder.getTotalPrice()).isEqualByComparingTo(expectedTotal);
+        assertThat(purchaseOrder.getLineCount()).isEqualTo(2);
+    }
+
+    @Test
+    void dropProducts_subtractLineFromRunningTotal() {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        long purchaseId = purchaseOrderService.create(getRequest(secondBatch, 1), buyer.getBuyerId()).getPurchaseOrderId();
+
+        // Act
+        purchaseOrderService.dropProducts(purchaseId, new BatchPurchaseOrderRequestDto(firstBatch.getBatchNumber(), 0),
+                buyer.getBuyerId());
+
+        // Assert
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findById(purchaseId).get();
+        assertThat(purchaseOrder.getTotalPrice()).isEqualByComparingTo(secondBatch.getProductPrice());
+        assertThat(purchaseOrder.getLineCount()).isEqualTo(1);
+        assertThat(purchaseOrderService.update(purchaseId, buyer.getBuyerId()).getTotalPrice())
+                .isEqualByComparingTo(secondBatch.getProductPrice());
+    }
+
+    @Test
+    void reconcileTotals_fixStoredTotal_whenItDivergesFromLines() {
+        // Arrange
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId()).getPurchaseOrderId();
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findById(purchaseId).get();
+        purchaseOrder.setTotalPrice(BigDecimal.ONE);
+        purchaseOrder.setLineCount(5);
+        purchaseOrderRepository.save(purchaseOrder);
+
+        // Act
+        List<PurchaseOrderReconciliationDto> mismatches = purchaseOrderService.reconcileTotals();
+
+        // Assert
+        assertThat(mismatches).hasSize(1);
+        assertThat(mismatches.get(0).getPurchaseId()).isEqualTo(purchaseId);
+        assertThat(mismatches.get(0).getStoredTotalPrice()).isEqualByComparingTo(BigDecimal.ONE);
+        PurchaseOrder reconciled = purchaseOrderRepository.findById(purchaseId).get();
+        assertThat(reconciled.getTotalPrice())
+                .isEqualByComparingTo(firstBatch.getProductPrice().multiply(new BigDecimal(2)));
+        assertThat(reconciled.getLineCount()).isEqualTo(1);
+        assertThat(purchaseOrderService.reconcileTotals()).isEmpty();
+    }
+
+    private PurchaseOrderRequestDto getRequest(Batch batch, int quantity) {
+        PurchaseOrderRequestDto request = new PurchaseOrderRequestDto();
+        request.setOrderStatus("Opened");
+        request.setBatch(new BatchPurchaseOrderRequestDto(batch.getBatchNumber(), quantity));
+        return request;
+    }
+}
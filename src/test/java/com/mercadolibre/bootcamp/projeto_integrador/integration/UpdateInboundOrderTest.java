@@ -5,6 +5,7 @@ import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderRequestDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.InboundOrderResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
 import com.mercadolibre.bootcamp.projeto_integrador.model.*;
+import com.mercadolibre.bootcamp.projeto_integrador.util.BatchGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -12,6 +13,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -79,6 +81,90 @@ public class UpdateInboundOrderTest extends BaseControllerTest {
         assertThat(currentBatch.getCurrentTemperature()).isEqualTo(oldBatch.getCurrentTemperature() + 1);
     }
 
+    @Test
+    void updateInboundOrder_doesNotWriteBatch_whenBatchIsUnchanged() throws Exception {
+        // Arrange
+        BatchRequestDto batchRequest = getValidBatchRequest(freshProduct);
+        Batch savedBatch = getSavedBatchWithProduct(batchRequest);
+        batchRequest.setBatchNumber(savedBatch.getBatchNumber());
+        batchRequest.setProductPrice(savedBatch.getProductPrice().setScale(2));
+        long sectionVersion = sectionRepository.findById(freshSection.getSectionCode()).get().getVersion();
+
+        // Act
+        mockMvc.perform(put("/api/v1/fresh-products/inboundorder")
+                        .param("orderNumber", "" + orderNumber)
+                        .content(asJsonString(getValidInboundOrderRequestDto(freshSection, batchRequest)))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changedBatches").value(0))
+                .andExpect(jsonPath("$.batchStock[0].batchNumber").value(savedBatch.getBatchNumber()));
+
+        // Assert
+        Batch currentBatch = batchRepository.findById(savedBatch.getBatchNumber()).get();
+        assertThat(currentBatch.getVersion()).isEqualTo(savedBatch.getVersion());
+        assertThat(sectionRepository.findById(freshSection.getSectionCode()).get().getVersion()).isEqualTo(sectionVersion);
+    }
+
+    @Test
+    void updateInboundOrder_writesOnlyChangedBatches_whenSomeBatchesAreUnchanged() throws Exception {
+        // Arrange
+        BatchRequestDto unchangedRequest = getValidBatchRequest(freshProduct);
+        Batch unchangedBatch = getSavedBatchWithProduct(unchangedRequest);
+        unchangedRequest.setBatchNumber(unchangedBatch.getBatchNumber());
+
+        BatchRequestDto changedRequest = getValidBatchRequest(freshProduct);
+        Batch changedBatch = getSavedBatchWithProduct(changedRequest);
+        changedRequest.setBatchNumber(changedBatch.getBatchNumber());
+        changedRequest.setInitialQuantity(changedBatch.getInitialQuantity() + 5);
+
+        BatchRequestDto newRequest = getValidBatchRequest(freshProduct);
+        InboundOrderRequestDto request =
+                getValidInboundOrderRequestDto(freshSection, unchangedRequest, changedRequest, newRequest);
+
+        // Act
+        mockMvc.perform(put("/api/v1/fresh-products/inboundorder")
+                        .param("orderNumber", "" + orderNumber)
+                        .content(asJsonString(request))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changedBatches").value(2))
+                .andExpect(jsonPath("$.batchStock.length()").value(3));
+
+        // Assert
+        assertThat(batchRepository.findById(unchangedBatch.getBatchNumber()).get().getVersion())
+                .isEqualTo(unchangedBatch.getVersion());
+        Batch currentBatch = batchRepository.findById(changedBatch.getBatchNumber()).get();
+        assertThat(currentBatch.getVersion()).isEqualTo(changedBatch.getVersion() + 1);
+        assertThat(currentBatch.getInitialQuantity()).isEqualTo(changedBatch.getInitialQuantity() + 5);
+        assertThat(currentBatch.getCurrentQuantity()).isEqualTo(changedBatch.getCurrentQuantity() + 5);
+        assertThat(currentBatch.getProductPrice()).isEqualByComparingTo(changedBatch.getProductPrice());
+    }
+
+    @Test
+    void updateInboundOrder_returnsConflict_whenBatchVersionIsStale() throws Exception {
+        // Arrange
+        BatchRequestDto batchRequest = getValidBatchRequest(freshProduct);
+        Batch savedBatch = getSavedBatchWithProduct(batchRequest);
+        batchRequest.setBatchNumber(savedBatch.getBatchNumber());
+        batchRequest.setVersion(savedBatch.getVersion() + 1);
+        batchRequest.setInitialQuantity(savedBatch.getInitialQuantity() + 1);
+
+        // Act
+        mockMvc.perform(put("/api/v1/fresh-products/inboundorder")
+                        .param("orderNumber", "" + orderNumber)
+                        .content(asJsonString(getValidInboundOrderRequestDto(freshSection, batchRequest)))
+                        .header("Manager-Id", manager.getManagerId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+
+        // Assert
+        Batch currentBatch = batchRepository.findById(savedBatch.getBatchNumber()).get();
+        assertThat(currentBatch.getVersion()).isEqualTo(savedBatch.getVersion());
+        assertThat(currentBatch.getInitialQuantity()).isEqualTo(savedBatch.getInitialQuantity());
+    }
+
     @Test
     void updateInboundOrder_returnsOk_whenBatchNotExists() throws Exception {
         InboundOrderRequestDto requestDto = getValidInboundOrderRequestDto(freshSection, batchOfFreshRequestDto);
@@ -277,4 +363,13 @@ public class UpdateInboundOrderTest extends BaseControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("There is no product with the specified id"));
     }
+
+    private Batch getSavedBatchWithProduct(BatchRequestDto batchRequest) {
+        // O JSON da requisição só tem segundos: o horário salvo precisa ser igual ao que será enviado.
+        batchRequest.setManufacturingTime(batchRequest.getManufacturingTime().truncatedTo(ChronoUnit.SECONDS));
+        Batch batch = BatchGenerator.mapBatchRequestDtoToBatch(batchRequest);
+        batch.setProduct(freshProduct);
+        batch.setInboundOrder(savedFreshInboundOrder);
+        return batchRepository.save(batch);
+    }
 }
@@ -0,0 +1,200 @@
+package com.mercadolibre.bootcamp.projeto_integrador.integration;
+
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.cart.WriteBehindCartStore;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchPurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderRequestDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.PurchaseOrderResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.integration.listeners.ResetDatabase;
+import com.mercadolibre.bootcamp.projeto_integrador.model.ArchivedPurchaseOrderLine;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
+import com.mercadolibre.bootcamp.projeto_integrador.model.BatchPurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Buyer;
+import com.mercadolibre.bootcamp.projeto_integrador.model.InboundOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
+import com.mercadolibre.bootcamp.projeto_integrador.model.PurchaseOrder;
+import com.mercadolibre.bootcamp.projeto_integrador.model.WriteBehindCheckpoint;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IBuyerRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IPurchaseOrderArchiveRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IPurchaseOrderRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.repository.IWriteBehindCheckpointRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.service.IPurchaseOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("OptionalGetWithoutIsPresent")
+@SpringBootTest(properties = {
+        "cart.write-behind.enabled=true",
+        "cart.write-behind.flush-ms=600000",
+        "cart.write-behind.journal-path=" + WriteBehindCartTest.JOURNAL_FILE,
+        "cart.write-behind.instance-id=test"
+})
+@AutoConfigureMockMvc
+@ResetDatabase
+class WriteBehindCartTest extends BaseControllerTest {
+    static final String JOURNAL_FILE = "target/write-behind-cart-test.log";
+    private static final Path JOURNAL_PATH = Paths.get(JOURNAL_FILE);
+
+    @Autowired
+    private IPurchaseOrderService purchaseOrderService;
+    @Autowired
+    private IBuyerRepository buyerRepository;
+    @Autowired
+    private IPurchaseOrderRepository purchaseOrderRepository;
+    @Autowired
+    private IBatchPurchaseOrderRepository batchPurchaseOrderRepository;
+    @Autowired
+    private IPurchaseOrderArchiveRepository purchaseOrderArchiveRepository;
+    @Autowired
+    private WriteBehindCartStore cartStore;
+    @Autowired
+    private SellableStockIndex stockIndex;
+    @Autowired
+    private IWriteBehindCheckpointRepository checkpointRepository;
+
+    private Buyer buyer;
+    private Batch firstBatch;
+    private Batch secondBatch;
+
+    @BeforeEach
+    void setup() {
+        InboundOrder inboundOrder = getSavedInboundOrder(getSavedFreshSection(getSavedWarehouse(), getSavedManager()));
+        Product product = getSavedFreshProduct();
+        firstBatch = getSavedBatch(LocalDate.now().plusDays(30), product, inboundOrder);
+        secondBatch = getSavedBatch(LocalDate.now().plusDays(40), product, inboundOrder);
+        stockIndex.reload();
+
+        buyer = new Buyer();
+        buyer.setUsername("writeBehindBuyer");
+        buyerRepository.save(buyer);
+    }
+
+    @Test
+    void create_holdStockAndKeepLinesPending_untilFlush() {
+        // Act
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        PurchaseOrderResponseDto response = purchaseOrderService.create(getRequest(secondBatch, 1), buyer.getBuyerId());
+
+        // Assert
+        BigDecimal expectedTotal = firstBatch.getProductPrice().multiply(new BigDecimal(2)).add(secondBatch.getProductPrice());
+        assertThat(response.getTotalPrice()).isEqualByComparingTo(expectedTotal);
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity() - 2);
+        assertThat(batchPurchaseOrderRepository.count()).isZero();
+        assertThat(cartStore.size()).isEqualTo(2);
+
+        assertThat(purchaseOrderService.flushPendingCarts()).isEqualTo(2);
+        assertThat(batchPurchaseOrderRepository.count()).isEqualTo(2);
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findById(response.getPurchaseOrderId()).get();
+        assertThat(purchaseOrder.getTotalPrice()).isEqualByComparingTo(expectedTotal);
+        assertThat(purchaseOrder.getLineCount()).isEqualTo(2);
+    }
+
+    @Test
+    void update_archivePendingLines() {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 1), buyer.getBuyerId()).getPurchaseOrderId();
+
+        // Act
+        PurchaseOrderResponseDto response = purchaseOrderService.update(purchaseId, buyer.getBuyerId());
+
+        // Assert
+        assertThat(response.getTotalPrice()).isEqualByComparingTo(firstBatch.getProductPrice().multiply(new BigDecimal(3)));
+        assertThat(cartStore.size()).isZero();
+        List<ArchivedPurchaseOrderLine> archivedLines = purchaseOrderArchiveRepository.findByPurchaseIdOrderByArchiveLineId(purchaseId);
+        assertThat(archivedLines).hasSize(1);
+        assertThat(archivedLines.get(0).getQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void reload_recoverPendingLinesFromJournal_onlyOnce() {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+
+        // Act
+        cartStore.reload();
+        purchaseOrderService.flushPendingCarts();
+        cartStore.reload();
+
+        // Assert
+        assertThat(cartStore.size()).isZero();
+        List<BatchPurchaseOrder> lines = batchPurchaseOrderRepository.findAll();
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void reload_keepLinesAppendedAfterIncompleteLine() throws IOException {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        Files.write(JOURNAL_PATH, "99;1;2".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        cartStore.reload();
+        purchaseOrderService.create(getRequest(secondBatch, 1), buyer.getBuyerId());
+
+        // Act
+        cartStore.reload();
+        purchaseOrderService.flushPendingCarts();
+
+        // Assert
+        assertThat(batchPurchaseOrderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void reload_ignoreCheckpointOfOtherInstances() {
+        // Arrange
+        purchaseOrderService.create(getRequest(firstBatch, 2), buyer.getBuyerId());
+        checkpointRepository.save(new WriteBehindCheckpoint(WriteBehindCheckpoint.cartJournal("other"), 1000));
+
+        // Act
+        cartStore.reload();
+        purchaseOrderService.flushPendingCarts();
+
+        // Assert
+        assertThat(batchPurchaseOrderRepository.count()).isEqualTo(1);
+        assertThat(checkpointRepository.findById(WriteBehindCheckpoint.cartJournal("test")).get().getLastSequence())
+                .isLessThan(1000);
+        assertThat(checkpointRepository.findById(WriteBehindCheckpoint.cartJournal("other")).get().getLastSequence())
+                .isEqualTo(1000);
+    }
+
+    @Test
+    void flushPendingCarts_returnStock_whenCartNoLongerExists() {
+        // Arrange
+        long purchaseId = purchaseOrderService.create(getRequest(firstBatch, 4), buyer.getBuyerId()).getPurchaseOrderId();
+        purchaseOrderRepository.deleteById(purchaseId);
+
+        // Act
+        purchaseOrderService.flushPendingCarts();
+
+        // Assert
+        assertThat(batchPurchaseOrderRepository.count()).isZero();
+        assertThat(batchRepository.findById(firstBatch.getBatchNumber()).get().getCurrentQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+        assertThat(stockIndex.find(firstBatch.getBatchNumber()).get().getQuantity())
+                .isEqualTo(firstBatch.getCurrentQuantity());
+    }
+
+    private PurchaseOrderRequestDto getRequest(Batch batch, int quantity) {
+        PurchaseOrderRequestDto request = new PurchaseOrderRequestDto();
+        request.setOrderStatus("Opened");
+        request.setBatch(new BatchPurchaseOrderRequestDto(batch.getBatchNumber(), quantity));
+        return request;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mercadolibre.bootcamp.projeto_integrador.integration.listeners;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.Reloadable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.TestContext;
 import org.springframework.test.context.support.AbstractTestExecutionListener;
@@ -16,7 +17,9 @@ public class ResetDatabaseTestExecutionListener extends AbstractTestExecutionLis
     private static final String SQL_DISABLE_REFERENTIAL_INTEGRITY = "SET REFERENTIAL_INTEGRITY FALSE";
     private static final String SQL_ENABLE_REFERENTIAL_INTEGRITY = "SET REFERENTIAL_INTEGRITY TRUE";
     private static final String SQL_FIND_TABLE_NAMES = "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES where TABLE_SCHEMA='%s'";
-    private static final String SQL_TRUNCATE_TABLE = "TRUNCATE TABLE %s.%s RESTART IDENTITY";
+    // Nomes entre aspas: o Flyway cria a tabela de histórico em minúsculas (flyway_schema_history) e, sem aspas, o H2
+    // procuraria o nome em maiúsculas.
+    private static final String SQL_TRUNCATE_TABLE = "TRUNCATE TABLE \"%s\".\"%s\" RESTART IDENTITY";
 
     @SuppressWarnings("SpringJavaAutowiredMembersInspection")
     @Autowired
@@ -32,6 +35,10 @@ public class ResetDatabaseTestExecutionListener extends AbstractTestExecutionLis
     @Override
     public void beforeTestMethod(TestContext testContext) throws Exception {
         cleanupDatabase();
+        testContext.getApplicationContext()
+                .getBeansOfType(Reloadable.class)
+                .values()
+                .forEach(Reloadable::reload);
     }
 
     private void cleanupDatabase() throws SQLException {
@@ -0,0 +1,63 @@
+package com.mercadolibre.bootcamp.projeto_integrador.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void advance_expireItemsAtTheirDeadlineTick() {
+        // Arrange
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("first", 250);
+        wheel.schedule("second", 400);
+
+        // Act & Assert
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("first");
+        assertThat(wheel.advance(400)).containsExactly("second");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_keepItemsScheduledBeyondOneRound() {
+        // Arrange
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 4, 0);
+        wheel.schedule("nextRound", 500);
+        wheel.schedule("thirdRound", 1000);
+
+        // Act & Assert
+        assertThat(wheel.advance(400)).isEmpty();
+        assertThat(wheel.advance(500)).containsExactly("nextRound");
+        assertThat(wheel.advance(900)).isEmpty();
+        assertThat(wheel.advance(1000)).containsExactly("thirdRound");
+    }
+
+    @Test
+    void schedule_expireOnNextTick_whenDeadlineHasPassed() {
+        // Arrange
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 1000);
+
+        // Act
+        wheel.schedule("late", 10);
+
+        // Assert
+        assertThat(wheel.advance(1099)).isEmpty();
+        assertThat(wheel.advance(1100)).containsExactly("late");
+    }
+
+    @Test
+    void clear_discardScheduledItems() {
+        // Arrange
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("item", 200);
+
+        // Act
+        wheel.clear(150);
+
+        // Assert
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(1000)).isEmpty();
+    }
+}
@@ -1,6 +1,10 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
+import com.mercadolibre.bootcamp.projeto_integrador.cache.SellableStockIndex;
+import com.mercadolibre.bootcamp.projeto_integrador.cache.StockEntry;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerPageDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchBuyerResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchCursor;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchDueDateResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.ManagerNotFoundException;
@@ -19,9 +23,12 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,6 +47,8 @@ class BatchServiceTest {
     private ISectionService sectionService;
     @Mock
     private IManagerService managerService;
+    @Mock
+    private SellableStockIndex stockIndex;
 
     private List<Batch> batches;
     private Section section;
@@ -50,15 +59,16 @@ class BatchServiceTest {
         batches = BatchGenerator.newBatchList();
         section = batches.get(0).getInboundOrder().getSection();
         manager = section.getManager();
+        ReflectionTestUtils.setField(service, "clock", Clock.systemDefaultZone());
     }
 
     @Test
     void findAll_returnBatches_whenBatchesExists() {
         // Arrange
-        when(batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfter(ArgumentMatchers.anyInt(), ArgumentMatchers.any()))
-                .thenReturn(batches);
+        when(batchRepository.findSellablePage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(mapToBuyerDto(batches));
         // Act
-        List<BatchBuyerResponseDto> foundBatches = service.findAll();
+        List<BatchBuyerResponseDto> foundBatches = service.findAll(null, 50).getBatches();
 
         // Assert
         assertThat(foundBatches).isNotEmpty();
@@ -68,30 +78,101 @@ class BatchServiceTest {
         assertEquals(foundBatches.get(2).getBatchNumber(), batches.get(2).getBatchNumber());
     }
 
+    @Test
+    void findAll_returnBatchesFromIndex_whenIndexIsReady() {
+        // Arrange
+        when(stockIndex.isReady()).thenReturn(true);
+        when(stockIndex.findPage(ArgumentMatchers.isNull(), ArgumentMatchers.any(), ArgumentMatchers.eq(51))).thenReturn(List.of(new StockEntry(batches.get(0))));
+
+        // Act
+        List<BatchBuyerResponseDto> foundBatches = service.findAll(null, 50).getBatches();
+
+        // Assert
+        assertEquals(foundBatches.size(), 1);
+        assertEquals(foundBatches.get(0).getBatchNumber(), batches.get(0).getBatchNumber());
+        assertEquals(foundBatches.get(0).getQuantity(), batches.get(0).getCurrentQuantity());
+        verify(batchRepository, never()).findSellablePage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+    }
+
     @Test
     void findAll_returnNotFoundException_whenBatchesNotExists() {
         // Arrange
         batches.clear();
-        when(batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfter(ArgumentMatchers.anyInt(), ArgumentMatchers.any()))
-                .thenReturn(batches);
+        when(batchRepository.findSellablePage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(mapToBuyerDto(batches));
 
         // Act
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> service.findAll());
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> service.findAll(null, 50));
 
         // Assert
         assertThat(exception.getName()).contains("Products");
         assertEquals(exception.getMessage(), "There are no products in stock");
     }
 
+    @Test
+    void findAll_returnNextCursor_whenThereAreMoreBatchesThanPageSize() {
+        // Arrange
+        when(batchRepository.findSellablePage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(mapToBuyerDto(batches));
+
+        // Act
+        BatchBuyerPageDto page = service.findAll(null, 2);
+
+        // Assert
+        assertEquals(page.getBatches().size(), 2);
+        BatchCursor nextCursor = BatchCursor.decode(page.getNextCursor());
+        assertEquals(nextCursor.getBatchNumber(), batches.get(1).getBatchNumber());
+        assertEquals(nextCursor.getDueDate(), batches.get(1).getDueDate());
+    }
+
+    @Test
+    void findAll_returnEmptyPage_whenCursorIsAfterTheLastBatch() {
+        // Arrange
+        String cursor = new BatchCursor(LocalDate.now().plusYears(1), 10L).encode();
+        batches.clear();
+        when(batchRepository.findSellablePage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.eq(LocalDate.now().plusYears(1)), ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+                .thenReturn(mapToBuyerDto(batches));
+
+        // Act
+        BatchBuyerPageDto page = service.findAll(cursor, 50);
+
+        // Assert
+        assertThat(page.getBatches()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findAll_returnBadRequestException_whenInvalidCursor() {
+        // Act
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> service.findAll("abc", 50));
+
+        // Assert
+        assertEquals(exception.getMessage(), "Invalid cursor");
+        verify(batchRepository, never()).findSellablePage(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void findAll_returnBadRequestException_whenInvalidPageSize() {
+        // Act
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> service.findAll(null, 0));
+
+        // Assert
+        assertThat(exception.getMessage()).contains("The page size should be between 1 and");
+    }
+
     @Test
     void findBatchByCategory_returnBatchesChilled_whenValidCategory() {
         // Arrange
         batches = BatchGenerator.newBatchListChilled();
-        when(batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfterAndProduct_CategoryIs(ArgumentMatchers.anyInt(),
-                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findSellablePageByCategory(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(mapToBuyerDto(batches));
 
         // Act
-        List<BatchBuyerResponseDto> foundBatches = service.findBatchByCategory("RF");
+        List<BatchBuyerResponseDto> foundBatches = service.findBatchByCategory("RF", null, 50).getBatches();
 
         // Assert
         assertThat(foundBatches).isNotEmpty();
@@ -107,11 +188,12 @@ class BatchServiceTest {
     @Test
     void findBatchByCategory_returnBatchesFresh_whenValidCategory() {
         // Arrange
-        when(batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfterAndProduct_CategoryIs(ArgumentMatchers.anyInt(),
-                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findSellablePageByCategory(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(mapToBuyerDto(batches));
 
         // Act
-        List<BatchBuyerResponseDto> foundBatches = service.findBatchByCategory("fs");
+        List<BatchBuyerResponseDto> foundBatches = service.findBatchByCategory("fs", null, 50).getBatches();
 
         // Assert
         assertThat(foundBatches).isNotEmpty();
@@ -128,11 +210,12 @@ class BatchServiceTest {
     void findBatchByCategory_returnBatchesFrozen_whenValidCategory() {
         // Arrange
         batches = BatchGenerator.newBatchListFrozen();
-        when(batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfterAndProduct_CategoryIs(ArgumentMatchers.anyInt(),
-                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findSellablePageByCategory(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(mapToBuyerDto(batches));
 
         // Act
-        List<BatchBuyerResponseDto> foundBatches = service.findBatchByCategory("FF");
+        List<BatchBuyerResponseDto> foundBatches = service.findBatchByCategory("FF", null, 50).getBatches();
 
         // Assert
         assertThat(foundBatches).isNotEmpty();
@@ -149,12 +232,12 @@ class BatchServiceTest {
     void findBatchByCategory_returnNotFoundException_whenBatchesNotExistsOnCategory() {
         // Arrange
         batches.clear();
-        when(batchRepository.findByCurrentQuantityGreaterThanAndDueDateAfterAndProduct_CategoryIs(ArgumentMatchers.anyInt(),
-                ArgumentMatchers.any(), ArgumentMatchers.any()))
-                .thenReturn(batches);
+        when(batchRepository.findSellablePageByCategory(ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(mapToBuyerDto(batches));
 
         // Act
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> service.findBatchByCategory("FS"));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> service.findBatchByCategory("FS", null, 50));
 
         // Assert
         assertThat(exception.getName()).contains("Products");
@@ -164,7 +247,7 @@ class BatchServiceTest {
     @Test
     void findBatchByCategory_returnBadRequestException_whenInvalidCategory() {
         // Act
-        BadRequestException exception = assertThrows(BadRequestException.class, () -> service.findBatchByCategory("ab"));
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> service.findBatchByCategory("ab", null, 50));
 
         // Assert
         assertThat(exception.getMessage()).contains("Invalid category, try again with one of the options");
@@ -173,12 +256,12 @@ class BatchServiceTest {
     @Test
     void findBatchBySection_returnBatches_whenBatchesExists() {
         // Arrange
-        batches.get(0).setCurrentQuantity(0);
         batches.get(1).setDueDate(LocalDate.now().plusDays(5));
         when(sectionService.findById(ArgumentMatchers.anyLong())).thenReturn(section);
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
-        when((batchRepository.findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any()))).thenReturn(batches);
+        when((batchRepository.findInStockBySectionAndDueDateBetween(ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any())))
+                .thenReturn(mapToDueDateDto(batches.subList(1, 3)));
 
         // Act
         List<BatchDueDateResponseDto> returnedBatches = service.findBatchBySection(section.getSectionCode(), 15, manager.getManagerId());
@@ -209,7 +292,7 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).containsIgnoringCase("section");
         assertThat(exception.getMessage()).containsIgnoringCase("There is no section with the specified id");
-        verify(batchRepository, never()).findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(ArgumentMatchers.any(),
+        verify(batchRepository, never()).findInStockBySectionAndDueDateBetween(ArgumentMatchers.any(),
                 ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
@@ -219,8 +302,8 @@ class BatchServiceTest {
         batches.clear();
         when(sectionService.findById(ArgumentMatchers.anyLong())).thenReturn(section);
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
-        when((batchRepository.findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any()))).thenReturn(batches);
+        when((batchRepository.findInStockBySectionAndDueDateBetween(ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any()))).thenReturn(mapToDueDateDto(batches));
 
         // Act
         List<BatchDueDateResponseDto> returnedBatches = service.findBatchBySection(section.getSectionCode(), 15, manager.getManagerId());
@@ -242,7 +325,7 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).contains("Manager not found");
         assertThat(exception.getMessage()).contains("Manager with id " + manager.getManagerId() + " not found");
-        verify(batchRepository, never()).findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(ArgumentMatchers.any(),
+        verify(batchRepository, never()).findInStockBySectionAndDueDateBetween(ArgumentMatchers.any(),
                 ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
@@ -261,7 +344,7 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).contains(unauthorizedManager.getName() + " is not authorized.");
         assertThat(exception.getMessage()).contains(unauthorizedManager.getName() + " is not authorized to perform this action");
-        verify(batchRepository, never()).findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(ArgumentMatchers.any(),
+        verify(batchRepository, never()).findInStockBySectionAndDueDateBetween(ArgumentMatchers.any(),
                 ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
@@ -274,18 +357,18 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).contains("Bad request");
         assertThat(exception.getMessage()).contains("The number of days to expiration can't be negative");
-        verify(batchRepository, never()).findByInboundOrder_SectionAndDueDateBetweenOrderByDueDate(ArgumentMatchers.any(),
+        verify(batchRepository, never()).findInStockBySectionAndDueDateBetween(ArgumentMatchers.any(),
                 ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
     @Test
     void findBatchByCategoryAndDueDate_returnFreshBatchesAscOrder_whenBatchesExists() {
         // Arrange
-        batches.get(0).setCurrentQuantity(0);
         batches.get(1).setDueDate(LocalDate.now().plusDays(5));
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
-        when(batchRepository.findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findInStockByCategoryAndManagerOrderByDueDateAsc(ArgumentMatchers.any(),
+                ArgumentMatchers.eq(manager.getManagerId()), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(mapToDueDateDto(batches.subList(1, 3)));
 
         // Act
         List<BatchDueDateResponseDto> returnedBatches = service.findBatchByCategoryAndDueDate("FS", 15,
@@ -309,12 +392,12 @@ class BatchServiceTest {
     void findBatchByCategoryAndDueDate_returnChilledBatchesDescOrder_whenBatchesExists() {
         // Arrange
         batches = BatchGenerator.newBatchListChilled();
-        batches.get(0).setCurrentQuantity(0);
         batches.get(1).setDueDate(LocalDate.now().plusDays(8));
         manager.setManagerId(1);
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
-        when(batchRepository.findByProduct_CategoryAndDueDateBetweenOrderByDueDateDesc(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findInStockByCategoryAndManagerOrderByDueDateDesc(ArgumentMatchers.any(),
+                ArgumentMatchers.eq(manager.getManagerId()), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(mapToDueDateDto(batches.subList(1, 3)));
 
         // Act
         List<BatchDueDateResponseDto> returnedBatches = service.findBatchByCategoryAndDueDate("RF", 15,
@@ -339,8 +422,9 @@ class BatchServiceTest {
         // Arrange
         batches.clear();
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
-        when(batchRepository.findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findInStockByCategoryAndManagerOrderByDueDateAsc(ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(mapToDueDateDto(batches));
 
         // Act
         List<BatchDueDateResponseDto> returnedBatches = service.findBatchByCategoryAndDueDate("FS", 15,
@@ -362,8 +446,8 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).contains("Manager not found");
         assertThat(exception.getMessage()).contains("Manager with id " + manager.getManagerId() + " not found");
-        verify(batchRepository, never()).findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any());
+        verify(batchRepository, never()).findInStockByCategoryAndManagerOrderByDueDateAsc(ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
     @Test
@@ -378,8 +462,8 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).contains("Bad request");
         assertThat(exception.getMessage()).contains("The number of days to expiration can't be negative");
-        verify(batchRepository, never()).findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any());
+        verify(batchRepository, never()).findInStockByCategoryAndManagerOrderByDueDateAsc(ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
     }
 
     @Test
@@ -394,7 +478,15 @@ class BatchServiceTest {
         // Assert
         assertThat(exception.getName()).contains("Bad request");
         assertThat(exception.getMessage()).contains("The order direction should be either ASC or DESC");
-        verify(batchRepository, never()).findByProduct_CategoryAndDueDateBetweenOrderByDueDateAsc(ArgumentMatchers.any(),
-                ArgumentMatchers.any(), ArgumentMatchers.any());
+        verify(batchRepository, never()).findInStockByCategoryAndManagerOrderByDueDateAsc(ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    private List<BatchBuyerResponseDto> mapToBuyerDto(List<Batch> batches) {
+        return batches.stream().map(BatchBuyerResponseDto::new).collect(Collectors.toList());
+    }
+
+    private List<BatchDueDateResponseDto> mapToDueDateDto(List<Batch> batches) {
+        return batches.stream().map(BatchDueDateResponseDto::new).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
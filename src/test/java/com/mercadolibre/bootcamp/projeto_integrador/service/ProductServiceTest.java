@@ -1,11 +1,14 @@
 package com.mercadolibre.bootcamp.projeto_integrador.service;
 
 import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductResponseDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductWarehouseQuantityDto;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.WarehouseResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.NotFoundException;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Batch;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Manager;
 import com.mercadolibre.bootcamp.projeto_integrador.model.Product;
 import com.mercadolibre.bootcamp.projeto_integrador.repository.IBatchRepository;
+import com.mercadolibre.bootcamp.projeto_integrador.dto.BatchResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.dto.ProductDetailsResponseDto;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.BadRequestException;
 import com.mercadolibre.bootcamp.projeto_integrador.exceptions.EmptyStockException;
@@ -21,9 +24,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -55,8 +60,9 @@ class ProductServiceTest {
     @Test
     void getWarehouses_returnProduct_whenProductsExists() {
         // Arrange
-        when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(productRepository.existsById(ArgumentMatchers.anyLong())).thenReturn(true);
+        when(batchRepository.sumQuantityByWarehouse(ArgumentMatchers.anyLong()))
+                .thenReturn(List.of(new WarehouseResponseDto(1, 50), new WarehouseResponseDto(2, 40)));
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
 
         // Act
@@ -73,7 +79,7 @@ class ProductServiceTest {
     @Test
     void getWarehouses_returnNotFoundException_whenProductNotExist() {
         // Arrange
-        when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        when(productRepository.existsById(ArgumentMatchers.anyLong())).thenReturn(false);
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
 
         // Act
@@ -88,9 +94,8 @@ class ProductServiceTest {
     @Test
     void getWarehouses_returnProductWithoutWarehouse_whenProductWithoutBatches() {
         // Arrange
-        when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        batches.clear();
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(productRepository.existsById(ArgumentMatchers.anyLong())).thenReturn(true);
+        when(batchRepository.sumQuantityByWarehouse(ArgumentMatchers.anyLong())).thenReturn(new ArrayList<>());
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
 
         // Act
@@ -101,11 +106,48 @@ class ProductServiceTest {
         assertThat(foundProduct.getWarehouses()).isEmpty();
     }
 
+    @Test
+    void getWarehousesOfProducts_returnWarehousesInRequestedOrder_whenProductsExist() {
+        // Arrange
+        when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
+        when(productRepository.countByProductIdIn(ArgumentMatchers.anyCollection())).thenReturn(3L);
+        when(batchRepository.sumQuantityByProductAndWarehouse(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(new ProductWarehouseQuantityDto(1L, 1L, 10),
+                        new ProductWarehouseQuantityDto(1L, 2L, 20),
+                        new ProductWarehouseQuantityDto(2L, 1L, 30)));
+
+        // Act
+        List<ProductResponseDto> foundProducts = service.getWarehouses(List.of(2L, 1L, 3L, 1L), manager.getManagerId());
+
+        // Assert
+        assertThat(foundProducts).extracting(ProductResponseDto::getProductId).containsExactly(2L, 1L, 3L);
+        assertThat(foundProducts.get(0).getWarehouses()).containsExactly(new WarehouseResponseDto(1, 30));
+        assertThat(foundProducts.get(1).getWarehouses())
+                .containsExactly(new WarehouseResponseDto(1, 10), new WarehouseResponseDto(2, 20));
+        assertThat(foundProducts.get(2).getWarehouses()).isEmpty();
+    }
+
+    @Test
+    void getWarehousesOfProducts_returnNotFoundException_whenAnyProductNotExist() {
+        // Arrange
+        when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
+        when(productRepository.countByProductIdIn(ArgumentMatchers.anyCollection())).thenReturn(1L);
+
+        // Act
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> service.getWarehouses(List.of(1L, 2L), manager.getManagerId()));
+
+        // Assert
+        assertThat(exception.getName()).contains("Product");
+        verify(batchRepository, never()).sumQuantityByProductAndWarehouse(ArgumentMatchers.anyCollection());
+    }
+
     @Test
     void getProductDetails_returnProductWithBatches_whenValidProduct() {
         // Arrange
         when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenReturn(mapToBatchResponseDto(batches));
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(ManagerGenerator.getManagerWithId(2));
 
         // Act
@@ -132,14 +174,15 @@ class ProductServiceTest {
 
         // Assert
         assertThat(exception.getMessage()).isEqualTo("There is no product with the specified id");
-        verify(batchRepository, never()).findAllByProduct(ArgumentMatchers.any());
+        verify(batchRepository, never()).findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
     }
 
     @Test
     void getProductDetails_returnEmptyStockException_whenProductWithoutBatchStock() {
         // Arrange
         when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.eq(1L)))
+                .thenReturn(List.of());
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(ManagerGenerator.getManagerWithId(1));
 
         // Act
@@ -155,7 +198,8 @@ class ProductServiceTest {
     void getProductDetails_returnOrderedByBatchNumber_whenValidProduct() {
         // Arrange
         when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenReturn(mapToBatchResponseDto(batches));
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(ManagerGenerator.getManagerWithId(2));
 
         long maxBatchNumber = batches.stream()
@@ -180,7 +224,8 @@ class ProductServiceTest {
     void getProductDetails_returnOrderedByCurrentQuantity_whenValidProduct() {
         // Arrange
         when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenReturn(mapToBatchResponseDto(batches));
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(ManagerGenerator.getManagerWithId(2));
 
         long maxQuantity = batches.stream()
@@ -205,7 +250,8 @@ class ProductServiceTest {
     void getProductDetails_returnOrderedByDueDate_whenValidProduct() {
         // Arrange
         when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenReturn(mapToBatchResponseDto(batches));
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(ManagerGenerator.getManagerWithId(2));
 
         LocalDate maxDueDate = batches.stream()
@@ -231,7 +277,8 @@ class ProductServiceTest {
         // Arrange
         when(managerService.findById(ArgumentMatchers.anyLong())).thenReturn(manager);
         when(productRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(product));
-        when(batchRepository.findAllByProduct(ArgumentMatchers.any())).thenReturn(batches);
+        when(batchRepository.findByProductAndManager(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenReturn(mapToBatchResponseDto(batches));
 
         // Act
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -240,4 +287,8 @@ class ProductServiceTest {
         // Assert
         assertThat(exception.getMessage()).contains("Parâmetro de ordenação inválido");
     }
-}
\ No newline at end of file
+
+    private List<BatchResponseDto> mapToBatchResponseDto(List<Batch> batches) {
+        return batches.stream().map(BatchResponseDto::new).collect(Collectors.toList());
+    }
+}
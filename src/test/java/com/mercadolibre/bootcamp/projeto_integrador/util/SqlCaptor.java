@@ -0,0 +1,33 @@
+package com.mercadolibre.bootcamp.projeto_integrador.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * StatementInspector registrado nas propriedades de teste, que guarda o SQL gerado pelo Hibernate durante capture().
+ */
+public class SqlCaptor implements StatementInspector {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    private static volatile boolean capturing;
+
+    public static List<String> capture(Runnable action) {
+        statements.clear();
+        capturing = true;
+        try {
+            action.run();
+        } finally {
+            capturing = false;
+        }
+        return new ArrayList<>(statements);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (capturing)
+            statements.add(sql);
+        return sql;
+    }
+}